@@ -1,11 +1,15 @@
 package com.appdevg5.ghidorakings.config;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
+import com.appdevg5.ghidorakings.service.DuplicateFavoriteException;
+import com.appdevg5.ghidorakings.service.PasswordHashingBusyException;
+
 import java.util.HashMap;
 import java.util.Map;
 
@@ -24,6 +28,24 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(ex.getMessage());
     }
 
+    /**
+     * Handle a favorite moved onto a (user, recipe) pair that is already taken
+     */
+    @ExceptionHandler(DuplicateFavoriteException.class)
+    public ResponseEntity<?> handleDuplicateFavoriteException(DuplicateFavoriteException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    /**
+     * Handle a saturated password hashing pool: ask the client to retry later
+     */
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<?> handlePasswordHashingBusyException(PasswordHashingBusyException ex, WebRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(ex.getMessage());
+    }
+
     /**
      * Handle generic exceptions - DO NOT expose stack traces or internal details
      */
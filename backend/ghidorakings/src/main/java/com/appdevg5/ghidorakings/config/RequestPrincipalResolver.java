@@ -0,0 +1,63 @@
+package com.appdevg5.ghidorakings.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
+import com.appdevg5.ghidorakings.service.SessionTokens;
+
+/**
+ * Supplies the RequestPrincipal handler parameter. A session token already
+ * verified by SessionTokenFilter wins; otherwise, while the legacy header is
+ * allowed, X-User-Id identifies the user but never grants admin rights, and
+ * SessionTokenFilter has already turned it away on writes. Either way it is
+ * resolved once per request and kept as a request attribute for any later
+ * lookup.
+ */
+@Component
+public class RequestPrincipalResolver implements HandlerMethodArgumentResolver {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+
+    private static final String ATTRIBUTE = RequestPrincipal.class.getName();
+
+    @Value("${auth.token.allow-user-id-header:false}")
+    boolean allowUserIdHeader = false;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return RequestPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public RequestPrincipal resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        RequestPrincipal principal = (RequestPrincipal) webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (principal == null) {
+            SessionTokens.Claims claims = (SessionTokens.Claims) webRequest.getAttribute(
+                SessionTokenFilter.CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            principal = claims != null ? claims.toPrincipal() : resolve(webRequest.getHeader(USER_ID_HEADER));
+            webRequest.setAttribute(ATTRIBUTE, principal, RequestAttributes.SCOPE_REQUEST);
+        }
+        return principal;
+    }
+
+    RequestPrincipal resolve(String header) {
+        if (!allowUserIdHeader || header == null || header.isBlank()) {
+            return RequestPrincipal.ANONYMOUS;
+        }
+        Integer userId;
+        try {
+            userId = Integer.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + USER_ID_HEADER + " header");
+        }
+        return new RequestPrincipal(userId, false);
+    }
+}
@@ -0,0 +1,11 @@
+package com.appdevg5.ghidorakings.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables @Scheduled background jobs such as the ingredient suggestion rebuild;
+// spring.task.scheduling.pool.size keeps a long job from delaying the others
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,69 @@
+package com.appdevg5.ghidorakings.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.appdevg5.ghidorakings.service.SessionTokens;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Verifies an "Authorization: Bearer" session token in memory and stores
+ * the verified claims for RequestPrincipalResolver. A bad or expired token
+ * gets 401; requests without one continue as before. The legacy X-User-Id
+ * header is also answered with 401 on writes and /admin/ paths, which need
+ * a token. Created by SecurityConfig rather than as a bean so it only runs
+ * in the security chain.
+ */
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    public static final String CLAIMS_ATTRIBUTE = SessionTokens.Claims.class.getName();
+
+    private static final String BEARER = "Bearer ";
+
+    private static final String ADMIN_PATH = "/admin/";
+
+    private final SessionTokens sessionTokens;
+
+    public SessionTokenFilter(SessionTokens sessionTokens) {
+        this.sessionTokens = sessionTokens;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            SessionTokens.Claims claims = sessionTokens.verify(authorization.substring(BEARER.length()).trim());
+            if (claims == null) {
+                reject(response, "Invalid or expired token");
+                return;
+            }
+            request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+        } else if (request.getHeader(RequestPrincipalResolver.USER_ID_HEADER) != null && needsToken(request)) {
+            reject(response, RequestPrincipalResolver.USER_ID_HEADER + " is not accepted here, sign in for a token");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static boolean needsToken(HttpServletRequest request) {
+        String method = request.getMethod();
+        boolean safe = HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+        return !safe || request.getRequestURI().contains(ADMIN_PATH);
+    }
+
+    private static void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+}
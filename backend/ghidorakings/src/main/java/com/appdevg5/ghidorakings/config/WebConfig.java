@@ -0,0 +1,21 @@
+package com.appdevg5.ghidorakings.config;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Lets controllers take the requester as a RequestPrincipal parameter
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    @Autowired
+    RequestPrincipalResolver requestPrincipalResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(requestPrincipalResolver);
+    }
+}
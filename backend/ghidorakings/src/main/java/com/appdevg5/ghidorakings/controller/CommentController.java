@@ -3,13 +3,17 @@ package com.appdevg5.ghidorakings.controller;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.appdevg5.ghidorakings.dto.CommentPage;
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
 import com.appdevg5.ghidorakings.entity.CommentEntity;
-import com.appdevg5.ghidorakings.entity.UserEntity;
 import com.appdevg5.ghidorakings.service.CommentService;
-import com.appdevg5.ghidorakings.service.UserService;
+import com.appdevg5.ghidorakings.service.CommentStreamHub;
 
 @RestController
 @RequestMapping("/comment") 
@@ -19,26 +23,19 @@ public class CommentController {
     CommentService commentService;
     
     @Autowired
-    UserService userService;
-    
-    // Helper method to verify admin status
-    private boolean isUserAdmin(Integer userId) {
-        if (userId == null) return false;
-        UserEntity user = userService.getUserById(userId);
-        return user != null && user.isAdmin();
-    }
+    CommentStreamHub commentStreamHub;
 
     @PostMapping("/insertComment")
     public ResponseEntity<?> insertComment(@RequestBody CommentEntity commentEntity,
-                                          @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                          RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
         
         // Ensure user can only create comments for themselves
-        if (!commentEntity.getUserId().equals(requesterId)) {
+        if (!commentEntity.getUserId().equals(requester.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only create comments for yourself.");
         }
@@ -48,15 +45,54 @@ public class CommentController {
     }
 
     @GetMapping("/getAllComments")
-    public List<CommentEntity> getAllComments() {
-        return commentService.getAllComments();
+    public ResponseEntity<List<CommentEntity>> getAllComments(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = commentService.getCommentsETag();
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        return ETags.ok(etag).body(commentService.getAllComments());
+    }
+
+    // Newest-first comments for one recipe; pass nextCursor back as ?cursor= to load more
+    @GetMapping("/byRecipe/{recipeId}")
+    public ResponseEntity<CommentPage> getCommentsByRecipe(@PathVariable Integer recipeId,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(commentService.getCommentsByRecipe(recipeId, cursor, size));
+    }
+
+    // Live comment changes for one recipe; browsers resend Last-Event-ID on reconnect to resume
+    @GetMapping(value = "/stream/{recipeId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamComments(@PathVariable Integer recipeId,
+                                            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // the hub keeps a channel per recipe id, so never open one for an id that does not exist
+        if (!commentService.recipeExists(recipeId)) {
+            return ResponseEntity.notFound().build();
+        }
+        Long resumeAfter = null;
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                resumeAfter = Long.valueOf(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                // unknown id: start a fresh stream
+            }
+        }
+        SseEmitter emitter = commentStreamHub.subscribe(recipeId, resumeAfter);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .contentType(MediaType.TEXT_PLAIN)
+                .body("Too many live comment streams, try again later.");
+        }
+        return ResponseEntity.ok(emitter);
     }
 
     @PutMapping("/updateComment")
     public ResponseEntity<?> updateComment(@RequestParam int commentId, @RequestBody CommentEntity newCommentDetails,
-                                          @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                          RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -67,7 +103,7 @@ public class CommentController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingComment.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingComment.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only update your own comments.");
         }
@@ -78,9 +114,9 @@ public class CommentController {
 
     @DeleteMapping("/deleteComment/{commentId}")
     public ResponseEntity<?> deleteComment(@PathVariable int commentId,
-                                          @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                          RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -91,7 +127,7 @@ public class CommentController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingComment.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingComment.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only delete your own comments.");
         }
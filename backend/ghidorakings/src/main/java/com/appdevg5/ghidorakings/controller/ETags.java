@@ -0,0 +1,40 @@
+package com.appdevg5.ghidorakings.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * If-None-Match handling shared by the controllers, so a match can be
+ * answered before anything is loaded from the database.
+ */
+final class ETags {
+
+    private ETags() {}
+
+    // Weak comparison as required for If-None-Match: a proxy may have turned our tag into W/"..."
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+
+    // Clients may keep the body but must revalidate it on every use
+    static ResponseEntity.BodyBuilder ok(String etag) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache());
+    }
+}
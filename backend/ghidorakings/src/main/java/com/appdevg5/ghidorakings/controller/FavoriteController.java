@@ -1,15 +1,18 @@
 package com.appdevg5.ghidorakings.controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 
+import com.appdevg5.ghidorakings.dto.CursorPage;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
 import com.appdevg5.ghidorakings.entity.FavoriteEntity;
-import com.appdevg5.ghidorakings.entity.UserEntity;
 import com.appdevg5.ghidorakings.service.FavoriteService;
-import com.appdevg5.ghidorakings.service.UserService;
 
 @RestController
 @RequestMapping("/favorite")
@@ -17,28 +20,18 @@ public class FavoriteController {
 
     @Autowired
     FavoriteService favoriteService;
-    
-    @Autowired
-    UserService userService;
-    
-    // Helper method to verify admin status
-    private boolean isUserAdmin(Integer userId) {
-        if (userId == null) return false;
-        UserEntity user = userService.getUserById(userId);
-        return user != null && user.isAdmin();
-    }
 
     @PostMapping("/insertFavorite")
     public ResponseEntity<?> insertFavorite(@RequestBody FavoriteEntity favoriteEntity,
-                                           @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                           RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
         
         // Ensure user can only create favorites for themselves
-        if (!favoriteEntity.getUserId().equals(requesterId)) {
+        if (!favoriteEntity.getUserId().equals(requester.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only create favorites for yourself.");
         }
@@ -47,6 +40,25 @@ public class FavoriteController {
         return ResponseEntity.ok(created);
     }
 
+    // Idempotent: sets the requester's favorite on a recipe to ?favorited= (default true) and returns the new state
+    @PutMapping("/setFavorite/{recipeId}")
+    public ResponseEntity<?> setFavorite(@PathVariable Integer recipeId,
+                                        @RequestParam(defaultValue = "true") boolean favorited,
+                                        RequestPrincipal requester) {
+        // Authentication required
+        if (!requester.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("Authentication required.");
+        }
+
+        try {
+            boolean state = favoriteService.setFavorite(requester.getUserId(), recipeId, favorited);
+            return ResponseEntity.ok(Map.of("recipeId", recipeId, "isFavorited", state));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/getAllFavorites")
     public List<FavoriteEntity> getAllFavorites() {
         return favoriteService.getAllFavorites();
@@ -54,15 +66,15 @@ public class FavoriteController {
 
     @GetMapping("/getUserFavorites/{userId}")
     public ResponseEntity<?> getUserFavorites(@PathVariable Integer userId,
-                                             @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                             RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
         
         // Users can only view their own favorites unless they're admin
-        if (!userId.equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(userId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only view your own favorites.");
         }
@@ -71,11 +83,34 @@ public class FavoriteController {
         return ResponseEntity.ok(favorites);
     }
 
+    // The user's favorited recipes as summaries with ingredient names, most recently favorited first
+    @GetMapping("/user/{userId}/recipes")
+    public ResponseEntity<?> getUserFavoriteRecipes(@PathVariable Integer userId,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size,
+                                                   RequestPrincipal requester) {
+        // Authentication required
+        if (!requester.isAuthenticated()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("Authentication required.");
+        }
+
+        // Users can only view their own favorites unless they're admin
+        if (!requester.canActFor(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("You can only view your own favorites.");
+        }
+
+        CursorPage<RecipeSummary> page = favoriteService.getFavoriteRecipesPage(userId, cursor, size);
+        page.setItems(favoriteService.markFavorites(requester.getUserId(), page.getItems()));
+        return ResponseEntity.ok(page);
+    }
+
     @PutMapping("/updateFavorite")
     public ResponseEntity<?> updateFavorite(@RequestParam int favoriteId, @RequestBody FavoriteEntity newFavoriteDetails,
-                                           @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                           RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -86,7 +121,7 @@ public class FavoriteController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingFavorite.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingFavorite.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only update your own favorites.");
         }
@@ -97,9 +132,9 @@ public class FavoriteController {
 
     @DeleteMapping("/deleteFavorite/{favoriteId}")
     public ResponseEntity<?> deleteFavorite(@PathVariable int favoriteId,
-                                           @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                           RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -110,7 +145,7 @@ public class FavoriteController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingFavorite.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingFavorite.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only delete your own favorites.");
         }
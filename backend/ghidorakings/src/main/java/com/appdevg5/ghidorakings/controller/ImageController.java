@@ -0,0 +1,118 @@
+package com.appdevg5.ghidorakings.controller;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.appdevg5.ghidorakings.dto.ImageUrls;
+import com.appdevg5.ghidorakings.service.ImageStore;
+import com.appdevg5.ghidorakings.service.ThumbnailService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@RestController
+@RequestMapping("/image")
+public class ImageController {
+
+    // Content never changes for a given hash, so clients may cache it forever
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    @Autowired
+    ImageStore imageStore;
+
+    @Autowired
+    ThumbnailService thumbnailService;
+
+    @GetMapping("/{hash}")
+    public void getImage(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!imageStore.exists(hash)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        if (notModified("\"" + hash + "\"", request, response)) {
+            return;
+        }
+        try (FileChannel channel = imageStore.open(hash)) {
+            transfer(channel, response);
+        }
+    }
+
+    // Thumbnail at one of ImageUrls.THUMBNAIL_WIDTHS; falls back to the original while it is still rendering
+    @GetMapping("/{hash}/{width}")
+    public void getThumbnail(@PathVariable String hash, @PathVariable int width,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!ImageUrls.isThumbnailWidth(width) || !imageStore.exists(hash)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        String variant = ThumbnailService.variantName(width);
+        if (!imageStore.variantExists(hash, variant)) {
+            thumbnailService.schedule(hash);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.sendRedirect(request.getContextPath() + ImageUrls.original(hash));
+            return;
+        }
+        if (notModified("\"" + hash + "-" + variant + "\"", request, response)) {
+            return;
+        }
+        try (FileChannel channel = imageStore.openVariant(hash, variant)) {
+            transfer(channel, response);
+        }
+    }
+
+    private static boolean notModified(String etag, HttpServletRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+        if (ETags.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return true;
+        }
+        return false;
+    }
+
+    private static void transfer(FileChannel channel, HttpServletResponse response) throws IOException {
+        long size = channel.size();
+        response.setContentType(detectContentType(channel));
+        response.setContentLengthLong(size);
+
+        // transferTo lets the JDK move file bytes without staging the whole image on the heap
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, out);
+        }
+    }
+
+    // Sniffs the format from the file's magic bytes since the store only keeps raw content
+    private static String detectContentType(FileChannel channel) throws IOException {
+        ByteBuffer head = ByteBuffer.allocate(12);
+        channel.read(head, 0);
+        byte[] b = head.array();
+        int n = head.position();
+        if (n >= 8 && (b[0] & 0xFF) == 0x89 && b[1] == 'P' && b[2] == 'N' && b[3] == 'G') {
+            return "image/png";
+        }
+        if (n >= 3 && (b[0] & 0xFF) == 0xFF && (b[1] & 0xFF) == 0xD8 && (b[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (n >= 6 && b[0] == 'G' && b[1] == 'I' && b[2] == 'F' && b[3] == '8') {
+            return "image/gif";
+        }
+        if (n >= 12 && b[0] == 'R' && b[1] == 'I' && b[2] == 'F' && b[3] == 'F'
+                && b[8] == 'W' && b[9] == 'E' && b[10] == 'B' && b[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+}
@@ -2,6 +2,7 @@ package com.appdevg5.ghidorakings.controller;
 
 import com.appdevg5.ghidorakings.entity.IngredientEntity;
 import com.appdevg5.ghidorakings.service.IngredientService;
+import com.appdevg5.ghidorakings.service.IngredientSuggester;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,9 @@ public class IngredientController {
     @Autowired
     private IngredientService ingredientService; // define service here
 
+    @Autowired
+    private IngredientSuggester ingredientSuggester;
+
     // CREATE
     @PostMapping
     public IngredientEntity createIngredient(@RequestBody IngredientEntity ingredient) {
@@ -28,6 +32,14 @@ public class IngredientController {
         return ingredientService.getAllIngredients();
     }
 
+    // TYPEAHEAD: distinct ingredient names starting with prefix, most used first
+    @GetMapping("/suggest")
+    public List<String> suggest(@RequestParam(defaultValue = "") String prefix,
+                                @RequestParam(defaultValue = "10") int limit) {
+        // zero or negative asks for nothing useful; larger than MAX_SUGGESTIONS is capped by the suggester
+        return ingredientSuggester.suggest(prefix, Math.max(1, limit));
+    }
+
     // READ BY ID
     @GetMapping("/{id}")
     public Optional<IngredientEntity> getIngredientById(@PathVariable int id) {
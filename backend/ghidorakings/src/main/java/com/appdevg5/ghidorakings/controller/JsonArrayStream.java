@@ -0,0 +1,36 @@
+package com.appdevg5.ghidorakings.controller;
+
+import java.util.function.Consumer;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a JSON array element by element straight to the response, so the
+ * first bytes go out before the whole collection has been read.
+ */
+final class JsonArrayStream {
+
+    // Flush to the client every this many elements
+    private static final int FLUSH_INTERVAL = 50;
+
+    private JsonArrayStream() {}
+
+    static <T> StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                generator.writeStartArray();
+                int[] written = {0};
+                source.accept(item -> {
+                    generator.writePOJO(item);
+                    if (++written[0] % FLUSH_INTERVAL == 1) {
+                        generator.flush();
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+    }
+}
@@ -3,13 +3,14 @@ package com.appdevg5.ghidorakings.controller;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 
+import com.appdevg5.ghidorakings.dto.RatingStats;
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
 import com.appdevg5.ghidorakings.entity.RatingEntity;
-import com.appdevg5.ghidorakings.entity.UserEntity;
 import com.appdevg5.ghidorakings.service.RatingService;
-import com.appdevg5.ghidorakings.service.UserService;
 
 @RestController
 @RequestMapping("/rating")
@@ -17,28 +18,18 @@ public class RatingController {
 
     @Autowired
     RatingService ratingService;
-    
-    @Autowired
-    UserService userService;
-    
-    // Helper method to verify admin status
-    private boolean isUserAdmin(Integer userId) {
-        if (userId == null) return false;
-        UserEntity user = userService.getUserById(userId);
-        return user != null && user.isAdmin();
-    }
 
     @PostMapping("/insertRating")
     public ResponseEntity<?> insertRating(@RequestBody RatingEntity ratingEntity,
-                                         @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                         RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
         
         // Ensure user can only create ratings for themselves
-        if (!ratingEntity.getUserId().equals(requesterId)) {
+        if (!ratingEntity.getUserId().equals(requester.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only create ratings for yourself.");
         }
@@ -48,15 +39,32 @@ public class RatingController {
     }
 
     @GetMapping("/getAllRatings")
-    public List<RatingEntity> getAllRatings() {
-        return ratingService.getAllRatings();
+    public ResponseEntity<List<RatingEntity>> getAllRatings(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = ratingService.getRatingsVersion().toETag("ratings");
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        return ETags.ok(etag).body(ratingService.getAllRatings());
+    }
+
+    // Average, count and 1-5 histogram for one recipe
+    @GetMapping("/stats/{recipeId}")
+    public ResponseEntity<RatingStats> getRatingStats(@PathVariable Integer recipeId) {
+        return ResponseEntity.ok(ratingService.getRatingStats(recipeId));
+    }
+
+    // Same for a page of recipes, e.g. ?recipeIds=1,2,3; results follow the requested order
+    @GetMapping("/stats")
+    public ResponseEntity<List<RatingStats>> getRatingStats(@RequestParam List<Integer> recipeIds) {
+        return ResponseEntity.ok(ratingService.getRatingStats(recipeIds));
     }
 
     @PutMapping("/updateRating")
     public ResponseEntity<?> updateRating(@RequestParam int ratingId, @RequestBody RatingEntity newRatingDetails,
-                                         @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                         RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -67,7 +75,7 @@ public class RatingController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingRating.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingRating.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only update your own ratings.");
         }
@@ -78,9 +86,9 @@ public class RatingController {
 
     @DeleteMapping("/deleteRating/{ratingId}")
     public ResponseEntity<?> deleteRating(@PathVariable int ratingId,
-                                         @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                         RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -91,7 +99,7 @@ public class RatingController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingRating.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingRating.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only delete your own ratings.");
         }
@@ -1,15 +1,31 @@
 package com.appdevg5.ghidorakings.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.appdevg5.ghidorakings.dto.BrowseFilter;
+import com.appdevg5.ghidorakings.dto.BrowsePage;
+import com.appdevg5.ghidorakings.dto.CursorPage;
+import com.appdevg5.ghidorakings.dto.PantryMatch;
+import com.appdevg5.ghidorakings.dto.RankedRecipe;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
 import com.appdevg5.ghidorakings.entity.RecipeEntity;
-import com.appdevg5.ghidorakings.entity.UserEntity;
+import com.appdevg5.ghidorakings.service.DataUrl;
+import com.appdevg5.ghidorakings.service.FavoriteService;
+import com.appdevg5.ghidorakings.service.LeaderboardService;
+import com.appdevg5.ghidorakings.service.LegacyIngredientMigrator;
 import com.appdevg5.ghidorakings.service.RecipeService;
-import com.appdevg5.ghidorakings.service.UserService;
+
+import tools.jackson.databind.ObjectMapper;
 
 
 @RestController
@@ -19,13 +35,37 @@ public class RecipeController {
     RecipeService recipeService;
     
     @Autowired
-    UserService userService;
-    
-    // Helper method to verify admin status from database
-    private boolean isUserAdmin(Integer userId) {
-        if (userId == null) return false;
-        UserEntity user = userService.getUserById(userId);
-        return user != null && user.isAdmin();
+    ObjectMapper objectMapper;
+
+    @Autowired
+    LegacyIngredientMigrator legacyIngredientMigrator;
+
+    @Autowired
+    LeaderboardService leaderboardService;
+
+    @Autowired
+    FavoriteService favoriteService;
+
+    // Sets favoriteCount, and isFavorited for a signed-in requester, on each recipe of a list page
+    private <P extends CursorPage<RecipeSummary>> P markFavorites(P page, RequestPrincipal requester) {
+        page.setItems(favoriteService.markFavorites(requester.getUserId(), page.getItems()));
+        return page;
+    }
+
+    private List<RankedRecipe> markFavorites(List<RankedRecipe> board, RequestPrincipal requester) {
+        List<RecipeSummary> marked = favoriteService.markFavorites(requester.getUserId(), board.stream().map(RankedRecipe::getRecipe).toList());
+        List<RankedRecipe> result = new ArrayList<>(board.size());
+        for (int i = 0; i < board.size(); i++) {
+            result.add(new RankedRecipe(marked.get(i), board.get(i).getScore()));
+        }
+        return result;
+    }
+
+    // Streaming endpoints must declare a StreamingResponseBody, so the 403 text is written the same way
+    private ResponseEntity<StreamingResponseBody> streamingForbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .contentType(MediaType.TEXT_PLAIN)
+            .body(out -> out.write("Access denied. Admin privileges required.".getBytes(StandardCharsets.UTF_8)));
     }
 
     @GetMapping("/print")
@@ -35,10 +75,10 @@ public class RecipeController {
     
     @PostMapping("/insertRecipe")
     public ResponseEntity<?> insertRecipe(@RequestBody RecipeEntity recipeEntity,
-                                         @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                         RequestPrincipal requester) {
         try {
             // Authentication required
-            if (requesterId == null) {
+            if (!requester.isAuthenticated()) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body("Authentication required.");
             }
@@ -51,7 +91,7 @@ public class RecipeController {
             }
             
             // Ensure user can only create recipes for themselves
-            if (!recipeEntity.getUserId().equals(requesterId)) {
+            if (!recipeEntity.getUserId().equals(requester.getUserId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body("You can only create recipes for yourself.");
             }
@@ -67,29 +107,127 @@ public class RecipeController {
     }
 
     @GetMapping("/getAllRecipes")
-    public ResponseEntity<?> getAllRecipes() {
-        try {
-            // Only return approved recipes for regular users
-            List<RecipeEntity> recipes = recipeService.getApprovedRecipes();
-            return ResponseEntity.ok(recipes);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("Error fetching recipes: " + e.getMessage());
+    public ResponseEntity<StreamingResponseBody> getAllRecipes(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = recipeService.getApprovedRecipesVersion().toETag("recipes");
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ETags.notModified(etag);
+        }
+        // Only approved recipes are listed for regular users; cached while small, streamed once large
+        List<RecipeSummary> cached = recipeService.getAllApprovedRecipesIfCached();
+        StreamingResponseBody body = cached != null
+            ? JsonArrayStream.<RecipeSummary>of(objectMapper, sink -> cached.forEach(sink))
+            : JsonArrayStream.<RecipeSummary>of(objectMapper, recipeService::streamApprovedSummaries);
+        return ETags.ok(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // Full recipe (description, steps, ingredients, image); list endpoints only return summaries
+    @GetMapping("/getRecipeById/{recipeId}")
+    public ResponseEntity<?> getRecipeById(@PathVariable Integer recipeId,
+                                          RequestPrincipal requester) {
+        RecipeEntity recipe = recipeService.getRecipeById(recipeId);
+        if (recipe == null) {
+            return ResponseEntity.notFound().build();
+        }
+        // Pending recipes are only visible to their owner and admins
+        if (!recipe.isApproved() && !requester.canActFor(recipe.getUserId())) {
+            return ResponseEntity.notFound().build();
         }
+        return ResponseEntity.ok(recipe);
+    }
+
+    // Serves the image referenced by RecipeSummary.imageUrl
+    @GetMapping("/image/{recipeId}")
+    public ResponseEntity<?> getRecipeImage(@PathVariable Integer recipeId) {
+        String image = recipeService.getRecipeImage(recipeId);
+        if (image == null || image.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Older rows may hold an external URL instead of a data URL
+        if (image.startsWith("http://") || image.startsWith("https://")) {
+            return ResponseEntity.status(HttpStatus.FOUND).header("Location", image).build();
+        }
+        if (!DataUrl.isDataUrl(image)) {
+            return ResponseEntity.notFound().build();
+        }
+        DataUrl dataUrl = DataUrl.parse(image);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(dataUrl.getMimeType()))
+            .body(dataUrl.getBytes());
     }
 
     @GetMapping("/getRecipesByUserId/{userId}")
-    public ResponseEntity<List<RecipeEntity>> getRecipesByUserId(@PathVariable Integer userId) {
-        List<RecipeEntity> userRecipes = recipeService.getRecipesByUserId(userId);
+    public ResponseEntity<List<RecipeSummary>> getRecipesByUserId(@PathVariable Integer userId) {
+        List<RecipeSummary> userRecipes = recipeService.getRecipesByUserId(userId);
         return ResponseEntity.ok(userRecipes);
     }
 
+    // Keyset-paginated approved recipes; pass nextCursor back as ?cursor= for the next page
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<RecipeSummary>> getRecipesPage(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer size,
+                                                                   RequestPrincipal requester) {
+        return ResponseEntity.ok(markFavorites(recipeService.getApprovedRecipesPage(cursor, size), requester));
+    }
+
+    // Ranked search over approved recipes' title, description, steps and ingredients
+    @GetMapping("/search")
+    public ResponseEntity<CursorPage<RecipeSummary>> searchRecipes(@RequestParam String q,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  RequestPrincipal requester) {
+        return ResponseEntity.ok(markFavorites(recipeService.searchRecipes(q, cursor, size), requester));
+    }
+
+    // Filter by category, difficulty, cook time and price; the response carries facet counts for each filter
+    @GetMapping("/browse")
+    public ResponseEntity<BrowsePage> browseRecipes(BrowseFilter filter,
+                                                    RequestPrincipal requester) {
+        return ResponseEntity.ok(markFavorites(recipeService.browseRecipes(filter), requester));
+    }
+
+    // "What can I cook?": body is a JSON array of ingredient names the user has
+    @PostMapping("/pantry")
+    public ResponseEntity<CursorPage<PantryMatch>> matchPantry(@RequestBody List<String> ingredients,
+                                                               @RequestParam(required = false) Integer maxMissing,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size,
+                                                               RequestPrincipal requester) {
+        CursorPage<PantryMatch> page = recipeService.matchPantry(ingredients, maxMissing, cursor, size);
+        List<RecipeSummary> marked = favoriteService.markFavorites(requester.getUserId(), page.getItems().stream().map(PantryMatch::getRecipe).toList());
+        for (int i = 0; i < marked.size(); i++) {
+            page.getItems().get(i).setRecipe(marked.get(i));
+        }
+        return ResponseEntity.ok(page);
+    }
+
+    // Best rated approved recipes, ranked by Bayesian average so a handful of votes cannot top the list
+    @GetMapping("/top")
+    public ResponseEntity<List<RankedRecipe>> getTopRecipes(@RequestParam(required = false) Integer limit,
+                                                            RequestPrincipal requester) {
+        return ResponseEntity.ok(markFavorites(leaderboardService.getTop(limit), requester));
+    }
+
+    // Approved recipes with the most recent ratings, favorites and comments
+    @GetMapping("/trending")
+    public ResponseEntity<List<RankedRecipe>> getTrendingRecipes(@RequestParam(required = false) Integer limit,
+                                                                 RequestPrincipal requester) {
+        return ResponseEntity.ok(markFavorites(leaderboardService.getTrending(limit), requester));
+    }
+
+    @GetMapping("/getRecipesByUserId/{userId}/page")
+    public ResponseEntity<CursorPage<RecipeSummary>> getRecipesByUserIdPage(@PathVariable Integer userId,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size,
+                                                                           RequestPrincipal requester) {
+        return ResponseEntity.ok(markFavorites(recipeService.getRecipesPageByUserId(userId, cursor, size), requester));
+    }
+
     @PutMapping("/updateRecipe/{recipeId}")
     public ResponseEntity<?> updateRecipe(@PathVariable Integer recipeId, @RequestBody RecipeEntity newRecipeDetails,
-                                         @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                         RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -100,7 +238,7 @@ public class RecipeController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingRecipe.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingRecipe.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only update your own recipes.");
         }
@@ -114,9 +252,9 @@ public class RecipeController {
 
     @DeleteMapping("/deleteRecipe/{recipeId}")
     public ResponseEntity<?> deleteRecipe(@PathVariable Integer recipeId,
-                                         @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                         RequestPrincipal requester) {
         // Authentication required
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
@@ -127,7 +265,7 @@ public class RecipeController {
             return ResponseEntity.notFound().build();
         }
         
-        if (!existingRecipe.getUserId().equals(requesterId) && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(existingRecipe.getUserId())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only delete your own recipes.");
         }
@@ -141,28 +279,76 @@ public class RecipeController {
 
     // ADMIN: Get all pending recipes (not approved)
     @GetMapping("/admin/pending")
-    public ResponseEntity<?> getPendingRecipes(@RequestHeader(value = "X-User-Id", required = false) Integer userId) {
-        if (!isUserAdmin(userId)) {
+    public ResponseEntity<?> getPendingRecipes(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
         }
-        List<RecipeEntity> pendingRecipes = recipeService.getPendingRecipes();
+        List<RecipeSummary> pendingRecipes = recipeService.getPendingRecipes();
         return ResponseEntity.ok(pendingRecipes);
     }
 
+    // ADMIN: Keyset-paginated pending recipes
+    @GetMapping("/admin/pending/page")
+    public ResponseEntity<?> getPendingRecipesPage(@RequestParam(required = false) String cursor,
+                                                   @RequestParam(required = false) Integer size,
+                                                   RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
+        }
+        return ResponseEntity.ok(recipeService.getPendingRecipesPage(cursor, size));
+    }
+
     // ADMIN: Get all approved recipes
     @GetMapping("/admin/approved")
-    public ResponseEntity<?> getApprovedRecipes(@RequestHeader(value = "X-User-Id", required = false) Integer userId) {
-        if (!isUserAdmin(userId)) {
+    public ResponseEntity<StreamingResponseBody> getApprovedRecipes(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
+            return streamingForbidden();
+        }
+        StreamingResponseBody body = JsonArrayStream.<RecipeSummary>of(objectMapper, recipeService::streamApprovedSummaries);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // ADMIN: Export every approved recipe with full details, streamed
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exportRecipes(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
+            return streamingForbidden();
+        }
+        StreamingResponseBody body = JsonArrayStream.<RecipeEntity>of(objectMapper, recipeService::streamApprovedRecipes);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // ADMIN: Recipe cache hit/miss/eviction counters
+    @GetMapping("/admin/cache-stats")
+    public ResponseEntity<?> getCacheStats(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
+        }
+        return ResponseEntity.ok(recipeService.getCacheStats());
+    }
+
+    // ADMIN: Search, pantry and browse index sizes and build state
+    @GetMapping("/admin/search-stats")
+    public ResponseEntity<?> getSearchStats(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
+        }
+        return ResponseEntity.ok(recipeService.getSearchStats());
+    }
+
+    // ADMIN: Progress of the legacy ingredients column migration
+    @GetMapping("/admin/ingredient-migration")
+    public ResponseEntity<?> getIngredientMigrationStats(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
         }
-        List<RecipeEntity> approvedRecipes = recipeService.getApprovedRecipes();
-        return ResponseEntity.ok(approvedRecipes);
+        return ResponseEntity.ok(legacyIngredientMigrator.stats());
     }
 
     // ADMIN: Approve a recipe
     @PutMapping("/admin/approve/{recipeId}")
-    public ResponseEntity<?> approveRecipe(@PathVariable Integer recipeId, @RequestHeader(value = "X-User-Id", required = false) Integer userId) {
-        if (!isUserAdmin(userId)) {
+    public ResponseEntity<?> approveRecipe(@PathVariable Integer recipeId, RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
         }
         try {
@@ -179,8 +365,8 @@ public class RecipeController {
 
     // ADMIN: Reject/delete a recipe
     @DeleteMapping("/admin/reject/{recipeId}")
-    public ResponseEntity<?> rejectRecipe(@PathVariable Integer recipeId, @RequestHeader(value = "X-User-Id", required = false) Integer userId) {
-        if (!isUserAdmin(userId)) {
+    public ResponseEntity<?> rejectRecipe(@PathVariable Integer recipeId, RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied. Admin privileges required.");
         }
         String result = recipeService.deleteRecipe(recipeId);
@@ -9,13 +9,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.appdevg5.ghidorakings.config.SessionTokenFilter;
+import com.appdevg5.ghidorakings.dto.LoginResponse;
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
 import com.appdevg5.ghidorakings.entity.UserEntity;
+import com.appdevg5.ghidorakings.service.PasswordHasher;
+import com.appdevg5.ghidorakings.service.SessionTokens;
 import com.appdevg5.ghidorakings.service.UserService;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 @RestController
 @RequestMapping("/user")
 public class UserController {
@@ -23,6 +29,12 @@ public class UserController {
     @Autowired
     UserService userService;
 
+    @Autowired
+    SessionTokens sessionTokens;
+
+    @Autowired
+    PasswordHasher passwordHasher;
+
     // CREATE USER
     @PostMapping("/add")
     public ResponseEntity<?> createUser(@RequestBody UserEntity user) {
@@ -36,21 +48,14 @@ public class UserController {
 
     // READ ALL USERS (Admin only)
     @GetMapping("/getAll")
-    public ResponseEntity<?> getAllUsers(@RequestHeader(value = "X-User-Id", required = false) Integer userId) {
+    public ResponseEntity<?> getAllUsers(RequestPrincipal requester) {
         // Verify the requester is an admin
-        if (userId == null || !isUserAdmin(userId)) {
+        if (!requester.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("Access denied. Admin privileges required.");
         }
         return ResponseEntity.ok(userService.getAllUsers());
     }
-    
-    // Helper method to verify admin status from database
-    private boolean isUserAdmin(Integer userId) {
-        if (userId == null) return false;
-        UserEntity user = userService.getUserById(userId);
-        return user != null && user.isAdmin();
-    }
 
     // READ USER BY ID
     @GetMapping("/get/{id}")
@@ -61,14 +66,14 @@ public class UserController {
     // UPDATE USER
     @PutMapping("/update/{id}")
     public ResponseEntity<?> updateUser(@PathVariable int id, @RequestBody UserEntity user,
-                                       @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                       RequestPrincipal requester) {
         // Users can only update their own profile, unless they're admin
-        if (requesterId == null) {
+        if (!requester.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                 .body("Authentication required.");
         }
         
-        if (requesterId != id && !isUserAdmin(requesterId)) {
+        if (!requester.canActFor(id)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only update your own profile.");
         }
@@ -89,9 +94,9 @@ public class UserController {
     // DELETE USER (Admin only)
     @DeleteMapping("/delete/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable int id,
-                                       @RequestHeader(value = "X-User-Id", required = false) Integer requesterId) {
+                                       RequestPrincipal requester) {
         // Only admins can delete users
-        if (!isUserAdmin(requesterId)) {
+        if (!requester.isAdmin()) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("Access denied. Admin privileges required.");
         }
@@ -107,6 +112,16 @@ public class UserController {
         return ResponseEntity.ok(result);
     }
 
+    // ADMIN: Password hashing pool queue depth, latency and rejections, for tuning the BCrypt cost
+    @GetMapping("/admin/password-hashing-stats")
+    public ResponseEntity<?> getPasswordHashingStats(RequestPrincipal requester) {
+        if (!requester.isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Access denied. Admin privileges required.");
+        }
+        return ResponseEntity.ok(passwordHasher.stats());
+    }
+
     // LOGIN
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody UserEntity user) {
@@ -117,6 +132,20 @@ public class UserController {
                 .body("Invalid email or password");
         }
         
-        return ResponseEntity.ok(loggedInUser);
+        SessionTokens.Issued issued = sessionTokens.issue(loggedInUser.getUserId(), loggedInUser.isAdmin());
+        return ResponseEntity.ok(new LoginResponse(loggedInUser.getUserId(), loggedInUser.getUsername(),
+            loggedInUser.getEmail(), loggedInUser.isAdmin(), issued.token(), issued.expiresAt()));
+    }
+
+    // LOGOUT: revokes the session token the request was made with
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(HttpServletRequest request) {
+        SessionTokens.Claims claims = (SessionTokens.Claims) request.getAttribute(SessionTokenFilter.CLAIMS_ATTRIBUTE);
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("A session token is required");
+        }
+        sessionTokens.revoke(claims);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.List;
+
+/**
+ * Query parameters of /recipe/browse. Several values of one facet are
+ * OR-ed (category=Dinner&category=Dessert); different facets are AND-ed.
+ * cookTime and price take bucket labels as returned in the facet counts;
+ * the min/max parameters narrow the same dimensions to an arbitrary range.
+ */
+public class BrowseFilter {
+
+    private List<String> category;
+    private List<String> difficulty;
+    private List<String> cookTime;
+    private List<String> price;
+    private Integer minCookTime;
+    private Integer maxCookTime;
+    private Double minPrice;
+    private Double maxPrice;
+    private String cursor;
+    private Integer size;
+
+    public List<String> getCategory() {
+        return category;
+    }
+
+    public void setCategory(List<String> category) {
+        this.category = category;
+    }
+
+    public List<String> getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(List<String> difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public List<String> getCookTime() {
+        return cookTime;
+    }
+
+    public void setCookTime(List<String> cookTime) {
+        this.cookTime = cookTime;
+    }
+
+    public List<String> getPrice() {
+        return price;
+    }
+
+    public void setPrice(List<String> price) {
+        this.price = price;
+    }
+
+    public Integer getMinCookTime() {
+        return minCookTime;
+    }
+
+    public void setMinCookTime(Integer minCookTime) {
+        this.minCookTime = minCookTime;
+    }
+
+    public Integer getMaxCookTime() {
+        return maxCookTime;
+    }
+
+    public void setMaxCookTime(Integer maxCookTime) {
+        this.maxCookTime = maxCookTime;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+}
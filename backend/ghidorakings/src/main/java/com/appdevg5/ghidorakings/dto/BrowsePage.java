@@ -0,0 +1,39 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A CursorPage of browse results plus the total number of matches and,
+ * for every facet, how many recipes each value would match when combined
+ * with the filters on the other facets.
+ */
+public class BrowsePage extends CursorPage<RecipeSummary> {
+
+    private int total;
+    private Map<String, Map<String, Integer>> facets;
+
+    public BrowsePage() {}
+
+    public BrowsePage(List<RecipeSummary> items, String nextCursor, int total, Map<String, Map<String, Integer>> facets) {
+        super(items, nextCursor);
+        this.total = total;
+        this.facets = facets;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+}
@@ -0,0 +1,41 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Row count plus newest updated_at of a collection, read with one aggregate
+ * query. Any insert, update or delete changes at least one of the two.
+ */
+public class CollectionVersion {
+
+    private final long count;
+    private final LocalDateTime lastUpdated;
+
+    public CollectionVersion(Long count, LocalDateTime lastUpdated) {
+        this.count = count != null ? count : 0;
+        this.lastUpdated = lastUpdated;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public LocalDateTime getLastUpdated() {
+        return lastUpdated;
+    }
+
+    // Strong ETag such as "recipes-42-1718000000123456"; updated_at is stored with microsecond precision
+    public String toETag(String collection) {
+        return "\"" + collection + "-" + toToken() + "\"";
+    }
+
+    // "count-micros", for folding another collection's version into a tag
+    public String toToken() {
+        long micros = 0;
+        if (lastUpdated != null) {
+            micros = lastUpdated.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + lastUpdated.getNano() / 1_000;
+        }
+        return count + "-" + micros;
+    }
+}
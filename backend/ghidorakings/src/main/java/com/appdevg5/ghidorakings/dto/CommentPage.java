@@ -0,0 +1,29 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.List;
+
+import com.appdevg5.ghidorakings.entity.CommentEntity;
+
+/**
+ * A CursorPage of one recipe's comments plus the total number of comments
+ * on that recipe, so clients can show "n comments" next to load-more.
+ */
+public class CommentPage extends CursorPage<CommentEntity> {
+
+    private long total;
+
+    public CommentPage() {}
+
+    public CommentPage(List<CommentEntity> items, String nextCursor, long total) {
+        super(items, nextCursor);
+        this.total = total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+}
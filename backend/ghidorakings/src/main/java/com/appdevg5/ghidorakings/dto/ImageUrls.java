@@ -0,0 +1,44 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds the public URLs for images held in the ImageStore.
+ */
+public final class ImageUrls {
+
+    // Fixed thumbnail widths rendered for every stored image
+    public static final int[] THUMBNAIL_WIDTHS = {160, 480, 1080};
+
+    private ImageUrls() {}
+
+    public static String original(String imageKey) {
+        return imageKey == null ? null : "/image/" + imageKey;
+    }
+
+    public static String thumbnail(String imageKey, int width) {
+        return "/image/" + imageKey + "/" + width;
+    }
+
+    // width -> URL, e.g. {"160": "/image/<hash>/160", ...}; null when the recipe has no stored image
+    public static Map<String, String> thumbnails(String imageKey) {
+        if (imageKey == null) {
+            return null;
+        }
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (int width : THUMBNAIL_WIDTHS) {
+            urls.put(String.valueOf(width), thumbnail(imageKey, width));
+        }
+        return urls;
+    }
+
+    public static boolean isThumbnailWidth(int width) {
+        for (int candidate : THUMBNAIL_WIDTHS) {
+            if (candidate == width) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,75 @@
+package com.appdevg5.ghidorakings.dto;
+
+/**
+ * The /user/login reply: the user's public fields plus a signed session
+ * token to send back as "Authorization: Bearer &lt;token&gt;".
+ */
+public class LoginResponse {
+
+    private Integer userId;
+    private String username;
+    private String email;
+    private boolean admin;
+    private String token;
+    // epoch millis
+    private long tokenExpiresAt;
+
+    public LoginResponse() {}
+
+    public LoginResponse(Integer userId, String username, String email, boolean admin, String token, long tokenExpiresAt) {
+        this.userId = userId;
+        this.username = username;
+        this.email = email;
+        this.admin = admin;
+        this.token = token;
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(boolean admin) {
+        this.admin = admin;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+
+    public long getTokenExpiresAt() {
+        return tokenExpiresAt;
+    }
+
+    public void setTokenExpiresAt(long tokenExpiresAt) {
+        this.tokenExpiresAt = tokenExpiresAt;
+    }
+}
@@ -0,0 +1,56 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.List;
+
+/**
+ * One recipe returned by pantry matching: how many of its ingredients the
+ * user already has and which normalized ingredients are still missing.
+ */
+public class PantryMatch {
+
+    private RecipeSummary recipe;
+    private int matchedCount;
+    private int totalCount;
+    private List<String> missingIngredients;
+
+    public PantryMatch() {}
+
+    public PantryMatch(RecipeSummary recipe, int matchedCount, int totalCount, List<String> missingIngredients) {
+        this.recipe = recipe;
+        this.matchedCount = matchedCount;
+        this.totalCount = totalCount;
+        this.missingIngredients = missingIngredients;
+    }
+
+    public RecipeSummary getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(RecipeSummary recipe) {
+        this.recipe = recipe;
+    }
+
+    public int getMatchedCount() {
+        return matchedCount;
+    }
+
+    public void setMatchedCount(int matchedCount) {
+        this.matchedCount = matchedCount;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(int totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public List<String> getMissingIngredients() {
+        return missingIngredients;
+    }
+
+    public void setMissingIngredients(List<String> missingIngredients) {
+        this.missingIngredients = missingIngredients;
+    }
+}
@@ -0,0 +1,33 @@
+package com.appdevg5.ghidorakings.dto;
+
+/**
+ * A leaderboard entry: the recipe card plus the score it was ranked by.
+ */
+public class RankedRecipe {
+
+    private RecipeSummary recipe;
+    private double score;
+
+    public RankedRecipe() {}
+
+    public RankedRecipe(RecipeSummary recipe, double score) {
+        this.recipe = recipe;
+        this.score = score;
+    }
+
+    public RecipeSummary getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(RecipeSummary recipe) {
+        this.recipe = recipe;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,95 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.Arrays;
+
+/**
+ * Immutable rating aggregate of one recipe: count, sum and how many
+ * ratings gave each score from 1 to 5. Deltas produce a new instance, so
+ * readers of the in-memory mirror never see a half-applied change.
+ */
+public final class RatingStats {
+
+    public static final int MIN_SCORE = 1;
+    public static final int MAX_SCORE = 5;
+
+    private final Integer recipeId;
+    private final long count;
+    private final long sum;
+    private final long[] histogram;
+
+    public RatingStats(Integer recipeId, long count, long sum, long[] histogram) {
+        this.recipeId = recipeId;
+        this.count = count;
+        this.sum = sum;
+        this.histogram = histogram.clone();
+    }
+
+    public static RatingStats empty(Integer recipeId) {
+        return new RatingStats(recipeId, 0, 0, new long[MAX_SCORE]);
+    }
+
+    public static boolean isValidScore(int score) {
+        return score >= MIN_SCORE && score <= MAX_SCORE;
+    }
+
+    // Adds one rating of addScore and/or removes one of removeScore; null means none
+    public RatingStats apply(Integer removeScore, Integer addScore) {
+        long[] next = histogram.clone();
+        long nextCount = count;
+        long nextSum = sum;
+        if (removeScore != null) {
+            next[removeScore - 1]--;
+            nextCount--;
+            nextSum -= removeScore;
+        }
+        if (addScore != null) {
+            next[addScore - 1]++;
+            nextCount++;
+            nextSum += addScore;
+        }
+        return new RatingStats(recipeId, nextCount, nextSum, next);
+    }
+
+    // Element-wise sum, used to shift an aggregate by a correction
+    public RatingStats plus(RatingStats other) {
+        long[] next = histogram.clone();
+        for (int i = 0; i < next.length; i++) {
+            next[i] += other.histogram[i];
+        }
+        return new RatingStats(recipeId, count + other.count, sum + other.sum, next);
+    }
+
+    // What has to be added to other to arrive at this
+    public RatingStats minus(RatingStats other) {
+        long[] next = histogram.clone();
+        for (int i = 0; i < next.length; i++) {
+            next[i] -= other.histogram[i];
+        }
+        return new RatingStats(recipeId, count - other.count, sum - other.sum, next);
+    }
+
+    public Integer getRecipeId() {
+        return recipeId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    // Ratings per score, index 0 holding one-star ratings
+    public long[] getHistogram() {
+        return histogram.clone();
+    }
+
+    public boolean sameCounts(RatingStats other) {
+        return count == other.count && sum == other.sum && Arrays.equals(histogram, other.histogram);
+    }
+}
@@ -0,0 +1,192 @@
+package com.appdevg5.ghidorakings.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Lightweight read model for recipe lists. Built by a JPQL constructor
+ * expression so the LONGTEXT image column is never selected; clients load
+ * the picture from imageUrl and the full recipe from the detail endpoint.
+ */
+public class RecipeSummary {
+
+    private Integer recipeId;
+    private String title;
+    private String category;
+    private String difficulty;
+    private Integer cookTimeMinutes;
+    private Double estimatedPrice;
+    private Integer userId;
+    private boolean approved;
+    private List<String> ingredientNames;
+    // ingredient_term ids in the same order as ingredientNames; null where not yet backfilled
+    @JsonIgnore
+    private List<Integer> ingredientTermIds;
+    private String imageUrl;
+    private Map<String, String> thumbnailUrls;
+    // Whether the requesting user favorited this recipe; null (and omitted) for anonymous requests
+    @JsonProperty("isFavorited")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean favorited;
+    // Set on list responses only; null (and omitted) where the summary comes straight from a cache
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long favoriteCount;
+
+    public RecipeSummary() {}
+
+    // Used by RecipeRepository summary queries
+    public RecipeSummary(Integer recipeId, String title, String category, String difficulty,
+                         Integer cookTimeMinutes, Double estimatedPrice, Integer userId,
+                         boolean approved, String imageKey, boolean hasLegacyImage) {
+        this.recipeId = recipeId;
+        this.title = title;
+        this.category = category;
+        this.difficulty = difficulty;
+        this.cookTimeMinutes = cookTimeMinutes;
+        this.estimatedPrice = estimatedPrice;
+        this.userId = userId;
+        this.approved = approved;
+        if (imageKey != null) {
+            this.imageUrl = ImageUrls.original(imageKey);
+            this.thumbnailUrls = ImageUrls.thumbnails(imageKey);
+        } else if (hasLegacyImage) {
+            this.imageUrl = "/recipe/image/" + recipeId;
+        }
+    }
+
+    public Integer getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(Integer recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    public void setDifficulty(String difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    public Integer getCookTimeMinutes() {
+        return cookTimeMinutes;
+    }
+
+    public void setCookTimeMinutes(Integer cookTimeMinutes) {
+        this.cookTimeMinutes = cookTimeMinutes;
+    }
+
+    public Double getEstimatedPrice() {
+        return estimatedPrice;
+    }
+
+    public void setEstimatedPrice(Double estimatedPrice) {
+        this.estimatedPrice = estimatedPrice;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public void setApproved(boolean approved) {
+        this.approved = approved;
+    }
+
+    public List<String> getIngredientNames() {
+        return ingredientNames;
+    }
+
+    public void setIngredientNames(List<String> ingredientNames) {
+        this.ingredientNames = ingredientNames;
+    }
+
+    public List<Integer> getIngredientTermIds() {
+        return ingredientTermIds;
+    }
+
+    public void setIngredientTermIds(List<Integer> ingredientTermIds) {
+        this.ingredientTermIds = ingredientTermIds;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public Map<String, String> getThumbnailUrls() {
+        return thumbnailUrls;
+    }
+
+    public void setThumbnailUrls(Map<String, String> thumbnailUrls) {
+        this.thumbnailUrls = thumbnailUrls;
+    }
+
+    public Boolean getFavorited() {
+        return favorited;
+    }
+
+    public void setFavorited(Boolean favorited) {
+        this.favorited = favorited;
+    }
+
+    public Long getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public void setFavoriteCount(Long favoriteCount) {
+        this.favoriteCount = favoriteCount;
+    }
+
+    // Shallow copy carrying per-response favorite fields, leaving shared instances untouched
+    public RecipeSummary withFavorites(Boolean favorited, long favoriteCount) {
+        RecipeSummary copy = new RecipeSummary();
+        copy.recipeId = recipeId;
+        copy.title = title;
+        copy.category = category;
+        copy.difficulty = difficulty;
+        copy.cookTimeMinutes = cookTimeMinutes;
+        copy.estimatedPrice = estimatedPrice;
+        copy.userId = userId;
+        copy.approved = approved;
+        copy.ingredientNames = ingredientNames;
+        copy.ingredientTermIds = ingredientTermIds;
+        copy.imageUrl = imageUrl;
+        copy.thumbnailUrls = thumbnailUrls;
+        copy.favorited = favorited;
+        copy.favoriteCount = favoriteCount;
+        return copy;
+    }
+}
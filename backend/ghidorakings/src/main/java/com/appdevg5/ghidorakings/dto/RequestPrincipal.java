@@ -0,0 +1,37 @@
+package com.appdevg5.ghidorakings.dto;
+
+/**
+ * Who is making the current request, from its session token or the legacy
+ * X-User-Id header. Controllers take it as a handler parameter; it is
+ * resolved once per request by RequestPrincipalResolver.
+ */
+public final class RequestPrincipal {
+
+    public static final RequestPrincipal ANONYMOUS = new RequestPrincipal(null, false);
+
+    private final Integer userId;
+    private final boolean admin;
+
+    public RequestPrincipal(Integer userId, boolean admin) {
+        this.userId = userId;
+        this.admin = admin;
+    }
+
+    // null for anonymous requests
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public boolean isAuthenticated() {
+        return userId != null;
+    }
+
+    public boolean isAdmin() {
+        return admin;
+    }
+
+    // True for the owner themselves and for admins
+    public boolean canActFor(Integer ownerId) {
+        return userId != null && (userId.equals(ownerId) || admin);
+    }
+}
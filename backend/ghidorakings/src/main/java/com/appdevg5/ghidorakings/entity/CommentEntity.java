@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comment")
+@Table(name = "comment", indexes = {
+    @Index(name = "idx_comment_updated", columnList = "updated_at"),
+    // newest-first keyset per recipe: recipe_id equality, then the (created, id) sort key
+    @Index(name = "idx_comment_recipe_created", columnList = "recipe_id, datetime_created_at, comment_id")
+})
 public class CommentEntity {
 
     @Id
@@ -24,6 +28,9 @@ public class CommentEntity {
     @Column(name = "recipe_id")
     private Integer recipeId;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     @Transient
     private String username;
 
@@ -34,6 +41,12 @@ public class CommentEntity {
         if (this.datetimeCreatedAt == null) {
             this.datetimeCreatedAt = LocalDateTime.now();
         }
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
     }
 
     public Integer getCommentId() {
@@ -76,6 +89,10 @@ public class CommentEntity {
         this.recipeId = recipeId;
     }
 
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
     public String getUsername() {
         return username;
     }
@@ -1,9 +1,14 @@
 package com.appdevg5.ghidorakings.entity;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "favorite")
+// A user favorites a recipe at most once; FavoriteService removes older duplicates before adding the constraint
+@Table(name = "favorite",
+    uniqueConstraints = @UniqueConstraint(name = "uk_favorite_user_recipe", columnNames = {"user_id", "recipe_id"}),
+    // newest-first listing of one user's favorites
+    indexes = @Index(name = "idx_favorite_user", columnList = "user_id, favorite_id"))
 public class FavoriteEntity {
 
     @Id
@@ -17,8 +22,18 @@ public class FavoriteEntity {
     @Column(name = "recipe_id")
     private Integer recipeId;
 
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
     public FavoriteEntity() {}
 
+    @PrePersist
+    protected void onCreate() {
+        if (this.createdAt == null) {
+            this.createdAt = LocalDateTime.now();
+        }
+    }
+
     public Integer getFavoriteId() {
         return favoriteId;
     }
@@ -42,5 +57,8 @@ public class FavoriteEntity {
     public void setRecipeId(Integer recipeId) {
         this.recipeId = recipeId;
     }
-}
 
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
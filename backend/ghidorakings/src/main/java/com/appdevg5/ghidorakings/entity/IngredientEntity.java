@@ -1,9 +1,11 @@
 package com.appdevg5.ghidorakings.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "ingredient")
+@Table(name = "ingredient", indexes = @Index(name = "idx_ingredient_term", columnList = "term_id"))
 public class IngredientEntity {
 
     @Id
@@ -20,6 +22,11 @@ public class IngredientEntity {
     @Column(name = "recipe_id")
     private Integer recipeId; // Foreign Key reference to Recipe
 
+    // Canonical ingredient_term for name; set by IngredientService on every write
+    @JsonIgnore
+    @Column(name = "term_id")
+    private Integer termId;
+
     // Getters and Setters
     public Integer getIngredientId() {
         return ingredientId;
@@ -52,4 +59,22 @@ public class IngredientEntity {
     public void setRecipeId(Integer recipeId) {
         this.recipeId = recipeId;
     }
-}
\ No newline at end of file
+
+    public Integer getTermId() {
+        return termId;
+    }
+
+    public void setTermId(Integer termId) {
+        this.termId = termId;
+    }
+
+    public IngredientEntity copy() {
+        IngredientEntity copy = new IngredientEntity();
+        copy.ingredientId = ingredientId;
+        copy.name = name;
+        copy.quantity = quantity;
+        copy.recipeId = recipeId;
+        copy.termId = termId;
+        return copy;
+    }
+}
@@ -0,0 +1,42 @@
+package com.appdevg5.ghidorakings.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Canonical ingredient name as produced by IngredientNormalizer. Ingredient
+ * rows point here by term_id so matching and aggregation work on ints.
+ */
+@Entity
+@Table(name = "ingredient_term")
+public class IngredientTermEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "term_id")
+    private Integer termId;
+
+    @Column(name = "name", nullable = false, unique = true, length = 191)
+    private String name;
+
+    public IngredientTermEntity() {}
+
+    public IngredientTermEntity(String name) {
+        this.name = name;
+    }
+
+    public Integer getTermId() {
+        return termId;
+    }
+
+    public void setTermId(Integer termId) {
+        this.termId = termId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
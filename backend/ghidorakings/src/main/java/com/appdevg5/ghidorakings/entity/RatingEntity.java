@@ -1,9 +1,14 @@
 package com.appdevg5.ghidorakings.entity;
 
 import jakarta.persistence.*;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "rating")
+@Table(name = "rating", indexes = {
+    @Index(name = "idx_rating_updated", columnList = "updated_at"),
+    // trending seeds from ratings created in its window
+    @Index(name = "idx_rating_created", columnList = "created_at")
+})
 public class RatingEntity {
 
     @Id
@@ -23,8 +28,24 @@ public class RatingEntity {
     @Column(name = "feedback", length = 1000)
     private String feedback;
 
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Rows saved before created_at existed are null
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
     public RatingEntity() {}
 
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.updatedAt = LocalDateTime.now();
+        if (this.createdAt == null) {
+            this.createdAt = this.updatedAt;
+        }
+    }
+
     public Integer getRatingId() {
         return ratingId;
     }
@@ -64,4 +85,12 @@ public class RatingEntity {
     public void setFeedback(String feedback) {
         this.feedback = feedback;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
 }
@@ -0,0 +1,38 @@
+package com.appdevg5.ghidorakings.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Denormalized per-recipe counters. Written only by FavoriteCounters'
+ * batched flush, so rows may trail the favorite table by one flush
+ * interval.
+ */
+@Entity
+@Table(name = "recipe_counters")
+public class RecipeCountersEntity {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Integer recipeId;
+
+    @Column(name = "favorite_count", nullable = false)
+    private long favoriteCount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public RecipeCountersEntity() {}
+
+    public Integer getRecipeId() {
+        return recipeId;
+    }
+
+    public long getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,16 +1,18 @@
 package com.appdevg5.ghidorakings.entity;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import com.appdevg5.ghidorakings.dto.ImageUrls;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "recipe")
+@Table(name = "recipe", indexes = @Index(name = "idx_recipe_approved_updated", columnList = "is_approved, updated_at"))
 
 public class RecipeEntity {
     @Id
@@ -49,19 +51,62 @@ public class RecipeEntity {
     @Column(name = "cook_time_minutes")
     private Integer cookTimeMinutes;
 
+    // legacy base64 data URL; new uploads are moved into the ImageStore and referenced by imageKey
     @Column(name = "image", columnDefinition = "LONGTEXT")
     private String image;
 
+    // SHA-256 key of the image in the ImageStore
+    @JsonIgnore
+    @Column(name = "image_key", length = 64)
+    private String imageKey;
+
     @Column(name = "estimated_price")
     private Double estimatedPrice;
 
     @Column(name = "is_approved")
     private boolean isApproved = false;
 
+    // Bumped on every write, including ingredient changes; drives the list ETag
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     public RecipeEntity() {
         super();
     }
 
+    // Detached copy, ingredient rows included, so a cached recipe is never shared between requests
+    public RecipeEntity copy() {
+        RecipeEntity copy = new RecipeEntity();
+        copy.recipeId = recipeId;
+        copy.title = title;
+        copy.description = description;
+        copy.steps = steps;
+        copy.userId = userId;
+        copy.ingredientsJson = ingredientsJson;
+        List<IngredientEntity> rows = getIngredients();
+        if (rows != null) {
+            copy.ingredients = new ArrayList<>(rows.size());
+            for (IngredientEntity row : rows) {
+                copy.ingredients.add(row.copy());
+            }
+        }
+        copy.category = category;
+        copy.difficulty = difficulty;
+        copy.cookTimeMinutes = cookTimeMinutes;
+        copy.image = image;
+        copy.imageKey = imageKey;
+        copy.estimatedPrice = estimatedPrice;
+        copy.isApproved = isApproved;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     public Integer getRecipeId() {
         return recipeId;
     }
@@ -112,21 +157,17 @@ public class RecipeEntity {
 
     @JsonProperty("ingredients")
     public List<IngredientEntity> getIngredients() {
-        if (ingredients != null) {
-            return ingredients;
+        if (ingredients == null && ingredientsJson != null) {
+            // parsed at most once; LegacyIngredientMigrator empties the column in the background
+            ingredients = convertToIngredientList(ingredientsJson);
         }
-        if (ingredientsJson != null) {
-            return convertToIngredientList(ingredientsJson);
-        }
-        return null;
+        return ingredients;
     }
 
+    // String payloads are parsed into rows by RecipeService and no longer stored in the legacy column
     @JsonProperty("ingredients")
     public void setIngredients(Object ingredients) {
         this.ingredients = convertToIngredientList(ingredients);
-        if (ingredients instanceof String) {
-            this.ingredientsJson = (String) ingredients;
-        }
     }
 
     private List<IngredientEntity> convertToIngredientList(Object raw) {
@@ -217,6 +258,27 @@ public class RecipeEntity {
         this.image = image;
     }
 
+    public String getImageKey() {
+        return imageKey;
+    }
+
+    public void setImageKey(String imageKey) {
+        this.imageKey = imageKey;
+    }
+
+    @JsonProperty("imageUrl")
+    public String getImageUrl() {
+        if (imageKey != null) {
+            return ImageUrls.original(imageKey);
+        }
+        return image != null ? "/recipe/image/" + recipeId : null;
+    }
+
+    @JsonProperty("thumbnailUrls")
+    public Map<String, String> getThumbnailUrls() {
+        return ImageUrls.thumbnails(imageKey);
+    }
+
     public Double getEstimatedPrice() {
         return estimatedPrice;
     }
@@ -232,4 +294,8 @@ public class RecipeEntity {
     public void setApproved(boolean isApproved) {
         this.isApproved = isApproved;
     }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.appdevg5.ghidorakings.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running rating aggregate for one recipe, kept in step with the rating
+ * table by RatingStatsService. stars1..stars5 count ratings per score.
+ */
+@Entity
+@Table(name = "recipe_rating_stats")
+public class RecipeRatingStatsEntity {
+
+    @Id
+    @Column(name = "recipe_id")
+    private Integer recipeId;
+
+    @Column(name = "rating_count", nullable = false)
+    private long ratingCount;
+
+    @Column(name = "score_sum", nullable = false)
+    private long scoreSum;
+
+    @Column(name = "stars1", nullable = false)
+    private long stars1;
+
+    @Column(name = "stars2", nullable = false)
+    private long stars2;
+
+    @Column(name = "stars3", nullable = false)
+    private long stars3;
+
+    @Column(name = "stars4", nullable = false)
+    private long stars4;
+
+    @Column(name = "stars5", nullable = false)
+    private long stars5;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public RecipeRatingStatsEntity() {}
+
+    public Integer getRecipeId() {
+        return recipeId;
+    }
+
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    public long getScoreSum() {
+        return scoreSum;
+    }
+
+    // Ratings per score, index 0 holding one-star ratings
+    public long[] getHistogram() {
+        return new long[] { stars1, stars2, stars3, stars4, stars5 };
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,5 +1,7 @@
 package com.appdevg5.ghidorakings.entity;
 
+import java.time.LocalDateTime;
+
 import jakarta.persistence.*;
 
 @Entity
@@ -23,9 +25,19 @@ public class UserEntity {
     @Column(name = "is_admin", nullable = false)
     private boolean admin = false;
 
+    // Bumped on every save; lets responses that embed usernames fold renames into their ETag
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
     // Default Constructor
     public UserEntity() {}
 
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
     // Getters and Setters
     public Integer getUserId() {
         return userId;
@@ -71,4 +83,8 @@ public class UserEntity {
     public boolean isAdmin() {
         return admin;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -1,11 +1,40 @@
 package com.appdevg5.ghidorakings.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
 import com.appdevg5.ghidorakings.entity.CommentEntity;
 
 @Repository
 public interface CommentRepository extends JpaRepository<CommentEntity, Integer> {
 
+    // Count and newest updated_at in one aggregate query; no entities are loaded
+    @Query("select new com.appdevg5.ghidorakings.dto.CollectionVersion(count(c), max(c.updatedAt)) from CommentEntity c")
+    CollectionVersion findVersion();
+
+    // First page of a recipe's comments, newest first; comment_id breaks ties between equal timestamps
+    @Query("select c from CommentEntity c where c.recipeId = :recipeId "
+        + "order by c.datetimeCreatedAt desc, c.commentId desc")
+    List<CommentEntity> findNewestByRecipeId(@Param("recipeId") Integer recipeId, Limit limit);
+
+    // Following pages: everything strictly older than the last (createdAt, commentId) already shown
+    @Query("select c from CommentEntity c where c.recipeId = :recipeId and (c.datetimeCreatedAt < :createdAt "
+        + "or (c.datetimeCreatedAt = :createdAt and c.commentId < :commentId)) "
+        + "order by c.datetimeCreatedAt desc, c.commentId desc")
+    List<CommentEntity> findNewestByRecipeIdBefore(@Param("recipeId") Integer recipeId,
+                                                   @Param("createdAt") LocalDateTime createdAt,
+                                                   @Param("commentId") Integer commentId,
+                                                   Limit limit);
+
+    long countByRecipeId(Integer recipeId);
+
+    @Query("select c.recipeId as recipeId, c.userId as userId, c.datetimeCreatedAt as at from CommentEntity c where c.datetimeCreatedAt >= :since")
+    List<RecipeActivity> findActivitySince(@Param("since") LocalDateTime since);
 }
@@ -1,12 +1,42 @@
 package com.appdevg5.ghidorakings.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.appdevg5.ghidorakings.entity.FavoriteEntity;
 
 @Repository
 public interface FavoriteRepository extends JpaRepository<FavoriteEntity, Integer> {
+
+    interface RecipeCount {
+        Integer getRecipeId();
+        Long getFavorites();
+    }
+
     List<FavoriteEntity> findByUserId(Integer userId);
+
+    Optional<FavoriteEntity> findByUserIdAndRecipeId(Integer userId, Integer recipeId);
+
+    @Query("select f.recipeId from FavoriteEntity f where f.userId = :userId")
+    List<Integer> findRecipeIdsByUserId(@Param("userId") Integer userId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from FavoriteEntity f where f.userId = :userId and f.recipeId = :recipeId")
+    int deleteByUserIdAndRecipeId(@Param("userId") Integer userId, @Param("recipeId") Integer recipeId);
+
+    @Query("select f.recipeId as recipeId, count(f) as favorites from FavoriteEntity f "
+        + "where f.recipeId is not null group by f.recipeId")
+    List<RecipeCount> countByRecipe();
+
+    // Rows saved before created_at existed are null and never count as recent
+    @Query("select f.recipeId as recipeId, f.userId as userId, f.createdAt as at from FavoriteEntity f where f.createdAt >= :since")
+    List<RecipeActivity> findActivitySince(@Param("since") LocalDateTime since);
 }
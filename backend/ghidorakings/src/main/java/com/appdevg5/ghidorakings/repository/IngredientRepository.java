@@ -1,14 +1,30 @@
 package com.appdevg5.ghidorakings.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.appdevg5.ghidorakings.entity.IngredientEntity;
 
 @Repository
 public interface IngredientRepository extends JpaRepository<IngredientEntity, Integer> {
 	List<IngredientEntity> findByRecipeId(Integer recipeId);
+	List<IngredientEntity> findByRecipeIdIn(Collection<Integer> recipeIds);
+
+	// Derived deletes load and remove rows one by one, which needs a transaction
+	@Transactional
 	void deleteByRecipeId(Integer recipeId);
+
+	// Distinct raw names with the number of ingredient rows using each
+	interface NameUsage {
+		String getName();
+		Long getUses();
+	}
+
+	@Query("select i.name as name, count(i) as uses from IngredientEntity i where i.name is not null group by i.name")
+	List<NameUsage> countByName();
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.appdevg5.ghidorakings.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.appdevg5.ghidorakings.entity.IngredientTermEntity;
+
+@Repository
+public interface IngredientTermRepository extends JpaRepository<IngredientTermEntity, Integer> {
+	Optional<IngredientTermEntity> findByName(String name);
+}
@@ -1,11 +1,35 @@
 package com.appdevg5.ghidorakings.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
 import com.appdevg5.ghidorakings.entity.RatingEntity;
 
 @Repository
 public interface RatingRepository extends JpaRepository<RatingEntity, Integer> {
 
+    // Count and newest updated_at in one aggregate query; no entities are loaded
+    @Query("select new com.appdevg5.ghidorakings.dto.CollectionVersion(count(r), max(r.updatedAt)) from RatingEntity r")
+    CollectionVersion findVersion();
+
+    interface ScoreCount {
+        Integer getRecipeId();
+        Integer getScore();
+        Long getRatings();
+    }
+
+    // Raw per recipe histogram used to reconcile recipe_rating_stats
+    @Query("select r.recipeId as recipeId, r.score as score, count(r) as ratings from RatingEntity r "
+        + "where r.recipeId is not null and r.score between 1 and 5 group by r.recipeId, r.score")
+    List<ScoreCount> countByRecipeAndScore();
+
+    // Creation time, so editing a score is not new activity; rows saved before created_at existed never count
+    @Query("select r.recipeId as recipeId, r.userId as userId, r.createdAt as at from RatingEntity r where r.createdAt >= :since")
+    List<RecipeActivity> findActivitySince(@Param("since") LocalDateTime since);
 }
@@ -0,0 +1,10 @@
+package com.appdevg5.ghidorakings.repository;
+
+import java.time.LocalDateTime;
+
+// One rating, comment or favorite reduced to the recipe it touched, by whom and when
+public interface RecipeActivity {
+    Integer getRecipeId();
+    Integer getUserId();
+    LocalDateTime getAt();
+}
@@ -0,0 +1,10 @@
+package com.appdevg5.ghidorakings.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.appdevg5.ghidorakings.entity.RecipeRatingStatsEntity;
+
+@Repository
+public interface RecipeRatingStatsRepository extends JpaRepository<RecipeRatingStatsEntity, Integer> {
+}
@@ -1,13 +1,97 @@
 package com.appdevg5.ghidorakings.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
 import com.appdevg5.ghidorakings.entity.RecipeEntity;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface RecipeRepository extends JpaRepository<RecipeEntity, Integer> {
+
+    // Selects everything a list card needs except the LONGTEXT image itself; r must be the RecipeEntity alias
+    String SUMMARY_COLUMNS = "select new com.appdevg5.ghidorakings.dto.RecipeSummary("
+        + "r.recipeId, r.title, r.category, r.difficulty, r.cookTimeMinutes, r.estimatedPrice, r.userId, r.isApproved, "
+        + "r.imageKey, case when r.image is not null then true else false end)";
+
+    String SUMMARY_SELECT = SUMMARY_COLUMNS + " from RecipeEntity r ";
+
+    // JDBC fetch size for the forward-only streaming queries below
+    String STREAM_FETCH_SIZE = "200";
+
     List<RecipeEntity> findByIsApproved(boolean isApproved);
     List<RecipeEntity> findByUserId(Integer userId);
-}
\ No newline at end of file
+
+    // Keyset pagination on recipe_id: cost does not grow with page depth
+    @Query(SUMMARY_SELECT + "where r.isApproved = :approved and r.recipeId > :afterRecipeId order by r.recipeId")
+    List<RecipeSummary> findSummariesByApproval(@Param("approved") boolean approved,
+                                                @Param("afterRecipeId") Integer afterRecipeId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "where r.userId = :userId and r.recipeId > :afterRecipeId order by r.recipeId")
+    List<RecipeSummary> findSummariesByUserId(@Param("userId") Integer userId,
+                                              @Param("afterRecipeId") Integer afterRecipeId, Limit limit);
+
+    // Forward-only streams; callers must consume them inside a read-only transaction and close them
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query(SUMMARY_SELECT + "where r.isApproved = true order by r.recipeId")
+    Stream<RecipeSummary> streamApprovedSummaries();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+    @Query("select r from RecipeEntity r where r.isApproved = true order by r.recipeId")
+    Stream<RecipeEntity> streamApproved();
+
+    @Query(SUMMARY_SELECT + "where r.recipeId = :recipeId")
+    RecipeSummary findSummaryById(@Param("recipeId") Integer recipeId);
+
+    @Query(SUMMARY_SELECT + "where r.isApproved = true and r.recipeId in :recipeIds")
+    List<RecipeSummary> findApprovedSummariesByIdIn(@Param("recipeIds") Collection<Integer> recipeIds);
+
+    // A user's favorited recipes, newest favorite first, as [RecipeSummary, favoriteId] rows;
+    // pending recipes only appear to their author. Keyset on favorite_id via idx_favorite_user
+    @Query(SUMMARY_COLUMNS + ", f.favoriteId from FavoriteEntity f join RecipeEntity r on r.recipeId = f.recipeId "
+        + "where f.userId = :userId and f.favoriteId < :beforeFavoriteId and (r.isApproved = true or r.userId = :userId) "
+        + "order by f.favoriteId desc")
+    List<Object[]> findFavoriteSummaries(@Param("userId") Integer userId,
+                                         @Param("beforeFavoriteId") Integer beforeFavoriteId, Limit limit);
+
+    // Long text fields the search index needs on top of a summary
+    interface RecipeText {
+        Integer getRecipeId();
+        String getDescription();
+        String getSteps();
+    }
+
+    @Query("select r.recipeId as recipeId, r.description as description, r.steps as steps "
+        + "from RecipeEntity r where r.recipeId in :recipeIds")
+    List<RecipeText> findTextByRecipeIdIn(@Param("recipeIds") Collection<Integer> recipeIds);
+
+    // Reads only the image column for /recipe/image/{recipeId}
+    @Query("select r.image from RecipeEntity r where r.recipeId = :recipeId")
+    String findImageByRecipeId(@Param("recipeId") Integer recipeId);
+
+    // Version of the approved listing; covered by idx_recipe_approved_updated
+    @Query("select new com.appdevg5.ghidorakings.dto.CollectionVersion(count(r), max(r.updatedAt)) "
+        + "from RecipeEntity r where r.isApproved = true")
+    CollectionVersion findApprovedVersion();
+
+    // Marks a recipe as changed when only its ingredient rows were written
+    @Modifying
+    @Transactional
+    @Query("update RecipeEntity r set r.updatedAt = :updatedAt where r.recipeId = :recipeId")
+    int touch(@Param("recipeId") Integer recipeId, @Param("updatedAt") LocalDateTime updatedAt);
+}
@@ -1,8 +1,13 @@
 package com.appdevg5.ghidorakings.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
 import com.appdevg5.ghidorakings.entity.UserEntity;
 import java.util.Optional;
 
@@ -10,4 +15,14 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<UserEntity, Integer> {
     Optional<UserEntity> findByEmail(String email);
     Optional<UserEntity> findByEmailAndPassword(String email, String password);
+
+    // Changes on every user insert, delete or save, renames included
+    @Query("select new com.appdevg5.ghidorakings.dto.CollectionVersion(count(u), max(u.updatedAt)) from UserEntity u")
+    CollectionVersion findVersion();
+
+    // Login rehash; a no-op if the password changed meanwhile
+    @Modifying
+    @Transactional
+    @Query("update UserEntity u set u.password = :newHash where u.userId = :userId and u.password = :oldHash")
+    int replacePasswordHash(@Param("userId") Integer userId, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
\ No newline at end of file
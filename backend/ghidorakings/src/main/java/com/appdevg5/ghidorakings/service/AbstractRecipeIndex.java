@@ -0,0 +1,210 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.IngredientEntity;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Lifecycle shared by the in-memory indexes over approved recipes: a
+ * background build at startup that walks recipes in keyset batches, then
+ * incremental refreshes from RecipeChangedEvent. Changes that arrive while
+ * the build is running are replayed once it finishes so the build can never
+ * overwrite a newer version of a recipe.
+ *
+ * Refreshes run after the writer's transaction commits, on one background
+ * thread per index, so the writer never waits on them and a refresh that
+ * read an older row can never be applied after a newer one. Repeated
+ * changes to a recipe that are still waiting collapse into one refresh.
+ */
+public abstract class AbstractRecipeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AbstractRecipeIndex.class);
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    IngredientService ingredientService;
+
+    private final Set<Integer> changedDuringBuild = new LinkedHashSet<>();
+    private volatile boolean building;
+
+    // Recipes waiting for the refresher; guarded by itself
+    private final Set<Integer> pendingRefresh = new LinkedHashSet<>();
+
+    // Single thread so refreshes are applied in the order they read the database
+    Executor refresher;
+
+    // Short name used for the build thread and log lines
+    protected abstract String indexName();
+
+    // Adds or replaces each recipe in the batch; ingredient names and term ids are already attached
+    protected abstract void indexBatch(List<RecipeSummary> batch);
+
+    public abstract void remove(Integer recipeId);
+
+    // Called once the startup build has indexed every batch, before queued changes are replayed
+    protected void buildFinished() {
+    }
+
+    @PostConstruct
+    void startRefresher() {
+        refresher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            // a drain is only queued while another one runs, so one slot is enough
+            new ArrayBlockingQueue<>(1),
+            runnable -> {
+                Thread thread = new Thread(runnable, indexName() + "-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    void stopRefresher() {
+        if (refresher instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBuild() {
+        building = true;
+        Thread worker = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Building {} failed", indexName(), e);
+                building = false;
+            }
+        }, indexName());
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public void rebuild() {
+        building = true;
+        long started = System.currentTimeMillis();
+        int afterRecipeId = 0;
+        int indexed = 0;
+        while (true) {
+            List<RecipeSummary> batch = recipeRepository.findSummariesByApproval(true, afterRecipeId, Limit.of(BUILD_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            attachIngredients(batch);
+            indexBatch(batch);
+            indexed += batch.size();
+            afterRecipeId = batch.get(batch.size() - 1).getRecipeId();
+        }
+
+        List<Integer> replay;
+        synchronized (changedDuringBuild) {
+            building = false;
+            replay = new ArrayList<>(changedDuringBuild);
+            changedDuringBuild.clear();
+        }
+        buildFinished();
+        replay.forEach(this::scheduleRefresh);
+        logger.info("Built {}: {} recipes in {} ms", indexName(), indexed, System.currentTimeMillis() - started);
+    }
+
+    // Runs once the write commits, so the refresh reads what was written
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        if (event.getRecipeId() == null) {
+            return;
+        }
+        if (building) {
+            synchronized (changedDuringBuild) {
+                if (building) {
+                    changedDuringBuild.add(event.getRecipeId());
+                }
+            }
+        }
+        scheduleRefresh(event.getRecipeId());
+    }
+
+    private void scheduleRefresh(Integer recipeId) {
+        boolean idle;
+        synchronized (pendingRefresh) {
+            idle = pendingRefresh.isEmpty();
+            pendingRefresh.add(recipeId);
+        }
+        if (idle) {
+            try {
+                refresher.execute(this::drainPendingRefreshes);
+            } catch (RejectedExecutionException e) {
+                // shutting down
+            }
+        }
+    }
+
+    // Takes one snapshot of the pending ids; anything added meanwhile schedules the next drain
+    private void drainPendingRefreshes() {
+        List<Integer> recipeIds;
+        synchronized (pendingRefresh) {
+            recipeIds = new ArrayList<>(pendingRefresh);
+            pendingRefresh.clear();
+        }
+        for (Integer recipeId : recipeIds) {
+            try {
+                refresh(recipeId);
+            } catch (RuntimeException e) {
+                logger.warn("Could not update {} for recipe {}: {}", indexName(), recipeId, e.getMessage());
+            }
+        }
+    }
+
+    // Re-reads one recipe; unapproved or deleted recipes drop out of the index
+    public void refresh(Integer recipeId) {
+        RecipeSummary summary = recipeRepository.findSummaryById(recipeId);
+        if (summary == null || !summary.isApproved()) {
+            remove(recipeId);
+            return;
+        }
+        List<RecipeSummary> batch = List.of(summary);
+        attachIngredients(batch);
+        indexBatch(batch);
+    }
+
+    public boolean isBuilding() {
+        return building;
+    }
+
+    private void attachIngredients(List<RecipeSummary> batch) {
+        List<Integer> recipeIds = batch.stream().map(RecipeSummary::getRecipeId).collect(Collectors.toList());
+        Map<Integer, List<IngredientEntity>> ingredients = ingredientService.findByRecipeIds(recipeIds);
+        for (RecipeSummary summary : batch) {
+            List<IngredientEntity> rows = ingredients.getOrDefault(summary.getRecipeId(), Collections.emptyList());
+            summary.setIngredientNames(rows.stream().map(IngredientEntity::getName).collect(Collectors.toList()));
+            summary.setIngredientTermIds(rows.stream().map(IngredientEntity::getTermId).collect(Collectors.toList()));
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import com.appdevg5.ghidorakings.dto.BrowseFilter;
+import com.appdevg5.ghidorakings.dto.BrowsePage;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+
+/**
+ * Columnar in-memory index for /recipe/browse. category, difficulty and the
+ * cook-time and price buckets are RoaringBitmaps of recipe ids; cook time
+ * and price are also kept as sorted primitive arrays so arbitrary min/max
+ * ranges are two binary searches (the startup build appends and sorts each
+ * column once). Facet counts are AND cardinalities of
+ * those bitmaps, so a browse request never reaches the database.
+ */
+@Component
+public class BrowseIndex extends AbstractRecipeIndex {
+
+    static final String CATEGORY = "category";
+    static final String DIFFICULTY = "difficulty";
+    static final String COOK_TIME = "cookTime";
+    static final String PRICE = "price";
+
+    // Half-open [from, to) buckets, in display order
+    private static final Bucket[] COOK_TIME_BUCKETS = {
+        new Bucket("0-15", 0, 16), new Bucket("16-30", 16, 31), new Bucket("31-60", 31, 61),
+        new Bucket("61+", 61, Double.POSITIVE_INFINITY) };
+    private static final Bucket[] PRICE_BUCKETS = {
+        new Bucket("0-99", 0, 100), new Bucket("100-249", 100, 250), new Bucket("250-499", 250, 500),
+        new Bucket("500+", 500, Double.POSITIVE_INFINITY) };
+
+    private static final class Bucket {
+        final String label;
+        final double from;
+        final double to;
+
+        Bucket(String label, double from, double to) {
+            this.label = label;
+            this.from = from;
+            this.to = to;
+        }
+
+        static String labelOf(Bucket[] buckets, Number value) {
+            if (value == null) {
+                return null;
+            }
+            double v = value.doubleValue();
+            for (Bucket bucket : buckets) {
+                if (v >= bucket.from && v < bucket.to) {
+                    return bucket.label;
+                }
+            }
+            return null;
+        }
+    }
+
+    // Values sorted ascending, each paired with the recipe id it belongs to. The startup
+    // build appends unsorted and sorts once at the end; until then lookups scan linearly.
+    private static final class SortedColumn {
+        double[] values = new double[1024];
+        int[] ids = new int[1024];
+        int size;
+        boolean sorted = true;
+
+        void append(double value, int id) {
+            grow();
+            values[size] = value;
+            ids[size] = id;
+            size++;
+            sorted = false;
+        }
+
+        // Shifting insert for single incremental updates
+        void insert(double value, int id) {
+            sort();
+            grow();
+            int at = lowerBound(value);
+            while (at < size && values[at] == value) {
+                at++;
+            }
+            System.arraycopy(values, at, values, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            values[at] = value;
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(double value, int id) {
+            int at = sorted ? lowerBound(value) : 0;
+            for (; at < size && (!sorted || values[at] == value); at++) {
+                if (values[at] == value && ids[at] == id) {
+                    System.arraycopy(values, at + 1, values, at, size - at - 1);
+                    System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        // Stable, so equal values keep their insertion order as the shifting insert does
+        void sort() {
+            if (sorted) {
+                return;
+            }
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingDouble(i -> values[i]));
+            double[] sortedValues = new double[values.length];
+            int[] sortedIds = new int[ids.length];
+            for (int i = 0; i < size; i++) {
+                sortedValues[i] = values[order[i]];
+                sortedIds[i] = ids[order[i]];
+            }
+            values = sortedValues;
+            ids = sortedIds;
+            sorted = true;
+        }
+
+        private void grow() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+        }
+
+        // Recipe ids whose value lies in [min, max]; null bounds are open
+        RoaringBitmap range(Double min, Double max) {
+            if (!sorted) {
+                RoaringBitmap result = new RoaringBitmap();
+                for (int i = 0; i < size; i++) {
+                    if ((min == null || values[i] >= min) && (max == null || values[i] <= max)) {
+                        result.add(ids[i]);
+                    }
+                }
+                return result;
+            }
+            int from = min == null ? 0 : lowerBound(min);
+            int to = max == null ? size : lowerBound(Math.nextUp(max));
+            RoaringBitmap result = new RoaringBitmap();
+            if (from < to) {
+                result.add(Arrays.copyOfRange(ids, from, to));
+            }
+            return result;
+        }
+
+        private int lowerBound(double value) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private static final class Entry {
+        final RecipeSummary summary;
+        final String category;
+        final String difficulty;
+        final String cookTimeBucket;
+        final String priceBucket;
+
+        Entry(RecipeSummary summary) {
+            this.summary = summary;
+            this.category = clean(summary.getCategory());
+            this.difficulty = clean(summary.getDifficulty());
+            this.cookTimeBucket = Bucket.labelOf(COOK_TIME_BUCKETS, summary.getCookTimeMinutes());
+            this.priceBucket = Bucket.labelOf(PRICE_BUCKETS, summary.getEstimatedPrice());
+        }
+
+        private static String clean(String value) {
+            return value == null || value.trim().isEmpty() ? null : value.trim();
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final Map<Integer, Entry> recipes = new HashMap<>();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<String, Map<String, RoaringBitmap>> facetBitmaps = new LinkedHashMap<>();
+    private final SortedColumn cookTimes = new SortedColumn();
+    private final SortedColumn prices = new SortedColumn();
+
+    public BrowseIndex() {
+        facetBitmaps.put(CATEGORY, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        facetBitmaps.put(DIFFICULTY, new TreeMap<>(String.CASE_INSENSITIVE_ORDER));
+        facetBitmaps.put(COOK_TIME, emptyBuckets(COOK_TIME_BUCKETS));
+        facetBitmaps.put(PRICE, emptyBuckets(PRICE_BUCKETS));
+    }
+
+    private static Map<String, RoaringBitmap> emptyBuckets(Bucket[] buckets) {
+        Map<String, RoaringBitmap> bitmaps = new LinkedHashMap<>();
+        for (Bucket bucket : buckets) {
+            bitmaps.put(bucket.label, new RoaringBitmap());
+        }
+        return bitmaps;
+    }
+
+    @Override
+    protected String indexName() {
+        return "browse-index";
+    }
+
+    @Override
+    protected void indexBatch(List<RecipeSummary> batch) {
+        boolean bulk = isBuilding();
+        lock.writeLock().lock();
+        try {
+            for (RecipeSummary summary : batch) {
+                int id = summary.getRecipeId();
+                removeLocked(id);
+                Entry entry = new Entry(summary);
+                recipes.put(id, entry);
+                all.add(id);
+                addTo(CATEGORY, entry.category, id);
+                addTo(DIFFICULTY, entry.difficulty, id);
+                addTo(COOK_TIME, entry.cookTimeBucket, id);
+                addTo(PRICE, entry.priceBucket, id);
+                if (summary.getCookTimeMinutes() != null) {
+                    add(cookTimes, summary.getCookTimeMinutes(), id, bulk);
+                }
+                if (summary.getEstimatedPrice() != null) {
+                    add(prices, summary.getEstimatedPrice(), id, bulk);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void add(SortedColumn column, double value, int id, boolean bulk) {
+        if (bulk) {
+            column.append(value, id);
+        } else {
+            column.insert(value, id);
+        }
+    }
+
+    // One sort per column instead of a shifting insert per recipe
+    @Override
+    protected void buildFinished() {
+        lock.writeLock().lock();
+        try {
+            cookTimes.sort();
+            prices.sort();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void addTo(String facet, String value, int id) {
+        if (value != null) {
+            facetBitmaps.get(facet).computeIfAbsent(value, v -> new RoaringBitmap()).add(id);
+        }
+    }
+
+    @Override
+    public void remove(Integer recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(int id) {
+        Entry old = recipes.remove(id);
+        if (old == null) {
+            return;
+        }
+        all.remove(id);
+        removeFrom(CATEGORY, old.category, id, true);
+        removeFrom(DIFFICULTY, old.difficulty, id, true);
+        removeFrom(COOK_TIME, old.cookTimeBucket, id, false);
+        removeFrom(PRICE, old.priceBucket, id, false);
+        if (old.summary.getCookTimeMinutes() != null) {
+            cookTimes.remove(old.summary.getCookTimeMinutes(), id);
+        }
+        if (old.summary.getEstimatedPrice() != null) {
+            prices.remove(old.summary.getEstimatedPrice(), id);
+        }
+    }
+
+    // Free-form values disappear from the facet once unused; fixed buckets always stay listed
+    private void removeFrom(String facet, String value, int id, boolean dropWhenEmpty) {
+        if (value == null) {
+            return;
+        }
+        RoaringBitmap bitmap = facetBitmaps.get(facet).get(value);
+        bitmap.remove(id);
+        if (dropWhenEmpty && bitmap.isEmpty()) {
+            facetBitmaps.get(facet).remove(value);
+        }
+    }
+
+    /**
+     * Matching recipes in recipe id order after afterRecipeId (at most
+     * pageSize of them), the total match count, and per-facet counts.
+     */
+    public BrowsePage browse(BrowseFilter filter, int afterRecipeId, int pageSize) {
+        lock.readLock().lock();
+        try {
+            Map<String, RoaringBitmap> filters = new LinkedHashMap<>();
+            filters.put(CATEGORY, valuesFilter(CATEGORY, filter.getCategory(), false));
+            filters.put(DIFFICULTY, valuesFilter(DIFFICULTY, filter.getDifficulty(), false));
+            filters.put(COOK_TIME, rangeFilter(valuesFilter(COOK_TIME, filter.getCookTime(), true), cookTimes,
+                filter.getMinCookTime() == null ? null : filter.getMinCookTime().doubleValue(),
+                filter.getMaxCookTime() == null ? null : filter.getMaxCookTime().doubleValue()));
+            filters.put(PRICE, rangeFilter(valuesFilter(PRICE, filter.getPrice(), true), prices,
+                filter.getMinPrice(), filter.getMaxPrice()));
+
+            RoaringBitmap matches = intersect(filters, null);
+
+            // Each facet is counted against every filter except its own, so sibling values stay selectable
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for (Map.Entry<String, Map<String, RoaringBitmap>> facet : facetBitmaps.entrySet()) {
+                RoaringBitmap base = intersect(filters, facet.getKey());
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                for (Map.Entry<String, RoaringBitmap> value : facet.getValue().entrySet()) {
+                    counts.put(value.getKey(), RoaringBitmap.andCardinality(base, value.getValue()));
+                }
+                facets.put(facet.getKey(), counts);
+            }
+
+            List<RecipeSummary> items = new ArrayList<>(pageSize);
+            PeekableIntIterator ids = matches.getIntIterator();
+            if (afterRecipeId < Integer.MAX_VALUE) {
+                ids.advanceIfNeeded(afterRecipeId + 1);
+            }
+            while (ids.hasNext() && items.size() < pageSize) {
+                items.add(recipes.get(ids.next()).summary);
+            }
+            String nextCursor = ids.hasNext() ? CursorCodec.encode(items.get(items.size() - 1).getRecipeId()) : null;
+            return new BrowsePage(items, nextCursor, matches.getCardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // OR of the selected values' bitmaps, or null when the facet is not filtered
+    private RoaringBitmap valuesFilter(String facet, List<String> selected, boolean fixedBuckets) {
+        if (selected == null || selected.isEmpty()) {
+            return null;
+        }
+        RoaringBitmap union = new RoaringBitmap();
+        for (String value : selected) {
+            RoaringBitmap bitmap = facetBitmaps.get(facet).get(value.trim());
+            if (bitmap == null && fixedBuckets) {
+                throw new IllegalArgumentException("Unknown " + facet + " bucket: " + value);
+            }
+            if (bitmap != null) {
+                union.or(bitmap);
+            }
+        }
+        return union;
+    }
+
+    private static RoaringBitmap rangeFilter(RoaringBitmap buckets, SortedColumn column, Double min, Double max) {
+        if (min == null && max == null) {
+            return buckets;
+        }
+        RoaringBitmap range = column.range(min, max);
+        return buckets == null ? range : RoaringBitmap.and(buckets, range);
+    }
+
+    private RoaringBitmap intersect(Map<String, RoaringBitmap> filters, String skip) {
+        RoaringBitmap result = all.clone();
+        for (Map.Entry<String, RoaringBitmap> filter : filters.entrySet()) {
+            if (filter.getValue() != null && !filter.getKey().equals(skip)) {
+                result.and(filter.getValue());
+            }
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("recipes", recipes.size());
+            stats.put("categories", facetBitmaps.get(CATEGORY).size());
+            stats.put("building", isBuilding());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.appdevg5.ghidorakings.service;
+
+import com.appdevg5.ghidorakings.entity.CommentEntity;
+
+/**
+ * Published after a comment was created, edited or deleted, so live
+ * comment streams can push the change to viewers of that recipe.
+ */
+public class CommentChangedEvent {
+
+    public static final String CREATED = "comment-created";
+    public static final String UPDATED = "comment-updated";
+    public static final String DELETED = "comment-deleted";
+
+    private final String type;
+    private final CommentEntity comment;
+
+    public CommentChangedEvent(String type, CommentEntity comment) {
+        this.type = type;
+        this.comment = comment;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public CommentEntity getComment() {
+        return comment;
+    }
+}
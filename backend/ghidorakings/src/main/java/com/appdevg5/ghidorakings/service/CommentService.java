@@ -1,14 +1,25 @@
 package com.appdevg5.ghidorakings.service;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
+import com.appdevg5.ghidorakings.dto.CommentPage;
 import com.appdevg5.ghidorakings.entity.CommentEntity;
-import com.appdevg5.ghidorakings.entity.UserEntity;
 import com.appdevg5.ghidorakings.repository.CommentRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+import com.appdevg5.ghidorakings.repository.UserRepository;
 
 @Service
 public class CommentService {
@@ -17,16 +28,39 @@ public class CommentService {
     CommentRepository commentRepository;
 
     @Autowired
-    UserService userService;
+    UserDirectory userDirectory;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("${comment.page.default-size:20}")
+    int defaultPageSize = 20;
+
+    @Value("${comment.page.max-size:100}")
+    int maxPageSize = 100;
 
     private void attachUsername(CommentEntity comment) {
         if (comment == null || comment.getUserId() == null) {
             return;
         }
 
-        UserEntity user = userService.getUserById(comment.getUserId());
-        if (user != null) {
-            comment.setUsername(user.getUsername());
+        comment.setUsername(userDirectory.username(comment.getUserId()));
+    }
+
+    // At most one user query for a whole list, none when every author is cached
+    private void attachUsernames(List<CommentEntity> comments) {
+        Map<Integer, String> usernames = userDirectory.usernames(
+            comments.stream().map(CommentEntity::getUserId).collect(Collectors.toList()));
+        for (CommentEntity comment : comments) {
+            if (comment.getUserId() != null) {
+                comment.setUsername(usernames.get(comment.getUserId()));
+            }
         }
     }
 
@@ -35,14 +69,57 @@ public class CommentService {
         comment.setCommentId(null);
         CommentEntity saved = commentRepository.save(comment);
         attachUsername(saved);
+        eventPublisher.publishEvent(new CommentChangedEvent(CommentChangedEvent.CREATED, saved));
         return saved;
     }
 
     public List<CommentEntity> getAllComments() {
         List<CommentEntity> comments = commentRepository.findAll();
-        comments.forEach(this::attachUsername);
+        attachUsernames(comments);
         return comments;
     }
+
+    // Keyset page of one recipe's comments, newest first; the cursor carries the last (createdAt, commentId) shown
+    public CommentPage getCommentsByRecipe(Integer recipeId, String cursor, Integer size) {
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        List<CommentEntity> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = commentRepository.findNewestByRecipeId(recipeId, Limit.of(pageSize + 1));
+        } else {
+            String[] position = CursorCodec.decode(cursor, 2);
+            try {
+                rows = commentRepository.findNewestByRecipeIdBefore(recipeId,
+                    LocalDateTime.parse(position[0]), Integer.valueOf(position[1]), Limit.of(pageSize + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<CommentEntity> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        attachUsernames(items);
+        String nextCursor = null;
+        if (hasMore) {
+            CommentEntity last = items.get(items.size() - 1);
+            nextCursor = CursorCodec.encode(last.getDatetimeCreatedAt(), last.getCommentId());
+        }
+        return new CommentPage(items, nextCursor, commentRepository.countByRecipeId(recipeId));
+    }
+
+    public boolean recipeExists(Integer recipeId) {
+        return recipeId != null && recipeRepository.existsById(recipeId);
+    }
+
+    // Cheap aggregate for conditional GETs on getAllComments
+    public CollectionVersion getCommentsVersion() {
+        return commentRepository.findVersion();
+    }
+
+    // The list embeds usernames, so a rename must change the tag as well; both versions
+    // come from the database, so every instance computes the same tag
+    public String getCommentsETag() {
+        return getCommentsVersion().toETag("comments-u" + userRepository.findVersion().toToken());
+    }
     
     // Get comment by ID
     public CommentEntity getCommentById(int commentId) {
@@ -57,6 +134,7 @@ public class CommentService {
             comment.setContent(newCommentDetails.getContent());
             CommentEntity updated = commentRepository.save(comment);
             attachUsername(updated);
+            eventPublisher.publishEvent(new CommentChangedEvent(CommentChangedEvent.UPDATED, updated));
             return updated;
         } catch (NoSuchElementException e) {
             throw e;
@@ -64,8 +142,11 @@ public class CommentService {
     }
 
     public String deleteComment(int commentId) {
-        if (commentRepository.findById(commentId).isPresent()) {
+        CommentEntity existing = commentRepository.findById(commentId).orElse(null);
+        if (existing != null) {
             commentRepository.deleteById(commentId);
+            attachUsername(existing);
+            eventPublisher.publishEvent(new CommentChangedEvent(CommentChangedEvent.DELETED, existing));
             return "Comment with ID " + commentId + " has been deleted.";
         } else {
             return "Comment with ID " + commentId + " not found.";
@@ -0,0 +1,446 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-process fan-out of comment changes to Server-Sent Event subscribers.
+ * Connections are held as async requests, so no thread is parked per
+ * subscriber: publishing only offers to each subscriber's bounded queue,
+ * and a small sender pool drains queues that have pending events. A
+ * subscriber whose queue overflows, or whose send is still blocked after
+ * send-timeout-ms, is disconnected and can resume from its Last-Event-ID
+ * out of the per-recipe replay buffer. A recipe's channel is dropped once
+ * it has no subscribers and no event for idle-channel-ms; resuming into a
+ * recreated channel gets a reset.
+ */
+@Component
+public class CommentStreamHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(CommentStreamHub.class);
+
+    // Sent instead of a replay when the client's Last-Event-ID is no longer buffered
+    public static final String RESET = "reset";
+
+    private static final class Event {
+        final long id;
+        final String name;
+        final Object data;
+
+        Event(long id, String name, Object data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+
+        SseEventBuilder toSse() {
+            return SseEmitter.event().id(Long.toString(id)).name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    // Last events of one recipe; also the lock that orders publish against subscribe and removal
+    private static final class Channel {
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        final Deque<Event> history = new ArrayDeque<>();
+        // highest event id that has fallen out of history; a new channel cannot vouch for any earlier id
+        long evictedUpTo;
+        long lastActivity = System.currentTimeMillis();
+        // set once swept from channels; callers holding it must look the channel up again
+        boolean removed;
+
+        Channel(long evictedUpTo) {
+            this.evictedUpTo = evictedUpTo;
+        }
+    }
+
+    private final class Subscriber {
+        final Integer recipeId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEventBuilder> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final AtomicBoolean completed = new AtomicBoolean();
+        // set under the channel lock before the subscriber is added, so close removes it from the right channel
+        volatile Channel channel;
+        // the send in flight, guarded by this; sendStartedAt is 0 while idle
+        private Thread sender;
+        private long sendStartedAt;
+        private boolean stalled;
+        private boolean standIn;
+
+        Subscriber(Integer recipeId, SseEmitter emitter) {
+            this.recipeId = recipeId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        // Never blocks; a full queue means the client cannot keep up
+        void offer(SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                dropped.incrementAndGet();
+                close(false);
+                return;
+            }
+            scheduleDrain();
+        }
+
+        void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                senders.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                // shutting down; no drain is running, so nothing holds the emitter
+                if (closed.get()) {
+                    complete();
+                }
+            }
+        }
+
+        // The only place the emitter is written to, so a close never waits behind a stuck send
+        void drain() {
+            try {
+                SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    sendStarted();
+                    try {
+                        emitter.send(event);
+                    } finally {
+                        sendFinished();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // client went away
+                close(false);
+            } finally {
+                draining.set(false);
+            }
+            if (closed.get()) {
+                complete();
+            } else if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private synchronized void sendStarted() {
+            sender = Thread.currentThread();
+            sendStartedAt = System.currentTimeMillis();
+        }
+
+        private void sendFinished() {
+            boolean releaseStandIn;
+            synchronized (this) {
+                sender = null;
+                sendStartedAt = 0;
+                releaseStandIn = standIn;
+                standIn = false;
+                // drop an interrupt from the watchdog that landed after the send returned
+                Thread.interrupted();
+            }
+            if (releaseStandIn) {
+                releaseStandInSender();
+            }
+        }
+
+        // Called by the watchdog; interrupts a send past its deadline and closes the subscriber
+        boolean closeIfStalled(long now) {
+            synchronized (this) {
+                if (stalled || sendStartedAt == 0 || now - sendStartedAt < sendTimeoutMillis) {
+                    return false;
+                }
+                stalled = true;
+                // cover for the stuck thread until its send returns
+                standIn = addStandInSender();
+                sender.interrupt();
+            }
+            close(false);
+            return true;
+        }
+
+        void close(boolean fromEmitterCallback) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            queue.clear();
+            Channel owner = channel;
+            if (owner != null) {
+                owner.subscribers.remove(this);
+            }
+            subscriberCount.decrementAndGet();
+            if (fromEmitterCallback) {
+                completed.set(true);
+            } else {
+                // the drain task completes the emitter, after any send it is stuck in
+                scheduleDrain();
+            }
+        }
+
+        private void complete() {
+            if (completed.compareAndSet(false, true)) {
+                emitter.complete();
+            }
+        }
+    }
+
+    @Value("${comment.stream.max-subscribers:20000}")
+    int maxSubscribers = 20000;
+
+    @Value("${comment.stream.queue-capacity:64}")
+    int queueCapacity = 64;
+
+    @Value("${comment.stream.history-size:200}")
+    int historySize = 200;
+
+    @Value("${comment.stream.sender-threads:4}")
+    int senderThreads = 4;
+
+    @Value("${comment.stream.timeout-ms:1800000}")
+    long timeoutMillis = 1_800_000;
+
+    @Value("${comment.stream.send-timeout-ms:10000}")
+    long sendTimeoutMillis = 10_000;
+
+    @Value("${comment.stream.max-stand-in-senders:16}")
+    int maxStandInSenders = 16;
+
+    @Value("${comment.stream.heartbeat-ms:20000}")
+    long heartbeatMillis = 20_000;
+
+    @Value("${comment.stream.idle-channel-ms:600000}")
+    long idleChannelMillis = 600_000;
+
+    private final Map<Integer, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong stalledSenders = new AtomicLong();
+    // extra sender threads standing in for ones stuck in a stalled send
+    private int standInSenders;
+    // Event ids start at the boot time so ids from before a restart are always recognised as stale
+    private final long firstEventId = System.currentTimeMillis();
+    private final AtomicLong lastEventId = new AtomicLong(firstEventId);
+
+    private ThreadPoolExecutor senders;
+    private ScheduledExecutorService heartbeat;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // at most one drain task per subscriber is ever queued, so the queue is bounded by maxSubscribers
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "comment-stream-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "comment-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeat.scheduleWithFixedDelay(() -> {
+            sendHeartbeat();
+            removeIdleChannels(System.currentTimeMillis());
+        }, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        long watchdogMillis = Math.max(sendTimeoutMillis / 2, 100);
+        heartbeat.scheduleWithFixedDelay(() -> closeStalledSenders(System.currentTimeMillis()),
+            watchdogMillis, watchdogMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        heartbeat.shutdownNow();
+        // closing queues a final drain per subscriber that completes its emitter
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.close(false)));
+        senders.shutdown();
+    }
+
+    /**
+     * Opens a stream for one recipe. Events after lastEventId that are still
+     * buffered are replayed first; if some were already evicted the client
+     * gets a single reset event and should reload the comment list.
+     * Returns null when the hub is at capacity. Callers check that the
+     * recipe exists first, since this creates its channel.
+     */
+    public SseEmitter subscribe(Integer recipeId, Long resumeAfter) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = newEmitter();
+        Subscriber subscriber = new Subscriber(recipeId, emitter);
+        emitter.onCompletion(() -> subscriber.close(true));
+        emitter.onTimeout(() -> subscriber.close(false));
+        emitter.onError(error -> subscriber.close(true));
+
+        while (true) {
+            Channel channel = channel(recipeId);
+            synchronized (channel) {
+                if (channel.removed) {
+                    continue;
+                }
+                subscriber.channel = channel;
+                replay(channel, subscriber, resumeAfter);
+                // the client may already be gone, or the replay may have overflowed the queue
+                if (!subscriber.closed.get()) {
+                    channel.subscribers.add(subscriber);
+                }
+                channel.lastActivity = System.currentTimeMillis();
+                return emitter;
+            }
+        }
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private void replay(Channel channel, Subscriber subscriber, Long resumeAfter) {
+        if (resumeAfter != null) {
+            List<Event> missed = new ArrayList<>();
+            for (Event event : channel.history) {
+                if (event.id > resumeAfter) {
+                    missed.add(event);
+                }
+            }
+            // a replay that would not fit the queue is as good as lost
+            if (resumeAfter < firstEventId || resumeAfter < channel.evictedUpTo || missed.size() > queueCapacity) {
+                subscriber.offer(SseEmitter.event().name(RESET).data("{}", MediaType.APPLICATION_JSON));
+            } else {
+                missed.forEach(event -> subscriber.offer(event.toSse()));
+            }
+        }
+    }
+
+    private Channel channel(Integer recipeId) {
+        return channels.computeIfAbsent(recipeId, id -> new Channel(lastEventId.get()));
+    }
+
+    public void publish(Integer recipeId, String name, Object data) {
+        if (recipeId == null) {
+            return;
+        }
+        while (true) {
+            Channel channel = channel(recipeId);
+            synchronized (channel) {
+                if (channel.removed) {
+                    continue;
+                }
+                Event event = new Event(lastEventId.incrementAndGet(), name, data);
+                channel.history.addLast(event);
+                while (channel.history.size() > historySize) {
+                    channel.evictedUpTo = channel.history.removeFirst().id;
+                }
+                channel.lastActivity = System.currentTimeMillis();
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.offer(event.toSse());
+                }
+                return;
+            }
+        }
+    }
+
+    // Drops channels nobody listens to whose last event or subscriber is older than idle-channel-ms
+    void removeIdleChannels(long now) {
+        for (Map.Entry<Integer, Channel> entry : channels.entrySet()) {
+            Channel channel = entry.getValue();
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty() && now - channel.lastActivity >= idleChannelMillis) {
+                    channel.removed = true;
+                    channels.remove(entry.getKey(), channel);
+                }
+            }
+        }
+    }
+
+    // Closes subscribers whose send has run past send-timeout-ms so a stuck client cannot hold a sender thread's fan-out
+    void closeStalledSenders(long now) {
+        for (Channel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                if (subscriber.closeIfStalled(now)) {
+                    stalledSenders.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Grows the pool by one thread; max before core, since core may never exceed max
+    private synchronized boolean addStandInSender() {
+        if (standInSenders >= maxStandInSenders) {
+            return false;
+        }
+        standInSenders++;
+        senders.setMaximumPoolSize(senderThreads + standInSenders);
+        senders.setCorePoolSize(senderThreads + standInSenders);
+        return true;
+    }
+
+    private synchronized void releaseStandInSender() {
+        standInSenders--;
+        senders.setCorePoolSize(senderThreads + standInSenders);
+        senders.setMaximumPoolSize(senderThreads + standInSenders);
+    }
+
+    @EventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        publish(event.getComment().getRecipeId(), event.getType(), event.getComment());
+    }
+
+    // Keeps proxies from closing idle connections and surfaces dead clients
+    private void sendHeartbeat() {
+        try {
+            for (Channel channel : channels.values()) {
+                for (Subscriber subscriber : channel.subscribers) {
+                    subscriber.offer(SseEmitter.event().comment("keep-alive"));
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Comment stream heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("subscribers", subscriberCount.get());
+        stats.put("recipes", channels.size());
+        stats.put("droppedSlowConsumers", dropped.get());
+        stats.put("stalledSenders", stalledSenders.get());
+        stats.put("lastEventId", lastEventId.get());
+        return stats;
+    }
+}
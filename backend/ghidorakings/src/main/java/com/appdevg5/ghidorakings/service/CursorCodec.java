@@ -0,0 +1,49 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset positions into opaque, URL-safe cursor tokens.
+ * Clients must treat the token as a black box and only echo it back.
+ */
+public final class CursorCodec {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {}
+
+    public static String encode(Object... parts) {
+        StringBuilder raw = new StringBuilder(VERSION);
+        for (Object part : parts) {
+            raw.append(SEPARATOR).append(part);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns the encoded parts, or throws IllegalArgumentException for tampered/garbage tokens
+    public static String[] decode(String cursor, int expectedParts) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] tokens = raw.split("\\|", -1);
+            if (tokens.length != expectedParts + 1 || !VERSION.equals(tokens[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String[] parts = new String[expectedParts];
+            System.arraycopy(tokens, 1, parts, 0, expectedParts);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public static int decodeInt(String cursor) {
+        try {
+            return Integer.parseInt(decode(cursor, 1)[0]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.Base64;
+
+/**
+ * Parsed form of a base64 "data:image/png;base64,...." URL, the format the
+ * frontend uploads images in and the legacy recipe.image column stores.
+ */
+public final class DataUrl {
+
+    private final String mimeType;
+    private final byte[] bytes;
+
+    private DataUrl(String mimeType, byte[] bytes) {
+        this.mimeType = mimeType;
+        this.bytes = bytes;
+    }
+
+    public static boolean isDataUrl(String value) {
+        return value != null && value.startsWith("data:") && value.indexOf(',') > 0;
+    }
+
+    // Throws IllegalArgumentException if the value is not a valid base64 data URL
+    public static DataUrl parse(String value) {
+        if (!isDataUrl(value)) {
+            throw new IllegalArgumentException("Invalid image data");
+        }
+        int comma = value.indexOf(',');
+        String header = value.substring(5, comma);
+        if (!header.endsWith(";base64")) {
+            throw new IllegalArgumentException("Invalid image data");
+        }
+        String mimeType = header.substring(0, header.indexOf(';'));
+        try {
+            byte[] bytes = Base64.getMimeDecoder().decode(value.substring(comma + 1));
+            return new DataUrl(mimeType.isEmpty() ? "application/octet-stream" : mimeType, bytes);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid image data");
+        }
+    }
+
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,14 @@
+package com.appdevg5.ghidorakings.service;
+
+/**
+ * Thrown when a favorite would be moved onto a (user, recipe) pair that
+ * already has one. Answered with 409.
+ */
+public class DuplicateFavoriteException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateFavoriteException(Integer userId, Integer recipeId) {
+        super("User " + userId + " has already favorited recipe " + recipeId + ".");
+    }
+}
@@ -0,0 +1,101 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Each user's favorited recipe ids as a RoaringBitmap, loaded on first use
+ * with one query and evicted once max-users bitmaps are held. Cached
+ * bitmaps are never mutated: writes swap in a modified copy, so readers
+ * can test membership without locking.
+ */
+@Component
+public class FavoriteBitmaps {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final Cache<Integer, RoaringBitmap> bitmaps;
+
+    @Autowired
+    FavoriteRepository favoriteRepository;
+
+    public FavoriteBitmaps(@Value("${favorite.bitmap.max-users:50000}") long maxUsers) {
+        this.bitmaps = Caffeine.newBuilder()
+            .maximumSize(maxUsers)
+            .recordStats()
+            .build();
+    }
+
+    // Recipe ids favorited by the user; treat as read-only
+    public RoaringBitmap recipesOf(Integer userId) {
+        if (userId == null) {
+            return EMPTY;
+        }
+        return bitmaps.get(userId, this::load);
+    }
+
+    public boolean isFavorited(Integer userId, Integer recipeId) {
+        return recipeId != null && recipesOf(userId).contains(recipeId);
+    }
+
+    private RoaringBitmap load(Integer userId) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (Integer recipeId : favoriteRepository.findRecipeIdsByUserId(userId)) {
+            if (recipeId != null) {
+                bitmap.add(recipeId);
+            }
+        }
+        bitmap.runOptimize();
+        return bitmap;
+    }
+
+    // Call after the favorite row is written; users not in the cache load it fresh later
+    public void added(Integer userId, Integer recipeId) {
+        if (userId == null || recipeId == null) {
+            return;
+        }
+        bitmaps.asMap().computeIfPresent(userId, (id, bitmap) -> {
+            RoaringBitmap copy = bitmap.clone();
+            copy.add(recipeId);
+            return copy;
+        });
+    }
+
+    public void removed(Integer userId, Integer recipeId) {
+        if (userId == null || recipeId == null) {
+            return;
+        }
+        bitmaps.asMap().computeIfPresent(userId, (id, bitmap) -> {
+            RoaringBitmap copy = bitmap.clone();
+            copy.remove(recipeId);
+            return copy;
+        });
+    }
+
+    public void evict(Integer userId) {
+        if (userId != null) {
+            bitmaps.invalidate(userId);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = bitmaps.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", bitmaps.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.appdevg5.ghidorakings.repository.FavoriteRepository.RecipeCount;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Favorite count per recipe. Each recipe has two LongAdders, the live total
+ * and the delta not yet written, so concurrent favorites of a hot recipe
+ * never contend on a lock or a database row and reads are a plain sum. The
+ * pending deltas are flushed to recipe_counters in one batched upsert on a
+ * schedule. Totals are rebuilt from the favorite table at startup, which
+ * also repairs any deltas lost by a crash before their flush.
+ *
+ * recipe_counters is never the source of the in-memory totals; it keeps
+ * the counts queryable in SQL. Rebuild reads it only to find the rows
+ * that drifted from the favorite table, logs how many, and rewrites just
+ * those.
+ */
+@Service
+public class FavoriteCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(FavoriteCounters.class);
+
+    private static final String UPSERT_DELTA =
+        "INSERT INTO recipe_counters (recipe_id, favorite_count, updated_at) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE favorite_count = favorite_count + VALUES(favorite_count), updated_at = VALUES(updated_at)";
+
+    private static final String OVERWRITE =
+        "INSERT INTO recipe_counters (recipe_id, favorite_count, updated_at) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE favorite_count = VALUES(favorite_count), updated_at = VALUES(updated_at)";
+
+    private static final class Counter {
+        final LongAdder total = new LongAdder();
+        final LongAdder pending = new LongAdder();
+    }
+
+    @Autowired
+    FavoriteRepository favoriteRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong rowsFlushed = new AtomicLong();
+
+    // Replaces every count with the favorite table's and repairs recipe_counters rows that disagree
+    @PostConstruct
+    public synchronized void rebuild() {
+        Map<Integer, Long> stored = new HashMap<>();
+        jdbcTemplate.query("SELECT recipe_id, favorite_count FROM recipe_counters",
+            (RowCallbackHandler) rs -> stored.put(rs.getInt("recipe_id"), rs.getLong("favorite_count")));
+
+        List<Object[]> drifted = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        counters.clear();
+        for (RecipeCount row : favoriteRepository.countByRecipe()) {
+            counters.computeIfAbsent(row.getRecipeId(), id -> new Counter()).total.add(row.getFavorites());
+            if (!row.getFavorites().equals(stored.remove(row.getRecipeId()))) {
+                drifted.add(new Object[] { row.getRecipeId(), row.getFavorites(), now });
+            }
+        }
+        // whatever is left counts favorites that no longer exist
+        List<Object[]> stale = stored.keySet().stream().map(recipeId -> new Object[] { recipeId }).toList();
+        if (!drifted.isEmpty() || !stale.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!drifted.isEmpty()) {
+                    jdbcTemplate.batchUpdate(OVERWRITE, drifted);
+                }
+                if (!stale.isEmpty()) {
+                    jdbcTemplate.batchUpdate("DELETE FROM recipe_counters WHERE recipe_id = ?", stale);
+                }
+            });
+            logger.info("Favorite counters repaired {} drifted and {} stale recipe_counters rows", drifted.size(), stale.size());
+        }
+        logger.info("Favorite counters rebuilt for {} recipes", counters.size());
+    }
+
+    public long getFavoriteCount(Integer recipeId) {
+        Counter counter = recipeId == null ? null : counters.get(recipeId);
+        return counter == null ? 0 : counter.total.sum();
+    }
+
+    // Call once the favorite row has been inserted (delta 1) or deleted (delta -1)
+    public void add(Integer recipeId, long delta) {
+        if (recipeId == null || delta == 0) {
+            return;
+        }
+        Counter counter = counters.computeIfAbsent(recipeId, id -> new Counter());
+        counter.total.add(delta);
+        counter.pending.add(delta);
+    }
+
+    @Scheduled(fixedDelayString = "${favorite.counters.flush-interval-ms:5000}")
+    public synchronized int flush() {
+        List<Object[]> rows = new ArrayList<>();
+        List<Counter> flushed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Integer, Counter> entry : counters.entrySet()) {
+            // every increment lands either in this sum or in a later flush
+            long delta = entry.getValue().pending.sumThenReset();
+            if (delta != 0) {
+                rows.add(new Object[] { entry.getKey(), delta, now });
+                flushed.add(entry.getValue());
+            }
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        try {
+            // one transaction, so a failed batch leaves no row half applied
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_DELTA, rows));
+        } catch (DataAccessException e) {
+            // put the deltas back for the next flush
+            for (int i = 0; i < rows.size(); i++) {
+                flushed.get(i).pending.add((Long) rows.get(i)[1]);
+            }
+            logger.warn("Favorite counter flush failed, {} recipes kept for retry: {}", rows.size(), e.getMessage());
+            return 0;
+        }
+        flushes.incrementAndGet();
+        rowsFlushed.addAndGet(rows.size());
+        return rows.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recipes", counters.size());
+        stats.put("flushes", flushes.get());
+        stats.put("rowsFlushed", rowsFlushed.get());
+        return stats;
+    }
+}
@@ -1,24 +1,184 @@
 package com.appdevg5.ghidorakings.service;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import com.appdevg5.ghidorakings.dto.CursorPage;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
 import com.appdevg5.ghidorakings.entity.FavoriteEntity;
 import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class FavoriteService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FavoriteService.class);
+
     @Autowired
     FavoriteRepository favoriteRepository;
 
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    FavoriteBitmaps favoriteBitmaps;
+
+    @Autowired
+    FavoriteCounters favoriteCounters;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    IngredientService ingredientService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("${recipe.page.default-size:20}")
+    int defaultPageSize = 20;
+
+    @Value("${recipe.page.max-size:100}")
+    int maxPageSize = 100;
+
+    private static final String UNIQUE_FAVORITES = "uk_favorite_user_recipe";
+
+    // MySQL's ER_DUP_KEYNAME, raised when another instance added the constraint first
+    private static final int DUPLICATE_KEY_NAME = 1061;
+
+    /**
+     * The schema update cannot add uk_favorite_user_recipe while duplicate
+     * rows exist, so keep the oldest row of each (user, recipe) pair and add
+     * the constraint here. Runs once: later starts find the constraint in
+     * information_schema and skip both statements.
+     */
+    @PostConstruct
+    public void enforceUniqueFavorites() {
+        Integer present = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.table_constraints "
+                + "WHERE table_schema = DATABASE() AND table_name = 'favorite' AND constraint_name = ?",
+            Integer.class, UNIQUE_FAVORITES);
+        if (present != null && present > 0) {
+            return;
+        }
+        int removed = jdbcTemplate.update(
+            "DELETE FROM favorite WHERE favorite_id NOT IN ("
+                + "SELECT keep_id FROM (SELECT MIN(favorite_id) AS keep_id FROM favorite GROUP BY user_id, recipe_id) oldest)");
+        if (removed > 0) {
+            logger.info("Removed {} duplicate favorites", removed);
+        }
+        try {
+            jdbcTemplate.execute("ALTER TABLE favorite ADD CONSTRAINT " + UNIQUE_FAVORITES + " UNIQUE (user_id, recipe_id)");
+            logger.info("Added unique constraint {}", UNIQUE_FAVORITES);
+        } catch (DataAccessException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sql && sql.getErrorCode() == DUPLICATE_KEY_NAME) {
+                logger.info("Unique constraint {} was added concurrently", UNIQUE_FAVORITES);
+            } else {
+                logger.error("Could not add unique constraint {}", UNIQUE_FAVORITES, e);
+            }
+        }
+    }
+
+    // Favoriting a recipe twice returns the existing favorite
     public FavoriteEntity createFavorite(FavoriteEntity favorite) {
+        FavoriteEntity existing = favoriteRepository.findByUserIdAndRecipeId(favorite.getUserId(), favorite.getRecipeId()).orElse(null);
+        if (existing != null) {
+            return existing;
+        }
         // clear id so a new favorite is created instead of updating an existing one
         favorite.setFavoriteId(null);
-        return favoriteRepository.save(favorite);
+        FavoriteEntity saved;
+        try {
+            saved = favoriteRepository.save(favorite);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent request favorited it first
+            return favoriteRepository.findByUserIdAndRecipeId(favorite.getUserId(), favorite.getRecipeId()).orElseThrow(() -> e);
+        }
+        favoriteBitmaps.added(saved.getUserId(), saved.getRecipeId());
+        favoriteCounters.add(saved.getRecipeId(), 1);
+        eventPublisher.publishEvent(new RecipeActivityEvent(saved.getRecipeId(), saved.getUserId(), RecipeActivityEvent.Kind.FAVORITE));
+        return saved;
+    }
+
+    /**
+     * Makes the user's favorite state for a recipe match favorited. Safe to
+     * repeat: setting the state it already has changes nothing.
+     */
+    public boolean setFavorite(Integer userId, Integer recipeId, boolean favorited) {
+        if (recipeId == null) {
+            throw new IllegalArgumentException("recipeId is required");
+        }
+        if (favorited) {
+            if (!recipeRepository.existsById(recipeId)) {
+                throw new NoSuchElementException("Recipe with ID " + recipeId + " not found.");
+            }
+            FavoriteEntity favorite = new FavoriteEntity();
+            favorite.setUserId(userId);
+            favorite.setRecipeId(recipeId);
+            createFavorite(favorite);
+        } else if (favoriteRepository.deleteByUserIdAndRecipeId(userId, recipeId) > 0) {
+            favoriteBitmaps.removed(userId, recipeId);
+            favoriteCounters.add(recipeId, -1);
+        }
+        return favorited;
+    }
+
+    /**
+     * Copies of the summaries carrying their favorite count and, when userId
+     * is given, whether that user favorited them. The originals may be
+     * shared by the caches and are left untouched.
+     */
+    public List<RecipeSummary> markFavorites(Integer userId, List<RecipeSummary> summaries) {
+        if (summaries == null) {
+            return null;
+        }
+        RoaringBitmap favorites = userId == null ? null : favoriteBitmaps.recipesOf(userId);
+        List<RecipeSummary> marked = new ArrayList<>(summaries.size());
+        for (RecipeSummary summary : summaries) {
+            Integer recipeId = summary.getRecipeId();
+            Boolean favorited = favorites == null ? null : recipeId != null && favorites.contains(recipeId);
+            marked.add(summary.withFavorites(favorited, favoriteCounters.getFavoriteCount(recipeId)));
+        }
+        return marked;
+    }
+
+    /**
+     * One page of the recipes a user favorited, most recently favorited
+     * first. Favorites and recipe summaries come from a single join; the
+     * cursor is the favorite id the next page continues below.
+     */
+    public CursorPage<RecipeSummary> getFavoriteRecipesPage(Integer userId, String cursor, Integer size) {
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        int beforeFavoriteId = cursor == null || cursor.isEmpty() ? Integer.MAX_VALUE : CursorCodec.decodeInt(cursor);
+        List<Object[]> rows = recipeRepository.findFavoriteSummaries(userId, beforeFavoriteId, Limit.of(pageSize + 1));
+        boolean hasMore = rows.size() > pageSize;
+        List<Object[]> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
+
+        List<RecipeSummary> items = new ArrayList<>(pageRows.size());
+        for (Object[] row : pageRows) {
+            items.add((RecipeSummary) row[0]);
+        }
+        ingredientService.attachIngredientNames(items);
+        String nextCursor = hasMore ? CursorCodec.encode(pageRows.get(pageRows.size() - 1)[1]) : null;
+        return new CursorPage<>(items, nextCursor);
     }
 
     public List<FavoriteEntity> getAllFavorites() {
@@ -28,7 +188,7 @@ public class FavoriteService {
     public List<FavoriteEntity> getFavoritesByUserId(Integer userId) {
         return favoriteRepository.findByUserId(userId);
     }
-    
+
     // Get favorite by ID
     public FavoriteEntity getFavoriteById(int favoriteId) {
         return favoriteRepository.findById(favoriteId).orElse(null);
@@ -37,18 +197,41 @@ public class FavoriteService {
     public FavoriteEntity updateFavorite(int favoriteId, FavoriteEntity newFavoriteDetails) {
         try {
             FavoriteEntity fav = favoriteRepository.findById(favoriteId).orElseThrow(() -> new NoSuchElementException("Favorite with ID " + favoriteId + " not found."));
+            Integer previousUserId = fav.getUserId();
+            Integer previousRecipeId = fav.getRecipeId();
             // update ID fields if provided (non-null)
             if (newFavoriteDetails.getUserId() != null) fav.setUserId(newFavoriteDetails.getUserId());
             if (newFavoriteDetails.getRecipeId() != null) fav.setRecipeId(newFavoriteDetails.getRecipeId());
-            return favoriteRepository.save(fav);
+            // the pair is unique, so it cannot take over another favorite's (user, recipe)
+            FavoriteEntity clash = favoriteRepository.findByUserIdAndRecipeId(fav.getUserId(), fav.getRecipeId()).orElse(null);
+            if (clash != null && !clash.getFavoriteId().equals(favoriteId)) {
+                throw new DuplicateFavoriteException(fav.getUserId(), fav.getRecipeId());
+            }
+            FavoriteEntity saved;
+            try {
+                saved = favoriteRepository.save(fav);
+            } catch (DataIntegrityViolationException e) {
+                // a concurrent request took the pair first
+                throw new DuplicateFavoriteException(fav.getUserId(), fav.getRecipeId());
+            }
+            favoriteBitmaps.evict(previousUserId);
+            favoriteBitmaps.evict(saved.getUserId());
+            if (!Objects.equals(previousRecipeId, saved.getRecipeId())) {
+                favoriteCounters.add(previousRecipeId, -1);
+                favoriteCounters.add(saved.getRecipeId(), 1);
+            }
+            return saved;
         } catch (NoSuchElementException e) {
             throw e;
         }
     }
 
     public String deleteFavorite(int favoriteId) {
-        if (favoriteRepository.findById(favoriteId).isPresent()) {
+        FavoriteEntity existing = favoriteRepository.findById(favoriteId).orElse(null);
+        if (existing != null) {
             favoriteRepository.deleteById(favoriteId);
+            favoriteBitmaps.removed(existing.getUserId(), existing.getRecipeId());
+            favoriteCounters.add(existing.getRecipeId(), -1);
             return "Favorite with ID " + favoriteId + " has been deleted.";
         } else {
             return "Favorite with ID " + favoriteId + " not found.";
@@ -0,0 +1,35 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Content-addressed storage for recipe images. Keys are the lowercase hex
+ * SHA-256 of the bytes, so identical uploads share a single stored copy and
+ * a key never points at different content.
+ */
+public interface ImageStore {
+
+    // Stores the bytes (if not already present) and returns their SHA-256 key
+    String store(byte[] data) throws IOException;
+
+    boolean exists(String key);
+
+    // Opens a read-only channel positioned at the start of the stored bytes
+    FileChannel open(String key) throws IOException;
+
+    // Derived renditions (e.g. thumbnails) stored next to the original under the same key
+    void storeVariant(String key, String variant, byte[] data) throws IOException;
+
+    boolean variantExists(String key, String variant);
+
+    FileChannel openVariant(String key, String variant) throws IOException;
+
+    static boolean isValidKey(String key) {
+        return key != null && key.matches("[0-9a-f]{64}");
+    }
+
+    static boolean isValidVariant(String variant) {
+        return variant != null && variant.matches("[a-z0-9]{1,16}");
+    }
+}
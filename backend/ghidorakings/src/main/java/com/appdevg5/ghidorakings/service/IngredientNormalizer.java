@@ -0,0 +1,84 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reduces free-form ingredient names to a canonical dictionary form, so
+ * "2 cloves Garlic, minced", "garlic" and "Garlic (fresh)" all map to
+ * "garlic". Quantities, units and preparation words are dropped, each
+ * remaining word goes through the same stemmer as recipe search, and known
+ * synonyms ("scallion", "bawang") fold onto one canonical name.
+ */
+public final class IngredientNormalizer {
+
+    private static final Set<String> NOISE_WORDS = Set.of(
+        "a", "an", "and", "of", "or", "to", "taste", "optional",
+        "cup", "tbsp", "tsp", "tablespoon", "teaspoon", "g", "gram", "kg", "kilo", "mg", "ml", "l", "liter", "litre",
+        "lb", "pound", "oz", "ounce", "clove", "pinch", "dash", "piece", "pc", "pcs", "can", "pack", "packet", "bunch",
+        "chopped", "minced", "diced", "sliced", "crushed", "grated", "ground", "peeled", "fresh", "large", "medium", "small");
+
+    // Synonyms and local names folded onto one canonical term, written in plain words
+    private static final Map<String, String> ALIAS_WORDS = Map.ofEntries(
+        Map.entry("scallion", "green onion"),
+        Map.entry("spring onion", "green onion"),
+        Map.entry("sibuyas", "onion"),
+        Map.entry("bawang", "garlic"),
+        Map.entry("kamatis", "tomato"),
+        Map.entry("luya", "ginger"),
+        Map.entry("toyo", "soy sauce"),
+        Map.entry("suka", "vinegar"),
+        Map.entry("kalamansi", "calamansi"),
+        Map.entry("talong", "eggplant"),
+        Map.entry("aubergine", "eggplant"),
+        Map.entry("capsicum", "bell pepper"),
+        Map.entry("cilantro", "coriander"),
+        Map.entry("gata", "coconut milk"));
+
+    // ALIAS_WORDS with both sides run through the same stemming as the input
+    private static final Map<String, String> ALIASES = new HashMap<>();
+
+    static {
+        ALIAS_WORDS.forEach((alias, canonical) -> ALIASES.put(stemWords(alias), stemWords(canonical)));
+    }
+
+    private IngredientNormalizer() {}
+
+    // Returns null when nothing but quantities and units is left
+    public static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String lower = name.toLowerCase(Locale.ROOT).replaceAll("\\(.*?\\)", " ");
+        int comma = lower.indexOf(',');
+        if (comma >= 0) {
+            // "garlic, minced": anything after the comma is preparation
+            lower = lower.substring(0, comma);
+        }
+        String result = stemWords(lower);
+        return result == null ? null : ALIASES.getOrDefault(result, result);
+    }
+
+    private static String stemWords(String lower) {
+        StringBuilder normalized = new StringBuilder();
+        for (String token : lower.split("[^\\p{L}]+")) {
+            if (token.isEmpty() || NOISE_WORDS.contains(token)) {
+                continue;
+            }
+            String stem = SearchAnalyzer.stem(token);
+            if (NOISE_WORDS.contains(stem)) {
+                continue;
+            }
+            if (normalized.length() > 0) {
+                normalized.append(' ');
+            }
+            normalized.append(stem);
+        }
+        if (normalized.length() == 0) {
+            return null;
+        }
+        return normalized.toString();
+    }
+}
@@ -1,15 +1,22 @@
 package com.appdevg5.ghidorakings.service;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
 import com.appdevg5.ghidorakings.entity.IngredientEntity;
 import com.appdevg5.ghidorakings.repository.IngredientRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
 
 @Service
 public class IngredientService {
@@ -17,11 +24,23 @@ public class IngredientService {
     @Autowired
     private IngredientRepository ingredientRepository; // define repository here
 
+    @Autowired
+    private RecipeRepository recipeRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private IngredientTermService ingredientTermService;
+
     // CREATE
     public IngredientEntity createIngredient(IngredientEntity ingredient) {
         // ensure new insert by clearing id if client provided one
         ingredient.setIngredientId(null);
-        return ingredientRepository.save(ingredient);
+        ingredient.setTermId(ingredientTermService.resolve(ingredient.getName()));
+        IngredientEntity saved = ingredientRepository.save(ingredient);
+        publishRecipeChanged(saved.getRecipeId());
+        return saved;
     }
 
     // READ ALL
@@ -39,10 +58,16 @@ public class IngredientService {
         Optional<IngredientEntity> existing = ingredientRepository.findById(id);
         if (existing.isPresent()) {
             IngredientEntity ingredient = existing.get();
+            Integer previousRecipeId = ingredient.getRecipeId();
             ingredient.setName(updatedIngredient.getName());
+            ingredient.setTermId(ingredientTermService.resolve(updatedIngredient.getName()));
             ingredient.setQuantity(updatedIngredient.getQuantity());
             ingredient.setRecipeId(updatedIngredient.getRecipeId());
-            return ingredientRepository.save(ingredient);
+            IngredientEntity saved = ingredientRepository.save(ingredient);
+            // the ingredient may have moved between recipes, so both are stale
+            publishRecipeChanged(previousRecipeId);
+            publishRecipeChanged(saved.getRecipeId());
+            return saved;
         } else {
             return null;
         }
@@ -50,7 +75,9 @@ public class IngredientService {
 
     // DELETE
     public void deleteIngredient(int id) {
+        Integer recipeId = ingredientRepository.findById(id).map(IngredientEntity::getRecipeId).orElse(null);
         ingredientRepository.deleteById(id);
+        publishRecipeChanged(recipeId);
     }
 
     public List<IngredientEntity> findByRecipeId(Integer recipeId) {
@@ -60,7 +87,45 @@ public class IngredientService {
         return ingredientRepository.findByRecipeId(recipeId);
     }
 
+    // Load ingredients for many recipes with a single IN query, grouped by recipeId
+    public Map<Integer, List<IngredientEntity>> findByRecipeIds(Collection<Integer> recipeIds) {
+        if (recipeIds == null || recipeIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Integer, List<IngredientEntity>> byRecipe = new HashMap<>();
+        for (IngredientEntity ingredient : ingredientRepository.findByRecipeIdIn(recipeIds)) {
+            byRecipe.computeIfAbsent(ingredient.getRecipeId(), id -> new ArrayList<>()).add(ingredient);
+        }
+        return byRecipe;
+    }
+
+    // Sets each summary's ingredient names from one batched findByRecipeIds; recipes without rows get an empty list
+    public void attachIngredientNames(Collection<RecipeSummary> summaries) {
+        if (summaries == null || summaries.isEmpty()) {
+            return;
+        }
+        List<Integer> recipeIds = new ArrayList<>(summaries.size());
+        for (RecipeSummary summary : summaries) {
+            recipeIds.add(summary.getRecipeId());
+        }
+        Map<Integer, List<IngredientEntity>> byRecipe = findByRecipeIds(recipeIds);
+        for (RecipeSummary summary : summaries) {
+            List<IngredientEntity> rows = byRecipe.getOrDefault(summary.getRecipeId(), Collections.emptyList());
+            List<String> names = new ArrayList<>(rows.size());
+            for (IngredientEntity ingredient : rows) {
+                names.add(ingredient.getName());
+            }
+            summary.setIngredientNames(names);
+        }
+    }
+
     public List<IngredientEntity> replaceIngredientsForRecipe(Integer recipeId, List<IngredientEntity> ingredients) {
+        return replaceIngredientsForRecipe(recipeId, ingredients, true);
+    }
+
+    // RecipeService passes publish=false and publishes once after saving the recipe row itself
+    public List<IngredientEntity> replaceIngredientsForRecipe(Integer recipeId, List<IngredientEntity> ingredients,
+                                                              boolean publish) {
         if (recipeId == null) {
             return Collections.emptyList();
         }
@@ -73,6 +138,7 @@ public class IngredientService {
         }
         
         if (ingredients == null || ingredients.isEmpty()) {
+            touchRecipe(recipeId, publish);
             return Collections.emptyList();
         }
 
@@ -88,15 +154,33 @@ public class IngredientService {
             IngredientEntity copy = new IngredientEntity();
             copy.setIngredientId(null);
             copy.setName(name.trim());
+            copy.setTermId(ingredientTermService.resolve(name));
             copy.setQuantity(ing.getQuantity() != null ? ing.getQuantity().trim() : "");
             copy.setRecipeId(recipeId);
             toSave.add(copy);
         }
 
         if (toSave.isEmpty()) {
+            touchRecipe(recipeId, publish);
             return Collections.emptyList();
         }
 
-        return ingredientRepository.saveAll(toSave);
+        List<IngredientEntity> saved = ingredientRepository.saveAll(toSave);
+        touchRecipe(recipeId, publish);
+        return saved;
+    }
+
+    private void publishRecipeChanged(Integer recipeId) {
+        touchRecipe(recipeId, true);
+    }
+
+    // Ingredient rows are part of the recipe payload, so the recipe's updated_at moves with them
+    private void touchRecipe(Integer recipeId, boolean publish) {
+        if (recipeId != null) {
+            recipeRepository.touch(recipeId, LocalDateTime.now());
+            if (publish) {
+                eventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
+            }
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.appdevg5.ghidorakings.repository.IngredientRepository;
+import com.appdevg5.ghidorakings.repository.IngredientRepository.NameUsage;
+
+/**
+ * Ingredient typeahead. A SuggestTrie keyed on distinct normalized
+ * ingredient names, weighted by how many ingredient rows use them and
+ * showing each name's most used spelling, is rebuilt in the background and
+ * swapped in atomically; readers never wait on a rebuild.
+ */
+@Service
+public class IngredientSuggester {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngredientSuggester.class);
+
+    // Completions precomputed per trie node; also the largest limit a caller can ask for
+    public static final int MAX_SUGGESTIONS = 10;
+
+    @Autowired
+    IngredientRepository ingredientRepository;
+
+    private final AtomicReference<SuggestTrie> trie = new AtomicReference<>(SuggestTrie.EMPTY);
+
+    // Usage totals keyed by normalized name, and the spelling each one is shown with
+    record Weights(Map<String, Long> totals, Map<String, String> displayNames) {}
+
+    /**
+     * Looks up the prefix as typed; the trie itself ignores case and folds
+     * whitespace, so this path allocates nothing but the result list. Only
+     * when that finds nothing is the prefix normalized ("Tomatoes" finds
+     * "tomato", "bawang" finds "garlic") and looked up again. That fallback
+     * still goes through IngredientNormalizer's regex and stemmer: it is
+     * the code that built the keys, and a char-by-char copy of it would
+     * drift from the write path.
+     */
+    public List<String> suggest(String prefix, int limit) {
+        SuggestTrie current = trie.get();
+        int max = Math.min(limit, MAX_SUGGESTIONS);
+        String raw = prefix == null ? "" : prefix;
+        List<String> asTyped = current.suggest(raw, max);
+        if (!asTyped.isEmpty()) {
+            return asTyped;
+        }
+        String normalized = IngredientNormalizer.normalize(raw);
+        return normalized == null ? asTyped : current.suggest(normalized, max);
+    }
+
+    // Runs once at startup and then after every interval
+    @Scheduled(fixedDelayString = "${ingredient.suggest.refresh-interval-ms:300000}")
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Weights weights = collectWeights(ingredientRepository.countByName());
+        SuggestTrie built = SuggestTrie.build(weights.totals(), weights.displayNames(), MAX_SUGGESTIONS);
+        trie.set(built);
+        logger.debug("Ingredient suggestions rebuilt: {} names, {} nodes in {} ms",
+            built.size(), built.nodeCount(), System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Groups raw names by IngredientNormalizer form and sums their usage.
+     * Each group is displayed with its most used spelling, so "Tomatoes",
+     * "tomato" and "2 Tomatoes, diced" become one suggestion.
+     */
+    static Weights collectWeights(List<NameUsage> usages) {
+        Map<String, Long> totalByKey = new HashMap<>();
+        Map<String, String> displayByKey = new HashMap<>();
+        Map<String, Long> displayUses = new HashMap<>();
+        for (NameUsage usage : usages) {
+            String key = IngredientNormalizer.normalize(usage.getName());
+            if (key == null) {
+                continue;
+            }
+            String display = usage.getName().trim().replaceAll("\\s+", " ");
+            totalByKey.merge(key, usage.getUses(), Long::sum);
+            String current = displayByKey.get(key);
+            if (current == null || usage.getUses() > displayUses.get(key)
+                    || (usage.getUses() == displayUses.get(key).longValue() && display.length() < current.length())) {
+                displayByKey.put(key, display);
+                displayUses.put(key, usage.getUses());
+            }
+        }
+        return new Weights(totalByKey, displayByKey);
+    }
+}
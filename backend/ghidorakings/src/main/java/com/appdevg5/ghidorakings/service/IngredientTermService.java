@@ -0,0 +1,151 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.appdevg5.ghidorakings.entity.IngredientTermEntity;
+import com.appdevg5.ghidorakings.repository.IngredientTermRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Interns ingredient names into the ingredient_term dictionary. Every term
+ * is cached in a concurrent name to id map (and its reverse) that is loaded
+ * once at startup; the table only ever grows, so lookups of known names
+ * never reach the database.
+ */
+@Service
+public class IngredientTermService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngredientTermService.class);
+
+    // ingredient_term.name column length
+    private static final int MAX_TERM_LENGTH = 191;
+
+    @Autowired
+    IngredientTermRepository ingredientTermRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Value("${ingredient.term.backfill.enabled:true}")
+    boolean backfillEnabled = true;
+
+    @Value("${ingredient.term.backfill.batch-size:500}")
+    int backfillBatchSize = 500;
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadTerms() {
+        for (IngredientTermEntity term : ingredientTermRepository.findAll()) {
+            remember(term.getName(), term.getTermId());
+        }
+        logger.info("Loaded {} ingredient terms", idsByName.size());
+    }
+
+    // Term id for a raw ingredient name, creating the term on first use; null if the name has no usable words
+    public Integer resolve(String rawName) {
+        String name = IngredientNormalizer.normalize(rawName);
+        if (name == null || name.length() > MAX_TERM_LENGTH) {
+            return null;
+        }
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        id = ingredientTermRepository.findByName(name).map(IngredientTermEntity::getTermId).orElse(null);
+        if (id == null) {
+            try {
+                id = ingredientTermRepository.save(new IngredientTermEntity(name)).getTermId();
+            } catch (DataIntegrityViolationException e) {
+                // another writer inserted the same term first
+                id = ingredientTermRepository.findByName(name).map(IngredientTermEntity::getTermId).orElseThrow(() -> e);
+            }
+        }
+        remember(name, id);
+        return id;
+    }
+
+    // Term id for a raw name if the term already exists; never writes
+    public Integer find(String rawName) {
+        String name = IngredientNormalizer.normalize(rawName);
+        return name == null ? null : idsByName.get(name);
+    }
+
+    public String nameOf(int termId) {
+        return namesById.get(termId);
+    }
+
+    public int size() {
+        return idsByName.size();
+    }
+
+    private void remember(String name, Integer id) {
+        idsByName.put(name, id);
+        namesById.put(id, name);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (!backfillEnabled) {
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                backfillTermIds();
+            } catch (Exception e) {
+                logger.error("Ingredient term backfill stopped", e);
+            }
+        }, "ingredient-term-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Walks ingredient rows without a term_id by ingredient_id; safe to rerun
+    public int backfillTermIds() {
+        int lastIngredientId = 0;
+        int updated = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                "SELECT ingredient_id, name FROM ingredient WHERE ingredient_id > ? AND term_id IS NULL "
+                    + "ORDER BY ingredient_id LIMIT ?",
+                (rs, rowNum) -> new Object[] { rs.getInt("ingredient_id"), rs.getString("name") },
+                lastIngredientId, backfillBatchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> updates = new ArrayList<>();
+            for (Object[] row : rows) {
+                lastIngredientId = (Integer) row[0];
+                Integer termId = resolve((String) row[1]);
+                if (termId != null) {
+                    updates.add(new Object[] { termId, row[0] });
+                }
+            }
+            if (!updates.isEmpty()) {
+                // term_id IS NULL keeps a concurrent rename from being overwritten with a stale term
+                jdbcTemplate.batchUpdate("UPDATE ingredient SET term_id = ? WHERE ingredient_id = ? AND term_id IS NULL", updates);
+                updated += updates.size();
+            }
+        }
+        if (updated > 0) {
+            logger.info("Ingredient term backfill finished: {} rows linked to {} terms", updated, idsByName.size());
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,252 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.appdevg5.ghidorakings.dto.RankedRecipe;
+import com.appdevg5.ghidorakings.dto.RatingStats;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.repository.CommentRepository;
+import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.appdevg5.ghidorakings.repository.RatingRepository;
+import com.appdevg5.ghidorakings.repository.RecipeActivity;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Top-rated and trending leaderboards. Both are rebuilt on a schedule into
+ * immutable lists of at most {@code size} entries, so a request only copies
+ * a prefix of a list that is already ranked.
+ *
+ * Top ranks by Bayesian average: every recipe starts with priorVotes
+ * phantom ratings at the site-wide mean, so one 5-star vote cannot beat a
+ * recipe with hundreds of 4.8s.
+ *
+ * Trending sums exponentially decayed activity. Each recipe's score is
+ * kept relative to a reference time, where an event at time t adds
+ * weight * 2^((t - reference) / halfLife). All scores share the same decay
+ * factor, so ranking needs no per-request decay and new activity is an
+ * O(1) addition; the reference is moved forward on every refresh to keep
+ * the numbers small.
+ *
+ * A user's ratings and favorites of one recipe count once per seed window,
+ * so re-rating or toggling a favorite cannot push a recipe up. Seeding
+ * applies the same rule to the rows it loads.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardService.class);
+
+    private static final Map<RecipeActivityEvent.Kind, Double> WEIGHTS = Map.of(
+        RecipeActivityEvent.Kind.RATING, 3.0,
+        RecipeActivityEvent.Kind.FAVORITE, 2.0,
+        RecipeActivityEvent.Kind.COMMENT, 1.0);
+
+    // Activity older than this many half-lives is below 1% of a fresh event and is not loaded
+    private static final int SEED_HALF_LIVES = 7;
+
+    @Autowired
+    RatingStatsService ratingStatsService;
+
+    @Autowired
+    RecipeRepository recipeRepository;
+
+    @Autowired
+    IngredientService ingredientService;
+
+    @Autowired
+    RatingRepository ratingRepository;
+
+    @Autowired
+    CommentRepository commentRepository;
+
+    @Autowired
+    FavoriteRepository favoriteRepository;
+
+    @Value("${recipe.leaderboard.size:50}")
+    int size = 50;
+
+    @Value("${recipe.leaderboard.default-limit:10}")
+    int defaultLimit = 10;
+
+    @Value("${recipe.top.prior-votes:10}")
+    double priorVotes = 10;
+
+    @Value("${recipe.trending.half-life:24h}")
+    Duration halfLife = Duration.ofHours(24);
+
+    private final AtomicReference<List<RankedRecipe>> top = new AtomicReference<>(List.of());
+    private final AtomicReference<List<RankedRecipe>> trending = new AtomicReference<>(List.of());
+
+    // Guarded by this
+    private final Map<Integer, Double> trendScores = new HashMap<>();
+    private final Map<CountedPair, Long> countedAt = new HashMap<>();
+    private long referenceMillis = System.currentTimeMillis();
+
+    private record CountedPair(RecipeActivityEvent.Kind kind, Integer userId, Integer recipeId) {}
+
+    @PostConstruct
+    public void seedTrending() {
+        LocalDateTime since = LocalDateTime.now().minus(halfLife.multipliedBy(SEED_HALF_LIVES));
+        seed(ratingRepository.findActivitySince(since), RecipeActivityEvent.Kind.RATING);
+        seed(commentRepository.findActivitySince(since), RecipeActivityEvent.Kind.COMMENT);
+        seed(favoriteRepository.findActivitySince(since), RecipeActivityEvent.Kind.FAVORITE);
+    }
+
+    private void seed(List<RecipeActivity> activity, RecipeActivityEvent.Kind kind) {
+        for (RecipeActivity row : activity) {
+            if (row.getRecipeId() != null && row.getAt() != null) {
+                record(row.getRecipeId(), row.getUserId(), kind, row.getAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+        }
+    }
+
+    public List<RankedRecipe> getTop(Integer limit) {
+        return prefix(top.get(), limit);
+    }
+
+    public List<RankedRecipe> getTrending(Integer limit) {
+        return prefix(trending.get(), limit);
+    }
+
+    private List<RankedRecipe> prefix(List<RankedRecipe> board, Integer requested) {
+        if (requested != null && requested <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int limit = Math.min(requested == null ? defaultLimit : requested, size);
+        return board.size() <= limit ? board : board.subList(0, limit);
+    }
+
+    // Counted once the rating or favorite commits
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecipeActivity(RecipeActivityEvent event) {
+        record(event.getRecipeId(), event.getUserId(), event.getKind(), System.currentTimeMillis());
+    }
+
+    // Every comment is new content, so comments are not deduplicated per user
+    @EventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        if (CommentChangedEvent.CREATED.equals(event.getType())) {
+            record(event.getComment().getRecipeId(), null, RecipeActivityEvent.Kind.COMMENT, System.currentTimeMillis());
+        }
+    }
+
+    synchronized void record(Integer recipeId, Integer userId, RecipeActivityEvent.Kind kind, long atMillis) {
+        if (recipeId == null) {
+            return;
+        }
+        if (kind != RecipeActivityEvent.Kind.COMMENT && userId != null
+                && countedAt.putIfAbsent(new CountedPair(kind, userId, recipeId), atMillis) != null) {
+            return;
+        }
+        double weight = WEIGHTS.get(kind) * Math.pow(2, (atMillis - referenceMillis) / (double) halfLife.toMillis());
+        trendScores.merge(recipeId, weight, Double::sum);
+    }
+
+    // Runs once at startup and then after every interval
+    @Scheduled(fixedDelayString = "${recipe.leaderboard.refresh-interval-ms:60000}")
+    public void refresh() {
+        long started = System.currentTimeMillis();
+        top.set(rank(bayesianScores()));
+        trending.set(rank(rebasedTrendScores()));
+        logger.debug("Leaderboards refreshed in {} ms", System.currentTimeMillis() - started);
+    }
+
+    private Map<Integer, Double> bayesianScores() {
+        Collection<RatingStats> all = ratingStatsService.getAllStats();
+        long votes = 0;
+        long sum = 0;
+        for (RatingStats stats : all) {
+            votes += stats.getCount();
+            sum += stats.getSum();
+        }
+        if (votes == 0) {
+            return Map.of();
+        }
+        double mean = (double) sum / votes;
+        Map<Integer, Double> scores = new HashMap<>();
+        for (RatingStats stats : all) {
+            if (stats.getCount() > 0) {
+                scores.put(stats.getRecipeId(), (priorVotes * mean + stats.getSum()) / (priorVotes + stats.getCount()));
+            }
+        }
+        return scores;
+    }
+
+    // Moves the reference time to now and returns the current decayed scores
+    private synchronized Map<Integer, Double> rebasedTrendScores() {
+        long now = System.currentTimeMillis();
+        double factor = Math.pow(2, -(now - referenceMillis) / (double) halfLife.toMillis());
+        referenceMillis = now;
+        trendScores.replaceAll((recipeId, score) -> score * factor);
+        // below one rating's weight after ~10 half-lives; nothing left worth ranking
+        trendScores.values().removeIf(score -> score < 1e-3);
+        // pairs older than the seed window would not be seen again after a restart either
+        long seedWindowStart = now - halfLife.toMillis() * SEED_HALF_LIVES;
+        countedAt.values().removeIf(at -> at < seedWindowStart);
+        return new HashMap<>(trendScores);
+    }
+
+    /**
+     * Highest scoring approved recipes, best first. A bounded min-heap keeps
+     * the selection O(n log k); a few extra candidates cover recipes that
+     * turn out to be unapproved or deleted.
+     */
+    private List<RankedRecipe> rank(Map<Integer, Double> scores) {
+        int candidates = size * 2;
+        Comparator<Map.Entry<Integer, Double>> byScore = Map.Entry.<Integer, Double>comparingByValue()
+            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder()));
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(candidates + 1, byScore);
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > candidates) {
+                heap.poll();
+            }
+        }
+        List<Map.Entry<Integer, Double>> best = new ArrayList<>(heap);
+        best.sort(byScore.reversed());
+        if (best.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> recipeIds = best.stream().map(Map.Entry::getKey).collect(Collectors.toList());
+        Map<Integer, RecipeSummary> summaries = recipeRepository.findApprovedSummariesByIdIn(recipeIds).stream()
+            .collect(Collectors.toMap(RecipeSummary::getRecipeId, Function.identity()));
+        ingredientService.attachIngredientNames(summaries.values());
+
+        List<RankedRecipe> board = new ArrayList<>(size);
+        for (Map.Entry<Integer, Double> entry : best) {
+            RecipeSummary summary = summaries.get(entry.getKey());
+            if (summary == null) {
+                continue;
+            }
+            board.add(new RankedRecipe(summary, entry.getValue()));
+            if (board.size() == size) {
+                break;
+            }
+        }
+        return List.copyOf(board);
+    }
+}
@@ -0,0 +1,222 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Moves ingredients still stored in the legacy recipe.ingredients TEXT
+ * column into ingredient rows. Each batch inserts the rows and clears the
+ * column in one transaction, so an interrupted run simply resumes with the
+ * recipes that still have the column set.
+ */
+@Service
+public class LegacyIngredientMigrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyIngredientMigrator.class);
+
+    // ingredient.name and ingredient.quantity column length
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    IngredientTermService ingredientTermService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("${ingredient.migration.enabled:true}")
+    boolean migrationEnabled = true;
+
+    @Value("${ingredient.migration.batch-size:200}")
+    int migrationBatchSize = 200;
+
+    private final AtomicInteger recipesMigrated = new AtomicInteger();
+    private final AtomicInteger ingredientsWritten = new AtomicInteger();
+    // recipes that already had ingredient rows; only their legacy column is cleared
+    private final AtomicInteger recipesCleared = new AtomicInteger();
+    private volatile String state = "idle";
+    private volatile int lastRecipeId;
+
+    // What one batch wrote; only counted once its transaction has committed
+    private record BatchResult(List<Integer> recipeIds, int migrated, int cleared, int ingredients) {}
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMigration() {
+        if (!migrationEnabled) {
+            state = "disabled";
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                state = "failed";
+                logger.error("Legacy ingredient migration stopped at recipe {}", lastRecipeId, e);
+            }
+        }, "ingredient-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Walks recipes with a legacy ingredients column by recipe_id; safe to rerun
+    public int migrate() {
+        state = "running";
+        long started = System.currentTimeMillis();
+        int afterRecipeId = 0;
+        int migrated = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                "SELECT recipe_id, ingredients FROM recipe WHERE recipe_id > ? AND ingredients IS NOT NULL "
+                    + "ORDER BY recipe_id LIMIT ?",
+                (rs, rowNum) -> new Object[] { rs.getInt("recipe_id"), rs.getString("ingredients") },
+                afterRecipeId, migrationBatchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+            BatchResult batch = transactionTemplate.execute(status -> migrateBatch(rows));
+            recipesMigrated.addAndGet(batch.migrated());
+            recipesCleared.addAndGet(batch.cleared());
+            ingredientsWritten.addAndGet(batch.ingredients());
+            // cached recipes and the indexes only saw the legacy column until now
+            batch.recipeIds().forEach(recipeId -> eventPublisher.publishEvent(new RecipeChangedEvent(recipeId)));
+            migrated += batch.recipeIds().size();
+            afterRecipeId = (Integer) rows.get(rows.size() - 1)[0];
+            lastRecipeId = afterRecipeId;
+        }
+        state = "done";
+        if (migrated > 0) {
+            logger.info("Legacy ingredient migration finished: {} recipes, {} ingredients in {} ms",
+                migrated, ingredientsWritten.get(), System.currentTimeMillis() - started);
+        }
+        return migrated;
+    }
+
+    private BatchResult migrateBatch(List<Object[]> rows) {
+        List<Integer> recipeIds = rows.stream().map(row -> (Integer) row[0]).collect(Collectors.toList());
+        // lock the recipes first; one saved or migrated since the batch was read no longer has the column
+        Set<Integer> locked = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT recipe_id FROM recipe WHERE recipe_id IN (" + placeholders(recipeIds.size())
+                + ") AND ingredients IS NOT NULL FOR UPDATE",
+            Integer.class, recipeIds.toArray()));
+        if (locked.isEmpty()) {
+            return new BatchResult(List.of(), 0, 0, 0);
+        }
+        List<Integer> lockedIds = recipeIds.stream().filter(locked::contains).collect(Collectors.toList());
+        // rows written since the column was last read win over the legacy text
+        Set<Integer> haveRows = new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT DISTINCT recipe_id FROM ingredient WHERE recipe_id IN (" + placeholders(lockedIds.size()) + ")",
+            Integer.class, lockedIds.toArray()));
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> clears = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        int migrated = 0;
+        for (Object[] row : rows) {
+            Integer recipeId = (Integer) row[0];
+            if (!locked.contains(recipeId)) {
+                continue;
+            }
+            if (!haveRows.contains(recipeId)) {
+                for (String[] ingredient : parse((String) row[1])) {
+                    inserts.add(new Object[] { ingredient[0], ingredient[1], recipeId,
+                        ingredientTermService.resolve(ingredient[0]) });
+                }
+                migrated++;
+            }
+            clears.add(new Object[] { now, recipeId });
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO ingredient (name, quantity, recipe_id, term_id) VALUES (?, ?, ?, ?)", inserts);
+        }
+        jdbcTemplate.batchUpdate(
+            "UPDATE recipe SET ingredients = NULL, updated_at = ? WHERE recipe_id = ? AND ingredients IS NOT NULL", clears);
+        return new BatchResult(lockedIds, migrated, lockedIds.size() - migrated, inserts.size());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    // {name, quantity} pairs from a JSON array of strings or {name, quantity} objects
+    List<String[]> parse(String legacy) {
+        List<String[]> ingredients = new ArrayList<>();
+        JsonNode array;
+        try {
+            array = objectMapper.readTree(legacy);
+        } catch (JacksonException e) {
+            array = null;
+        }
+        if (array == null || !array.isArray()) {
+            // not valid JSON; read it the way RecipeEntity used to, as a comma separated list
+            String content = legacy.trim().replaceAll("^\\[|\\]$", "");
+            for (String part : content.split(",")) {
+                addIngredient(ingredients, part.trim().replaceAll("^\"|\"$", ""), "");
+            }
+            return ingredients;
+        }
+        for (JsonNode item : array) {
+            if (item.isObject()) {
+                JsonNode quantity = item.get("quantity");
+                addIngredient(ingredients, item.path("name").asString(""),
+                    quantity == null || quantity.isNull() ? "" : quantity.asString(""));
+            } else if (item.isValueNode()) {
+                addIngredient(ingredients, item.asString(""), "");
+            }
+        }
+        return ingredients;
+    }
+
+    private static void addIngredient(List<String[]> ingredients, String name, String quantity) {
+        name = name.trim();
+        if (name.isEmpty()) {
+            return;
+        }
+        ingredients.add(new String[] { truncate(name), truncate(quantity.trim()) });
+    }
+
+    private static String truncate(String value) {
+        return value.length() > MAX_COLUMN_LENGTH ? value.substring(0, MAX_COLUMN_LENGTH) : value;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state);
+        stats.put("recipesMigrated", recipesMigrated.get());
+        stats.put("recipesCleared", recipesCleared.get());
+        stats.put("ingredientsWritten", ingredientsWritten.get());
+        stats.put("lastRecipeId", lastRecipeId);
+        return stats;
+    }
+}
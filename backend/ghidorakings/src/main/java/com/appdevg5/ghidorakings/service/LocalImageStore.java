@@ -0,0 +1,99 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * ImageStore backed by the local filesystem. Files live under
+ * {image.store.root}/ab/cd/abcd... to keep directories small.
+ */
+@Service
+public class LocalImageStore implements ImageStore {
+
+    private final Path root;
+
+    public LocalImageStore(@Value("${image.store.root:uploads/images}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public String store(byte[] data) throws IOException {
+        String key = sha256(data);
+        Path target = resolve(key);
+        if (!Files.exists(target)) {
+            writeAtomically(target, data);
+        }
+        return key;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return ImageStore.isValidKey(key) && Files.isRegularFile(resolve(key));
+    }
+
+    @Override
+    public FileChannel open(String key) throws IOException {
+        if (!ImageStore.isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid image key");
+        }
+        return FileChannel.open(resolve(key), StandardOpenOption.READ);
+    }
+
+    @Override
+    public void storeVariant(String key, String variant, byte[] data) throws IOException {
+        writeAtomically(resolveVariant(key, variant), data);
+    }
+
+    @Override
+    public boolean variantExists(String key, String variant) {
+        return ImageStore.isValidKey(key) && ImageStore.isValidVariant(variant)
+            && Files.isRegularFile(resolveVariant(key, variant));
+    }
+
+    @Override
+    public FileChannel openVariant(String key, String variant) throws IOException {
+        return FileChannel.open(resolveVariant(key, variant), StandardOpenOption.READ);
+    }
+
+    // Write to a temp file first so readers never see a partially written image
+    private void writeAtomically(Path target, byte[] data) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temp, data);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private Path resolveVariant(String key, String variant) {
+        if (!ImageStore.isValidKey(key) || !ImageStore.isValidVariant(variant)) {
+            throw new IllegalArgumentException("Invalid image key");
+        }
+        return resolve(key).resolveSibling(key + "." + variant);
+    }
+
+    private Path resolve(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.appdevg5.ghidorakings.service;
+
+/**
+ * Turns the optional size parameter of a paged endpoint into the number of
+ * items to return, the same way for every list.
+ */
+public final class PageSizes {
+
+    private PageSizes() {}
+
+    // Missing means the default; anything above maxSize is capped rather than rejected
+    public static int resolve(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null) {
+            return Math.min(defaultSize, maxSize);
+        }
+        if (requested <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(requested, maxSize);
+    }
+}
@@ -0,0 +1,199 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.appdevg5.ghidorakings.dto.PantryMatch;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+
+/**
+ * "What can I cook?" index. Every approved recipe is a RoaringBitmap of its
+ * ingredient_term ids, and each term keeps a bitmap of the recipes using it. Matching a pantry is an
+ * OR over the pantry's ingredients to find candidates, then one AND
+ * cardinality per candidate to count what is missing.
+ */
+@Component
+public class PantryIndex extends AbstractRecipeIndex {
+
+    private static final class Entry {
+        final RecipeSummary summary;
+        final RoaringBitmap ingredients;
+
+        Entry(RecipeSummary summary, RoaringBitmap ingredients) {
+            this.summary = summary;
+            this.ingredients = ingredients;
+        }
+    }
+
+    @Autowired
+    IngredientTermService ingredientTermService;
+
+    // Always assumed to be in the pantry, e.g. salt and water
+    @Value("${recipe.pantry.staples:salt,water}")
+    List<String> staples = List.of("salt", "water");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final Map<Integer, RoaringBitmap> recipesByTerm = new HashMap<>();
+    private final Map<Integer, Entry> recipes = new HashMap<>();
+
+    @Override
+    protected String indexName() {
+        return "pantry-index";
+    }
+
+    @Override
+    protected void indexBatch(List<RecipeSummary> batch) {
+        // resolve terms before taking the lock; resolving may insert a new term
+        List<RoaringBitmap> bitmaps = new ArrayList<>(batch.size());
+        for (RecipeSummary summary : batch) {
+            bitmaps.add(termBitmap(summary));
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                RecipeSummary summary = batch.get(i);
+                RoaringBitmap ingredients = bitmaps.get(i);
+                removeLocked(summary.getRecipeId());
+                if (ingredients.isEmpty()) {
+                    continue;
+                }
+                for (int termId : ingredients) {
+                    recipesByTerm.computeIfAbsent(termId, id -> new RoaringBitmap()).add(summary.getRecipeId());
+                }
+                recipes.put(summary.getRecipeId(), new Entry(summary, ingredients));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private RoaringBitmap termBitmap(RecipeSummary summary) {
+        RoaringBitmap ingredients = new RoaringBitmap();
+        List<String> names = summary.getIngredientNames();
+        List<Integer> termIds = summary.getIngredientTermIds();
+        for (int i = 0; i < names.size(); i++) {
+            Integer termId = termIds != null ? termIds.get(i) : null;
+            if (termId == null) {
+                // row not reached by the term backfill yet
+                termId = ingredientTermService.resolve(names.get(i));
+            }
+            if (termId != null) {
+                ingredients.add(termId);
+            }
+        }
+        ingredients.runOptimize();
+        return ingredients;
+    }
+
+    @Override
+    public void remove(Integer recipeId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(recipeId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Integer recipeId) {
+        Entry old = recipes.remove(recipeId);
+        if (old == null) {
+            return;
+        }
+        for (int termId : old.ingredients) {
+            RoaringBitmap users = recipesByTerm.get(termId);
+            users.remove(recipeId);
+            if (users.isEmpty()) {
+                recipesByTerm.remove(termId);
+            }
+        }
+    }
+
+    /**
+     * Recipes sharing at least one ingredient with the pantry and missing at
+     * most maxMissing, ordered fully cookable first, then by fewest missing,
+     * then by most pantry items used.
+     */
+    public List<PantryMatch> match(Collection<String> pantry, int maxMissing, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            // staples count towards coverage but never make a recipe a candidate on their own
+            RoaringBitmap have = new RoaringBitmap();
+            for (String staple : staples) {
+                Integer id = ingredientTermService.find(staple);
+                if (id != null) {
+                    have.add(id);
+                }
+            }
+            List<RoaringBitmap> usedBy = new ArrayList<>();
+            for (String name : pantry) {
+                Integer id = ingredientTermService.find(name);
+                if (id != null && !have.contains(id)) {
+                    have.add(id);
+                    RoaringBitmap users = recipesByTerm.get(id);
+                    if (users != null) {
+                        usedBy.add(users);
+                    }
+                }
+            }
+            if (usedBy.isEmpty()) {
+                return List.of();
+            }
+
+            RoaringBitmap candidates = FastAggregation.or(usedBy.iterator());
+            List<int[]> scored = new ArrayList<>();
+            for (int recipeId : candidates) {
+                Entry entry = recipes.get(recipeId);
+                int matched = RoaringBitmap.andCardinality(entry.ingredients, have);
+                int missing = entry.ingredients.getCardinality() - matched;
+                if (missing <= maxMissing) {
+                    scored.add(new int[] { recipeId, missing, matched });
+                }
+            }
+            scored.sort(Comparator.<int[]>comparingInt(row -> row[1])
+                .thenComparing(row -> row[2], Comparator.reverseOrder())
+                .thenComparingInt(row -> row[0]));
+
+            List<PantryMatch> page = new ArrayList<>();
+            for (int i = offset; i < scored.size() && page.size() < limit; i++) {
+                Entry entry = recipes.get(scored.get(i)[0]);
+                List<String> missing = new ArrayList<>();
+                for (int id : RoaringBitmap.andNot(entry.ingredients, have)) {
+                    missing.add(ingredientTermService.nameOf(id));
+                }
+                page.add(new PantryMatch(entry.summary, scored.get(i)[2], entry.ingredients.getCardinality(), missing));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("recipes", recipes.size());
+            stats.put("ingredients", recipesByTerm.size());
+            stats.put("building", isBuilding());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs BCrypt hashing and verification on a fixed pool sized to the CPU
+ * count, so a burst of logins cannot take every request thread's CPU.
+ * Callers wait for their result; once the bounded queue is full, or the
+ * wait exceeds max-wait, they get PasswordHashingBusyException (503)
+ * instead of queueing further. Giving up cancels the task, which only
+ * helps while it is still queued: a hash that has started keeps its
+ * worker until it completes.
+ */
+@Service
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    @Autowired
+    PasswordEncoder passwordEncoder;
+
+    // 0 means one thread per CPU core
+    @Value("${auth.bcrypt.threads:0}")
+    int threads = 0;
+
+    @Value("${auth.bcrypt.queue-capacity:64}")
+    int queueCapacity = 64;
+
+    @Value("${auth.bcrypt.max-wait:3s}")
+    Duration maxWait = Duration.ofSeconds(3);
+
+    @Value("${auth.bcrypt.retry-after-seconds:2}")
+    long retryAfterSeconds = 2;
+
+    @Value("${auth.bcrypt.strength:10}")
+    int strength = 10;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder rehashFailed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // True when the hash was made with a different BCrypt cost than auth.bcrypt.strength
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = encodedPassword == null ? null : BCRYPT_COST.matcher(encodedPassword);
+        return matcher != null && matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    // Hashes in the background for a login that found an outdated cost; skipped when busy
+    public void rehashInBackground(String rawPassword, Consumer<String> onHashed) {
+        try {
+            // nobody waits on the Future, so failures are logged here rather than left in it
+            submit(() -> {
+                try {
+                    onHashed.accept(passwordEncoder.encode(rawPassword));
+                    rehashed.increment();
+                } catch (RuntimeException e) {
+                    rehashFailed.increment();
+                    logger.warn("Background password rehash failed; the next login tries again", e);
+                }
+                return null;
+            });
+        } catch (PasswordHashingBusyException e) {
+            // the next login tries again
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> work) {
+        long queuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                waitNanos.add(startedAt - queuedAt);
+                try {
+                    return work.call();
+                } finally {
+                    long took = System.nanoTime() - startedAt;
+                    hashNanos.add(took);
+                    maxHashNanos.accumulateAndGet(took, Math::max);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // drops the task if still queued; BCrypt ignores interrupts, so a running one keeps its
+            // worker until it finishes and only the caller stops waiting
+            future.cancel(true);
+            timedOut.increment();
+            logger.warn("Password hashing waited over {} ms, answering busy", maxWait.toMillis());
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new PasswordHashingBusyException(retryAfterSeconds);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long done = completed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("rehashed", rehashed.sum());
+        stats.put("rehashFailed", rehashFailed.sum());
+        stats.put("avgQueueWaitMs", done == 0 ? 0.0 : waitNanos.sum() / 1e6 / done);
+        stats.put("avgHashMs", done == 0 ? 0.0 : hashNanos.sum() / 1e6 / done);
+        stats.put("maxHashMs", maxHashNanos.get() / 1e6);
+        return stats;
+    }
+}
@@ -0,0 +1,21 @@
+package com.appdevg5.ghidorakings.service;
+
+/**
+ * Thrown when PasswordHasher's pool cannot take more work. Answered with
+ * 503 and a Retry-After header.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(long retryAfterSeconds) {
+        super("Too many sign-in requests, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
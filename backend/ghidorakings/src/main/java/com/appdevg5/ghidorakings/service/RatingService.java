@@ -4,45 +4,98 @@ import java.util.List;
 import java.util.NoSuchElementException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
+import com.appdevg5.ghidorakings.dto.RatingStats;
 import com.appdevg5.ghidorakings.entity.RatingEntity;
 import com.appdevg5.ghidorakings.repository.RatingRepository;
 
 @Service
 public class RatingService {
 
+    // Largest page of recipe ids accepted by the bulk stats endpoint
+    private static final int MAX_STATS_BATCH = 100;
+
     @Autowired
     RatingRepository ratingRepository;
 
+    @Autowired
+    RatingStatsService ratingStatsService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    private static void validateScore(int score) {
+        if (!RatingStats.isValidScore(score)) {
+            throw new IllegalArgumentException("Score must be between " + RatingStats.MIN_SCORE + " and " + RatingStats.MAX_SCORE);
+        }
+    }
+
+    // The rating row and its recipe's stats delta commit together
+    @Transactional
     public RatingEntity createRating(RatingEntity rating) {
+        validateScore(rating.getScore());
         // clear id so a new rating is always created
         rating.setRatingId(null);
-        return ratingRepository.save(rating);
+        RatingEntity saved = ratingRepository.save(rating);
+        ratingStatsService.applyDelta(saved.getRecipeId(), null, saved.getScore());
+        eventPublisher.publishEvent(new RecipeActivityEvent(saved.getRecipeId(), saved.getUserId(), RecipeActivityEvent.Kind.RATING));
+        return saved;
     }
 
     public List<RatingEntity> getAllRatings() {
         return ratingRepository.findAll();
     }
+
+    // Cheap aggregate for conditional GETs on getAllRatings
+    public CollectionVersion getRatingsVersion() {
+        return ratingRepository.findVersion();
+    }
     
+    public RatingStats getRatingStats(Integer recipeId) {
+        return ratingStatsService.getStats(recipeId);
+    }
+
+    public List<RatingStats> getRatingStats(List<Integer> recipeIds) {
+        if (recipeIds == null || recipeIds.isEmpty()) {
+            throw new IllegalArgumentException("recipeIds must not be empty");
+        }
+        if (recipeIds.size() > MAX_STATS_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_STATS_BATCH + " recipeIds per request");
+        }
+        return ratingStatsService.getStats(recipeIds);
+    }
+
     // Get rating by ID
     public RatingEntity getRatingById(int ratingId) {
         return ratingRepository.findById(ratingId).orElse(null);
     }
 
+    @Transactional
     public RatingEntity updateRating(int ratingId, RatingEntity newRatingDetails) {
+        validateScore(newRatingDetails.getScore());
         try {
             RatingEntity rating = ratingRepository.findById(ratingId).orElseThrow(() -> new NoSuchElementException("Rating with ID " + ratingId + " not found."));
+            int previousScore = rating.getScore();
             rating.setScore(newRatingDetails.getScore());
-            return ratingRepository.save(rating);
+            RatingEntity saved = ratingRepository.save(rating);
+            // a changed score is not new activity for trending
+            ratingStatsService.applyDelta(saved.getRecipeId(), previousScore, saved.getScore());
+            return saved;
         } catch (NoSuchElementException e) {
             throw e;
         }
     }
 
+    @Transactional
     public String deleteRating(int ratingId) {
-        if (ratingRepository.findById(ratingId).isPresent()) {
+        RatingEntity existing = ratingRepository.findById(ratingId).orElse(null);
+        if (existing != null) {
             ratingRepository.deleteById(ratingId);
+            ratingStatsService.applyDelta(existing.getRecipeId(), existing.getScore(), null);
             return "Rating with ID " + ratingId + " has been deleted.";
         } else {
             return "Rating with ID " + ratingId + " not found.";
@@ -0,0 +1,232 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appdevg5.ghidorakings.dto.RatingStats;
+import com.appdevg5.ghidorakings.entity.RecipeRatingStatsEntity;
+import com.appdevg5.ghidorakings.repository.RatingRepository;
+import com.appdevg5.ghidorakings.repository.RatingRepository.ScoreCount;
+import com.appdevg5.ghidorakings.repository.RecipeRatingStatsRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Per-recipe rating count, sum and 1-5 histogram. Every rating write adds
+ * a delta to its recipe_rating_stats row with one atomic upsert inside the
+ * rating's transaction; the in-memory mirror that serves reads gets the
+ * same delta once that transaction commits. A scheduled reconciliation
+ * recomputes everything from the rating table to repair any drift.
+ *
+ * The mirror only ever receives additive changes, so deltas and
+ * reconciliation corrections commute no matter which after-commit
+ * callback runs first.
+ */
+@Service
+public class RatingStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingStatsService.class);
+
+    private static final String UPSERT_DELTA =
+        "INSERT INTO recipe_rating_stats (recipe_id, rating_count, score_sum, stars1, stars2, stars3, stars4, stars5, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+            + "rating_count = rating_count + VALUES(rating_count), score_sum = score_sum + VALUES(score_sum), "
+            + "stars1 = stars1 + VALUES(stars1), stars2 = stars2 + VALUES(stars2), stars3 = stars3 + VALUES(stars3), "
+            + "stars4 = stars4 + VALUES(stars4), stars5 = stars5 + VALUES(stars5), updated_at = VALUES(updated_at)";
+
+    private static final String SELECT_FOR_UPDATE =
+        "SELECT rating_count, score_sum, stars1, stars2, stars3, stars4, stars5 FROM recipe_rating_stats "
+            + "WHERE recipe_id = ? FOR UPDATE";
+
+    private static final String COUNT_RECIPE_SCORES =
+        "SELECT score, COUNT(*) AS ratings FROM rating WHERE recipe_id = ? AND score BETWEEN 1 AND 5 GROUP BY score";
+
+    private static final String OVERWRITE =
+        "UPDATE recipe_rating_stats SET rating_count = ?, score_sum = ?, stars1 = ?, stars2 = ?, stars3 = ?, "
+            + "stars4 = ?, stars5 = ?, updated_at = ? WHERE recipe_id = ?";
+
+    @Autowired
+    RecipeRatingStatsRepository recipeRatingStatsRepository;
+
+    @Autowired
+    RatingRepository ratingRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    // Recipes without ratings have no entry
+    private final Map<Integer, RatingStats> mirror = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void loadMirror() {
+        for (RecipeRatingStatsEntity row : recipeRatingStatsRepository.findAll()) {
+            mirror.put(row.getRecipeId(), new RatingStats(row.getRecipeId(), row.getRatingCount(), row.getScoreSum(), row.getHistogram()));
+        }
+    }
+
+    public RatingStats getStats(Integer recipeId) {
+        return mirror.getOrDefault(recipeId, RatingStats.empty(recipeId));
+    }
+
+    // Stats for each requested recipe, in request order
+    public List<RatingStats> getStats(Collection<Integer> recipeIds) {
+        List<RatingStats> stats = new ArrayList<>(recipeIds.size());
+        for (Integer recipeId : recipeIds) {
+            stats.add(getStats(recipeId));
+        }
+        return stats;
+    }
+
+    // Snapshot of every recipe that has at least one rating
+    public Collection<RatingStats> getAllStats() {
+        return new ArrayList<>(mirror.values());
+    }
+
+    /**
+     * Records that one rating of removeScore left and/or one of addScore
+     * arrived for a recipe (null for none). Must run in the transaction
+     * that writes the rating so both commit or roll back together.
+     */
+    public void applyDelta(Integer recipeId, Integer removeScore, Integer addScore) {
+        if (recipeId == null) {
+            return;
+        }
+        // scores outside 1-5 predate validation and are left out of the aggregate, as in reconcile()
+        Integer removed = removeScore != null && RatingStats.isValidScore(removeScore) ? removeScore : null;
+        Integer added = addScore != null && RatingStats.isValidScore(addScore) ? addScore : null;
+        if (removed == null && added == null || removed != null && removed.equals(added)) {
+            return;
+        }
+
+        RatingStats delta = RatingStats.empty(recipeId).apply(removed, added);
+        long[] histogram = delta.getHistogram();
+        jdbcTemplate.update(UPSERT_DELTA, recipeId, delta.getCount(), delta.getSum(),
+            histogram[0], histogram[1], histogram[2], histogram[3], histogram[4], LocalDateTime.now());
+
+        addToMirrorAfterCommit(delta);
+    }
+
+    private void addToMirrorAfterCommit(RatingStats change) {
+        Runnable addToMirror = () -> mirror.compute(change.getRecipeId(), (id, current) -> {
+            RatingStats next = (current == null ? RatingStats.empty(id) : current).plus(change);
+            return next.getCount() == 0 ? null : next;
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToMirror.run();
+                }
+            });
+        } else {
+            addToMirror.run();
+        }
+    }
+
+    /**
+     * Recomputes every recipe's stats from the rating table and repairs the
+     * rows that drifted. The unlocked bulk read only picks candidates; each
+     * one is then recounted and rewritten while holding its stats row lock,
+     * which rating writes need for their delta upsert, so no rating can
+     * commit between the recount and the repair. The mirror is shifted by
+     * the same correction after commit rather than overwritten.
+     */
+    @Scheduled(initialDelayString = "${rating.stats.reconcile-initial-delay-ms:600000}",
+        fixedDelayString = "${rating.stats.reconcile-interval-ms:3600000}")
+    public int reconcile() {
+        Map<Integer, long[]> histograms = new HashMap<>();
+        for (ScoreCount row : ratingRepository.countByRecipeAndScore()) {
+            histograms.computeIfAbsent(row.getRecipeId(), id -> new long[RatingStats.MAX_SCORE])[row.getScore() - 1] = row.getRatings();
+        }
+        Map<Integer, RatingStats> stored = new HashMap<>();
+        for (RecipeRatingStatsEntity row : recipeRatingStatsRepository.findAll()) {
+            stored.put(row.getRecipeId(), new RatingStats(row.getRecipeId(), row.getRatingCount(), row.getScoreSum(), row.getHistogram()));
+        }
+
+        Set<Integer> candidates = new LinkedHashSet<>();
+        histograms.forEach((recipeId, histogram) -> {
+            RatingStats current = stored.get(recipeId);
+            if (current == null || !current.sameCounts(fromHistogram(recipeId, histogram))) {
+                candidates.add(recipeId);
+            }
+        });
+        for (Integer recipeId : stored.keySet()) {
+            if (!histograms.containsKey(recipeId)) {
+                candidates.add(recipeId);
+            }
+        }
+
+        int repaired = 0;
+        for (Integer recipeId : candidates) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> repair(recipeId)))) {
+                repaired++;
+            }
+        }
+        if (repaired > 0) {
+            logger.info("Rating stats reconciled: {} of {} recipes repaired", repaired, histograms.size());
+        }
+        return repaired;
+    }
+
+    // Runs in its own transaction; false when the recipe turned out to be consistent after all
+    private boolean repair(Integer recipeId) {
+        List<RatingStats> locked = jdbcTemplate.query(SELECT_FOR_UPDATE, (rs, rowNum) -> new RatingStats(recipeId,
+            rs.getLong("rating_count"), rs.getLong("score_sum"), new long[] { rs.getLong("stars1"), rs.getLong("stars2"),
+                rs.getLong("stars3"), rs.getLong("stars4"), rs.getLong("stars5") }), recipeId);
+        RatingStats current = locked.isEmpty() ? RatingStats.empty(recipeId) : locked.get(0);
+
+        long[] histogram = new long[RatingStats.MAX_SCORE];
+        jdbcTemplate.query(COUNT_RECIPE_SCORES, (RowCallbackHandler) rs ->
+            histogram[rs.getInt("score") - 1] = rs.getLong("ratings"), recipeId);
+        RatingStats expected = fromHistogram(recipeId, histogram);
+        if (current.sameCounts(expected)) {
+            return false;
+        }
+
+        long[] h = expected.getHistogram();
+        LocalDateTime now = LocalDateTime.now();
+        if (expected.getCount() == 0) {
+            jdbcTemplate.update("DELETE FROM recipe_rating_stats WHERE recipe_id = ?", recipeId);
+        } else if (locked.isEmpty()) {
+            // upsert with the full counts as the "delta" of a missing row
+            jdbcTemplate.update(UPSERT_DELTA, recipeId, expected.getCount(), expected.getSum(),
+                h[0], h[1], h[2], h[3], h[4], now);
+        } else {
+            jdbcTemplate.update(OVERWRITE, expected.getCount(), expected.getSum(),
+                h[0], h[1], h[2], h[3], h[4], now, recipeId);
+        }
+        addToMirrorAfterCommit(expected.minus(current));
+        return true;
+    }
+
+    private static RatingStats fromHistogram(Integer recipeId, long[] histogram) {
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+        }
+        return new RatingStats(recipeId, count, sum, histogram);
+    }
+}
@@ -0,0 +1,33 @@
+package com.appdevg5.ghidorakings.service;
+
+/**
+ * Published when a user rates or favorites a recipe, so the trending
+ * leaderboard can count the activity the moment it happens. Only new
+ * ratings and favorites publish it, never edits.
+ */
+public class RecipeActivityEvent {
+
+    public enum Kind { RATING, FAVORITE, COMMENT }
+
+    private final Integer recipeId;
+    private final Integer userId;
+    private final Kind kind;
+
+    public RecipeActivityEvent(Integer recipeId, Integer userId, Kind kind) {
+        this.recipeId = recipeId;
+        this.userId = userId;
+        this.kind = kind;
+    }
+
+    public Integer getRecipeId() {
+        return recipeId;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+}
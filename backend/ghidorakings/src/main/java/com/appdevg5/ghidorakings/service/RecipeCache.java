@@ -0,0 +1,94 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.RecipeEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Bounded in-process cache for approved recipe reads. Entries are evicted
+ * on every RecipeChangedEvent, and size/TTL limits cap memory and staleness.
+ */
+@Component
+public class RecipeCache {
+
+    private static final String APPROVED_KEY = "approved";
+
+    private final Cache<Integer, RecipeEntity> recipesById;
+    private final Cache<String, List<RecipeSummary>> approvedList;
+
+    public RecipeCache(@Value("${recipe.cache.max-size:5000}") long maxSize,
+                       @Value("${recipe.cache.ttl:10m}") Duration ttl) {
+        this.recipesById = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.approvedList = Caffeine.newBuilder()
+            .maximumSize(1)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    // Loader results of null are not cached. The cached entity is fully loaded, legacy
+    // ingredients parsed, before it is published and never handed out: callers get a copy.
+    public RecipeEntity getRecipe(int recipeId, Function<Integer, RecipeEntity> loader) {
+        RecipeEntity cached = recipesById.get(recipeId, id -> {
+            RecipeEntity loaded = loader.apply(id);
+            if (loaded != null) {
+                loaded.getIngredients();
+            }
+            return loaded;
+        });
+        return cached == null ? null : cached.copy();
+    }
+
+    public List<RecipeSummary> getApprovedRecipes(Supplier<List<RecipeSummary>> loader) {
+        return approvedList.get(APPROVED_KEY, key -> loader.get());
+    }
+
+    // The approved list embeds every recipe, so any change invalidates it as well.
+    // invalidate(key), unlike invalidateAll(), waits for a load in flight and then
+    // discards it, so a list read before the change can never be stored after it.
+    public void evict(Integer recipeId) {
+        if (recipeId != null) {
+            recipesById.invalidate(recipeId);
+        }
+        approvedList.invalidate(APPROVED_KEY);
+    }
+
+    @EventListener
+    public void onRecipeChanged(RecipeChangedEvent event) {
+        evict(event.getRecipeId());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recipesById", describe(recipesById.stats(), recipesById.estimatedSize()));
+        stats.put("approvedList", describe(approvedList.stats(), approvedList.estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> describe(CacheStats stats, long size) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", size);
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.appdevg5.ghidorakings.service;
+
+/**
+ * Published after a recipe or its ingredients were written, so caches and
+ * in-memory indexes can refresh just that recipe.
+ */
+public class RecipeChangedEvent {
+
+    private final Integer recipeId;
+
+    public RecipeChangedEvent(Integer recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public Integer getRecipeId() {
+        return recipeId;
+    }
+}
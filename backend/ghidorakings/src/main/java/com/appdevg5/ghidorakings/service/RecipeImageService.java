@@ -0,0 +1,129 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.appdevg5.ghidorakings.entity.RecipeEntity;
+
+/**
+ * Moves recipe images out of the recipe.image LONGTEXT column and into the
+ * ImageStore, both for new uploads and, in the background, for legacy rows.
+ */
+@Service
+public class RecipeImageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecipeImageService.class);
+
+    @Autowired
+    ImageStore imageStore;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ThumbnailService thumbnailService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("${image.migration.enabled:true}")
+    boolean migrationEnabled = true;
+
+    @Value("${image.migration.batch-size:50}")
+    int migrationBatchSize = 50;
+
+    // Replaces an uploaded data URL with an ImageStore key and queues its thumbnails; external URLs are left as they are
+    public void externalizeImage(RecipeEntity recipe) {
+        if (recipe == null || !DataUrl.isDataUrl(recipe.getImage())) {
+            return;
+        }
+        DataUrl dataUrl = DataUrl.parse(recipe.getImage());
+        try {
+            String key = imageStore.store(dataUrl.getBytes());
+            recipe.setImageKey(key);
+            recipe.setImage(null);
+            thumbnailService.schedule(key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store recipe image", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLegacyImageMigration() {
+        if (!migrationEnabled) {
+            return;
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                migrateLegacyImages();
+            } catch (Exception e) {
+                logger.error("Legacy image migration stopped", e);
+            }
+        }, "image-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Walks recipes by recipe_id in batches; safe to rerun since migrated rows no longer match
+    public int migrateLegacyImages() {
+        int lastRecipeId = 0;
+        int migrated = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                "SELECT recipe_id, image FROM recipe WHERE recipe_id > ? AND image_key IS NULL AND image IS NOT NULL "
+                    + "ORDER BY recipe_id LIMIT ?",
+                (rs, rowNum) -> new Object[] { rs.getInt("recipe_id"), rs.getString("image") },
+                lastRecipeId, migrationBatchSize);
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> updates = new ArrayList<>();
+            for (Object[] row : rows) {
+                int recipeId = (Integer) row[0];
+                String image = (String) row[1];
+                lastRecipeId = recipeId;
+                if (!DataUrl.isDataUrl(image)) {
+                    continue;
+                }
+                try {
+                    String key = imageStore.store(DataUrl.parse(image).getBytes());
+                    updates.add(new Object[] { key, LocalDateTime.now(), recipeId });
+                    thumbnailService.schedule(key);
+                } catch (IllegalArgumentException | IOException e) {
+                    logger.warn("Skipping image migration for recipe {}: {}", recipeId, e.getMessage());
+                }
+            }
+
+            if (!updates.isEmpty()) {
+                // image_key IS NULL guards against overwriting an upload that happened meanwhile
+                jdbcTemplate.batchUpdate(
+                    "UPDATE recipe SET image_key = ?, image = NULL, updated_at = ? WHERE recipe_id = ? AND image_key IS NULL",
+                    updates);
+                // cached summaries still point at the legacy image URL
+                for (Object[] update : updates) {
+                    eventPublisher.publishEvent(new RecipeChangedEvent((Integer) update[2]));
+                }
+                migrated += updates.size();
+                logger.info("Migrated {} recipe images to the image store (up to recipe {})", migrated, lastRecipeId);
+            }
+        }
+        if (migrated > 0) {
+            logger.info("Legacy image migration finished: {} images moved", migrated);
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,255 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.repository.RecipeRepository.RecipeText;
+
+/**
+ * In-memory inverted index over approved recipes (title, description, steps
+ * and ingredient names) ranked with BM25. Each document keeps its
+ * RecipeSummary, so a search never touches the database.
+ */
+@Component
+public class RecipeSearchIndex extends AbstractRecipeIndex {
+
+    // BM25 parameters; the usual defaults
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    // A title or ingredient hit counts for more than one in the free text
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float INGREDIENT_WEIGHT = 2f;
+    private static final float TEXT_WEIGHT = 1f;
+
+    // Postings for one term: parallel arrays of document ordinals and weighted term frequencies
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] freqs = new float[4];
+        int size;
+
+        void add(int doc, float freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+
+        // Order inside a postings list does not matter, so removal swaps in the last entry
+        void remove(int doc) {
+            for (int i = 0; i < size; i++) {
+                if (docs[i] == doc) {
+                    size--;
+                    docs[i] = docs[size];
+                    freqs[i] = freqs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Integer, Integer> ordinalByRecipeId = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private RecipeSummary[] summaries = new RecipeSummary[1024];
+    private String[][] termsByDoc = new String[1024][];
+    private float[] docLengths = new float[1024];
+    private int nextOrdinal;
+    private double totalLength;
+
+    @Override
+    protected String indexName() {
+        return "recipe-search-index";
+    }
+
+    @Override
+    protected void indexBatch(List<RecipeSummary> batch) {
+        List<Integer> recipeIds = batch.stream().map(RecipeSummary::getRecipeId).collect(Collectors.toList());
+        Map<Integer, RecipeText> texts = new HashMap<>();
+        for (RecipeText text : recipeRepository.findTextByRecipeIdIn(recipeIds)) {
+            texts.put(text.getRecipeId(), text);
+        }
+
+        for (RecipeSummary summary : batch) {
+            Map<String, Float> freqs = new LinkedHashMap<>();
+            addField(freqs, summary.getTitle(), TITLE_WEIGHT);
+            summary.getIngredientNames().forEach(name -> addField(freqs, name, INGREDIENT_WEIGHT));
+            RecipeText text = texts.get(summary.getRecipeId());
+            if (text != null) {
+                addField(freqs, text.getDescription(), TEXT_WEIGHT);
+                addField(freqs, text.getSteps(), TEXT_WEIGHT);
+            }
+            put(summary, freqs);
+        }
+    }
+
+    private static void addField(Map<String, Float> freqs, String text, float weight) {
+        for (String term : SearchAnalyzer.analyze(text)) {
+            freqs.merge(term, weight, Float::sum);
+        }
+    }
+
+    private void put(RecipeSummary summary, Map<String, Float> freqs) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinalByRecipeId.get(summary.getRecipeId());
+            if (existing != null) {
+                removeOrdinal(existing);
+            }
+            int ordinal = freeOrdinals.isEmpty() ? nextOrdinal++ : freeOrdinals.pop();
+            ensureCapacity(ordinal + 1);
+
+            float length = 0;
+            for (Map.Entry<String, Float> entry : freqs.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(ordinal, entry.getValue());
+                length += entry.getValue();
+            }
+            summaries[ordinal] = summary;
+            termsByDoc[ordinal] = freqs.keySet().toArray(new String[0]);
+            docLengths[ordinal] = length;
+            totalLength += length;
+            ordinalByRecipeId.put(summary.getRecipeId(), ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(Integer recipeId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByRecipeId.get(recipeId);
+            if (ordinal != null) {
+                removeOrdinal(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeOrdinal(int ordinal) {
+        for (String term : termsByDoc[ordinal]) {
+            Postings list = postings.get(term);
+            list.remove(ordinal);
+            if (list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        ordinalByRecipeId.remove(summaries[ordinal].getRecipeId());
+        totalLength -= docLengths[ordinal];
+        summaries[ordinal] = null;
+        termsByDoc[ordinal] = null;
+        docLengths[ordinal] = 0;
+        freeOrdinals.push(ordinal);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= summaries.length) {
+            return;
+        }
+        int grown = Math.max(capacity, summaries.length * 2);
+        summaries = Arrays.copyOf(summaries, grown);
+        termsByDoc = Arrays.copyOf(termsByDoc, grown);
+        docLengths = Arrays.copyOf(docLengths, grown);
+    }
+
+    /**
+     * Returns up to limit summaries ranked by BM25 score, skipping the first
+     * offset hits. Ties are broken by recipeId so paging is stable.
+     */
+    public List<RecipeSummary> search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(SearchAnalyzer.analyze(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = ordinalByRecipeId.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            float avgLength = (float) (totalLength / docCount);
+            float[] scores = new float[nextOrdinal];
+            int[] matched = new int[nextOrdinal];
+            int matchedCount = 0;
+
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (docCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    float tf = list.freqs[i];
+                    float norm = K1 * (1 - B + B * docLengths[doc] / avgLength);
+                    if (scores[doc] == 0) {
+                        matched[matchedCount++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Min-heap holding the best offset + limit hits seen so far
+            int wanted = offset + limit;
+            Comparator<Integer> ranking = Comparator.<Integer>comparingDouble(doc -> scores[doc])
+                .thenComparing(doc -> summaries[doc].getRecipeId(), Comparator.reverseOrder());
+            PriorityQueue<Integer> top = new PriorityQueue<>(Math.min(wanted, matchedCount) + 1, ranking);
+            for (int i = 0; i < matchedCount; i++) {
+                int doc = matched[i];
+                if (top.size() < wanted) {
+                    top.add(doc);
+                } else if (ranking.compare(doc, top.peek()) > 0) {
+                    top.poll();
+                    top.add(doc);
+                }
+            }
+
+            List<Integer> ranked = new ArrayList<>(top);
+            ranked.sort(ranking.reversed());
+            List<RecipeSummary> page = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                page.add(summaries[ranked.get(i)]);
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("recipes", ordinalByRecipeId.size());
+            stats.put("terms", postings.size());
+            stats.put("building", isBuilding());
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -2,16 +2,35 @@ package com.appdevg5.ghidorakings.service;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.appdevg5.ghidorakings.dto.BrowseFilter;
+import com.appdevg5.ghidorakings.dto.BrowsePage;
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
+import com.appdevg5.ghidorakings.dto.CursorPage;
+import com.appdevg5.ghidorakings.dto.PantryMatch;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
 import com.appdevg5.ghidorakings.entity.IngredientEntity;
 import com.appdevg5.ghidorakings.entity.RecipeEntity;
 import com.appdevg5.ghidorakings.repository.RecipeRepository;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
 
 @Service
 
@@ -22,6 +41,59 @@ public class RecipeService {
     @Autowired
     IngredientService ingredientService;
 
+    @Autowired
+    RecipeImageService recipeImageService;
+
+    @Autowired
+    RecipeCache recipeCache;
+
+    @Autowired
+    RecipeSearchIndex recipeSearchIndex;
+
+    @Autowired
+    PantryIndex pantryIndex;
+
+    @Autowired
+    BrowseIndex browseIndex;
+
+    @Autowired
+    UserDirectory userDirectory;
+
+    @Autowired
+    SessionTokens sessionTokens;
+
+    @Autowired
+    FavoriteBitmaps favoriteBitmaps;
+
+    @Autowired
+    FavoriteCounters favoriteCounters;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    // Rows buffered per ingredient query while streaming
+    private static final int STREAM_CHUNK_SIZE = 100;
+
+    // Upper bound on recipe ids per ingredient IN query when loading the full approved list
+    private static final int INGREDIENT_BATCH_SIZE = 1000;
+
+    @Value("${recipe.page.default-size:20}")
+    int defaultPageSize = 20;
+
+    @Value("${recipe.page.max-size:100}")
+    int maxPageSize = 100;
+
+    // Largest number of ingredients accepted in one pantry query
+    private static final int MAX_PANTRY_SIZE = 200;
+
+    // Upper bound for the unpaged pending and per-user list endpoints
+    @Value("${recipe.list.max-results:1000}")
+    int listMaxResults = 1000;
+
+    // Callers publish the RecipeChangedEvent once the recipe row is saved too
     private void syncIngredients(RecipeEntity recipe, Integer recipeId) {
         if (recipe == null || recipeId == null) {
             return;
@@ -37,11 +109,11 @@ public class RecipeService {
             
             // Only sync if we have ingredients to process
             if (incoming != null && !incoming.isEmpty()) {
-                List<IngredientEntity> saved = ingredientService.replaceIngredientsForRecipe(recipeId, incoming);
+                List<IngredientEntity> saved = ingredientService.replaceIngredientsForRecipe(recipeId, incoming, false);
                 recipe.setIngredients(saved);
             } else if (incoming != null && incoming.isEmpty()) {
                 // Empty list means clear all ingredients
-                ingredientService.replaceIngredientsForRecipe(recipeId, new ArrayList<>());
+                ingredientService.replaceIngredientsForRecipe(recipeId, new ArrayList<>(), false);
                 recipe.setIngredients(new ArrayList<>());
             }
         } catch (Exception e) {
@@ -58,6 +130,24 @@ public class RecipeService {
         recipe.setIngredients(ingredients);
     }
 
+    // Hydrate a whole list with one ingredient query instead of one per recipe
+    private void attachIngredients(List<RecipeEntity> recipes) {
+        if (recipes == null || recipes.isEmpty()) {
+            return;
+        }
+        List<Integer> recipeIds = recipes.stream()
+            .map(RecipeEntity::getRecipeId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+        Map<Integer, List<IngredientEntity>> byRecipe = ingredientService.findByRecipeIds(recipeIds);
+        for (RecipeEntity recipe : recipes) {
+            if (recipe.getRecipeId() == null) {
+                continue;
+            }
+            recipe.setIngredients(byRecipe.getOrDefault(recipe.getRecipeId(), new ArrayList<>()));
+        }
+    }
+
     public RecipeEntity createRecipe(RecipeEntity recipe) {
         // Validate required fields
         if (recipe.getTitle() == null || recipe.getTitle().trim().isEmpty()) {
@@ -71,23 +161,32 @@ public class RecipeService {
         recipe.setRecipeId(null);
         // New recipes must be approved by admin first
         recipe.setApproved(false);
+        recipeImageService.externalizeImage(recipe);
         RecipeEntity saved = recipeRepository.save(recipe);
         syncIngredients(recipe, saved.getRecipeId());
         attachIngredients(saved);
+        eventPublisher.publishEvent(new RecipeChangedEvent(saved.getRecipeId()));
         return saved;
     }
 
     public List<RecipeEntity> getAllRecipes() {
         List<RecipeEntity> recipes = recipeRepository.findAll();
-        recipes.forEach(this::attachIngredients);
+        attachIngredients(recipes);
         return recipes;
     }
     
-    // Get recipe by ID
+    // Get recipe by ID (cached until the recipe or its ingredients change)
     public RecipeEntity getRecipeById(int recipeId) {
-        RecipeEntity recipe = recipeRepository.findById(recipeId).orElse(null);
-        attachIngredients(recipe);
-        return recipe;
+        return recipeCache.getRecipe(recipeId, id -> {
+            RecipeEntity recipe = recipeRepository.findById(id).orElse(null);
+            attachIngredients(recipe);
+            return recipe;
+        });
+    }
+
+    // Raw stored image (data URL or legacy external URL) without loading the rest of the row
+    public String getRecipeImage(int recipeId) {
+        return recipeRepository.findImageByRecipeId(recipeId);
     }
 
     public RecipeEntity updateRecipe(int recipeId, RecipeEntity newRecipeDetails){
@@ -121,12 +220,15 @@ public class RecipeService {
             }
             if (newRecipeDetails.getImage() != null) {
                 recipe.setImage(newRecipeDetails.getImage());
+                recipe.setImageKey(null);
+                recipeImageService.externalizeImage(recipe);
             }
             if (newRecipeDetails.getUserId() != null) {
                 recipe.setUserId(newRecipeDetails.getUserId());
             }
             RecipeEntity updated = recipeRepository.save(recipe);
             attachIngredients(updated);
+            eventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
             return updated;
         } catch (NoSuchElementException e) {
             throw e;
@@ -136,24 +238,151 @@ public class RecipeService {
     public String deleteRecipe(int recipeId) {
         if (recipeRepository.findById(recipeId).isPresent()) {
             recipeRepository.deleteById(recipeId);
+            eventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
             return "Recipe with ID " + recipeId + " has been deleted.";
         } else {
             return "Recipe with ID " + recipeId + " not found.";
         }
     }
 
-    // Get all pending recipes (not approved)
-    public List<RecipeEntity> getPendingRecipes() {
-        List<RecipeEntity> recipes = recipeRepository.findByIsApproved(false);
-        recipes.forEach(this::attachIngredients);
-        return recipes;
+    // Get pending recipes (not approved), capped at recipe.list.max-results
+    public List<RecipeSummary> getPendingRecipes() {
+        return getRecipesPageByApproval(false, null, listMaxResults, listMaxResults).getItems();
     }
 
-    // Get all approved recipes
-    public List<RecipeEntity> getApprovedRecipes() {
-        List<RecipeEntity> recipes = recipeRepository.findByIsApproved(true);
-        recipes.forEach(this::attachIngredients);
-        return recipes;
+    // Get approved recipes, capped at recipe.list.max-results; served from RecipeCache until a recipe changes
+    public List<RecipeSummary> getApprovedRecipes() {
+        return recipeCache.getApprovedRecipes(() -> {
+            List<RecipeSummary> summaries = recipeRepository.findSummariesByApproval(true, 0, Limit.of(listMaxResults));
+            for (int from = 0; from < summaries.size(); from += INGREDIENT_BATCH_SIZE) {
+                ingredientService.attachIngredientNames(summaries.subList(from, Math.min(from + INGREDIENT_BATCH_SIZE, summaries.size())));
+            }
+            return Collections.unmodifiableList(summaries);
+        });
+    }
+
+    /**
+     * The cached approved list when it holds every approved recipe, or null
+     * once the catalog reaches recipe.list.max-results and the cache only
+     * holds a prefix; callers then stream with streamApprovedSummaries.
+     */
+    public List<RecipeSummary> getAllApprovedRecipesIfCached() {
+        List<RecipeSummary> cached = getApprovedRecipes();
+        return cached.size() < listMaxResults ? cached : null;
+    }
+
+    // Cheap aggregate for conditional GETs on the approved listing
+    public CollectionVersion getApprovedRecipesVersion() {
+        return recipeRepository.findApprovedVersion();
+    }
+
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(recipeCache.stats());
+        stats.put("usernames", userDirectory.stats());
+        stats.put("sessionTokens", sessionTokens.stats());
+        stats.put("favorites", favoriteBitmaps.stats());
+        stats.put("favoriteCounters", favoriteCounters.stats());
+        return stats;
+    }
+
+    // Ranked full-text search over approved recipes; the cursor carries the offset of the next hit
+    public CursorPage<RecipeSummary> searchRecipes(String query, String cursor, Integer size) {
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        int offset = offsetOf(cursor);
+        return toOffsetPage(recipeSearchIndex.search(query, offset, pageSize + 1), offset, pageSize);
+    }
+
+    // Approved recipes cookable from the given ingredients, missing at most maxMissing of their own
+    public CursorPage<PantryMatch> matchPantry(List<String> pantry, Integer maxMissing, String cursor, Integer size) {
+        if (pantry == null || pantry.isEmpty()) {
+            throw new IllegalArgumentException("Pantry must list at least one ingredient");
+        }
+        if (pantry.size() > MAX_PANTRY_SIZE) {
+            throw new IllegalArgumentException("Pantry may list at most " + MAX_PANTRY_SIZE + " ingredients");
+        }
+        int missing = maxMissing == null ? 2 : maxMissing;
+        if (missing < 0) {
+            throw new IllegalArgumentException("maxMissing must not be negative");
+        }
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxPageSize);
+        int offset = offsetOf(cursor);
+        return toOffsetPage(pantryIndex.match(pantry, missing, offset, pageSize + 1), offset, pageSize);
+    }
+
+    // Faceted browse of approved recipes, served entirely from the in-memory BrowseIndex
+    public BrowsePage browseRecipes(BrowseFilter filter) {
+        int pageSize = PageSizes.resolve(filter.getSize(), defaultPageSize, maxPageSize);
+        return browseIndex.browse(filter, afterRecipeId(filter.getCursor()), pageSize);
+    }
+
+    public Map<String, Object> getSearchStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("search", recipeSearchIndex.stats());
+        stats.put("pantry", pantryIndex.stats());
+        stats.put("browse", browseIndex.stats());
+        return stats;
+    }
+
+    // Keyset page of pending recipes
+    public CursorPage<RecipeSummary> getPendingRecipesPage(String cursor, Integer size) {
+        return getRecipesPageByApproval(false, cursor, size, maxPageSize);
+    }
+
+    // Keyset page of approved recipes
+    public CursorPage<RecipeSummary> getApprovedRecipesPage(String cursor, Integer size) {
+        return getRecipesPageByApproval(true, cursor, size, maxPageSize);
+    }
+
+    private CursorPage<RecipeSummary> getRecipesPageByApproval(boolean approved, String cursor, Integer size, int maxSize) {
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxSize);
+        List<RecipeSummary> rows = recipeRepository.findSummariesByApproval(
+            approved, afterRecipeId(cursor), Limit.of(pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    // Streams every approved recipe summary without materializing the full list
+    @Transactional(readOnly = true)
+    public void streamApprovedSummaries(Consumer<RecipeSummary> sink) {
+        try (Stream<RecipeSummary> rows = recipeRepository.streamApprovedSummaries()) {
+            List<RecipeSummary> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            rows.forEach(summary -> {
+                chunk.add(summary);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emitSummaries(chunk, sink);
+                }
+            });
+            emitSummaries(chunk, sink);
+        }
+    }
+
+    // Streams full approved recipes (for export), detaching each one so the persistence context stays small
+    @Transactional(readOnly = true)
+    public void streamApprovedRecipes(Consumer<RecipeEntity> sink) {
+        try (Stream<RecipeEntity> rows = recipeRepository.streamApproved()) {
+            List<RecipeEntity> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            rows.forEach(recipe -> {
+                chunk.add(recipe);
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    emitRecipes(chunk, sink);
+                }
+            });
+            emitRecipes(chunk, sink);
+        }
+    }
+
+    private void emitSummaries(List<RecipeSummary> chunk, Consumer<RecipeSummary> sink) {
+        ingredientService.attachIngredientNames(chunk);
+        chunk.forEach(sink);
+        chunk.clear();
+    }
+
+    private void emitRecipes(List<RecipeEntity> chunk, Consumer<RecipeEntity> sink) {
+        attachIngredients(chunk);
+        for (RecipeEntity recipe : chunk) {
+            entityManager.detach(recipe);
+            sink.accept(recipe);
+        }
+        chunk.clear();
     }
 
     // Approve a recipe
@@ -164,6 +393,7 @@ public class RecipeService {
             recipe.setApproved(true);
             RecipeEntity saved = recipeRepository.save(recipe);
             attachIngredients(saved);
+            eventPublisher.publishEvent(new RecipeChangedEvent(recipeId));
             return saved;
         } catch (NoSuchElementException e) {
             return null;
@@ -171,13 +401,60 @@ public class RecipeService {
     }
 
     // Get all recipes by user ID (for "My Recipes" page)
-    public List<RecipeEntity> getRecipesByUserId(Integer userId) {
+    public List<RecipeSummary> getRecipesByUserId(Integer userId) {
         if (userId == null) {
             return Collections.emptyList();
         }
-        List<RecipeEntity> recipes = recipeRepository.findByUserId(userId);
-        recipes.forEach(this::attachIngredients);
-        return recipes;
+        return getRecipesPageByUserId(userId, null, listMaxResults, listMaxResults).getItems();
+    }
+
+    // Keyset page of a user's recipes
+    public CursorPage<RecipeSummary> getRecipesPageByUserId(Integer userId, String cursor, Integer size) {
+        if (userId == null) {
+            return new CursorPage<>(Collections.emptyList(), null);
+        }
+        return getRecipesPageByUserId(userId, cursor, size, maxPageSize);
+    }
+
+    private CursorPage<RecipeSummary> getRecipesPageByUserId(Integer userId, String cursor, Integer size, int maxSize) {
+        int pageSize = PageSizes.resolve(size, defaultPageSize, maxSize);
+        List<RecipeSummary> rows = recipeRepository.findSummariesByUserId(
+            userId, afterRecipeId(cursor), Limit.of(pageSize + 1));
+        return toPage(rows, pageSize);
+    }
+
+    private int afterRecipeId(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        return CursorCodec.decodeInt(cursor);
+    }
+
+    // Ranked results cannot use keyset paging, so their cursor carries a plain offset
+    private int offsetOf(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        int offset = CursorCodec.decodeInt(cursor);
+        if (offset < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return offset;
+    }
+
+    private static <T> CursorPage<T> toOffsetPage(List<T> rows, int offset, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        return new CursorPage<>(items, hasMore ? CursorCodec.encode(offset + pageSize) : null);
+    }
+
+    // rows holds up to pageSize + 1 entries; the extra one only signals that another page exists
+    private CursorPage<RecipeSummary> toPage(List<RecipeSummary> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<RecipeSummary> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        ingredientService.attachIngredientNames(items);
+        String nextCursor = hasMore ? CursorCodec.encode(items.get(items.size() - 1).getRecipeId()) : null;
+        return new CursorPage<>(items, nextCursor);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns recipe text and search queries into index terms: lowercase,
+ * split on anything that is not a letter or digit, drop stopwords and
+ * apply a light English suffix stemmer (so "tomatoes" and "tomato",
+ * "baking" and "baked" meet on the same term).
+ */
+public final class SearchAnalyzer {
+
+    private static final int MAX_TERM_LENGTH = 40;
+
+    private static final Set<String> STOPWORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is", "it",
+        "of", "on", "or", "the", "then", "to", "until", "with");
+
+    private SearchAnalyzer() {}
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(terms, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() > MAX_TERM_LENGTH || STOPWORDS.contains(token)) {
+            return;
+        }
+        terms.add(stem(token));
+    }
+
+    // Plural, -ed and -ing removal in the spirit of Porter step 1; numbers and short words are left alone
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(0))) {
+            return word;
+        }
+        String w = word;
+        if (w.endsWith("ies") && w.length() > 4) {
+            w = w.substring(0, w.length() - 3) + "y";
+        } else if (w.endsWith("oes") || w.endsWith("ches") || w.endsWith("shes") || w.endsWith("sses") || w.endsWith("xes")) {
+            w = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("s") && !w.endsWith("ss") && !w.endsWith("us") && !w.endsWith("is")) {
+            w = w.substring(0, w.length() - 1);
+        }
+
+        if (w.endsWith("ied") && w.length() > 4) {
+            return w.substring(0, w.length() - 3) + "y";
+        }
+        String base = null;
+        if (w.endsWith("ing") && w.length() > 5) {
+            base = w.substring(0, w.length() - 3);
+        } else if (w.endsWith("ed") && w.length() > 4) {
+            base = w.substring(0, w.length() - 2);
+        }
+        if (base == null || !hasVowel(base)) {
+            return w;
+        }
+        int n = base.length();
+        char last = base.charAt(n - 1);
+        if (n >= 4 && last == base.charAt(n - 2) && !isVowel(base, n - 1) && last != 'l' && last != 's' && last != 'z') {
+            // chopped -> chop
+            return base.substring(0, n - 1);
+        }
+        if (endsConsonantVowelConsonant(base) && vowelGroups(base) == 1) {
+            // baked -> bake, slicing -> slice
+            return base + "e";
+        }
+        return base;
+    }
+
+    private static boolean isVowel(String s, int i) {
+        char c = s.charAt(i);
+        if (c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u') {
+            return true;
+        }
+        return c == 'y' && i > 0 && !isVowel(s, i - 1);
+    }
+
+    private static boolean hasVowel(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (isVowel(s, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int vowelGroups(String s) {
+        int groups = 0;
+        boolean inVowel = false;
+        for (int i = 0; i < s.length(); i++) {
+            boolean vowel = isVowel(s, i);
+            if (vowel && !inVowel) {
+                groups++;
+            }
+            inVowel = vowel;
+        }
+        return groups;
+    }
+
+    private static boolean endsConsonantVowelConsonant(String s) {
+        int n = s.length();
+        if (n < 3) {
+            return false;
+        }
+        char last = s.charAt(n - 1);
+        return !isVowel(s, n - 3) && isVowel(s, n - 2) && !isVowel(s, n - 1)
+            && last != 'w' && last != 'x' && last != 'y';
+    }
+}
@@ -0,0 +1,223 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
+
+/**
+ * Issues and verifies the signed session tokens returned by /user/login.
+ * A token is keyId.payload.signature: the payload carries the userId, the
+ * admin flag, issue and expiry times and a random token id, signed with
+ * HMAC-SHA256 under the named key. Verifying one needs no database access.
+ *
+ * Tokens are signed with the active key and accepted under any configured
+ * key, so a key is rotated by adding the new one, making it active, and
+ * dropping the old one once the TTL has passed. Revoked token ids and
+ * per-user revocation times are kept in memory until the tokens they cover
+ * would have expired anyway.
+ *
+ * Issue times are stamped in epoch microseconds from a counter that never
+ * repeats, so revoking a user rejects exactly the tokens issued before the
+ * call, even ones issued within the same millisecond, and none after it.
+ */
+@Service
+public class SessionTokens {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionTokens.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MIN_KEY_BYTES = 32;
+    // userId, admin, issuedAt, expiresAt, tokenId
+    private static final int PAYLOAD_BYTES = Integer.BYTES + 1 + Long.BYTES * 3;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final class SigningKey {
+        final SecretKeySpec secret;
+        // Mac instances are not thread safe, so each thread keeps its own
+        final ThreadLocal<Mac> macs;
+
+        SigningKey(byte[] secret) {
+            this.secret = new SecretKeySpec(secret, ALGORITHM);
+            this.macs = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac mac = Mac.getInstance(ALGORITHM);
+                    mac.init(this.secret);
+                    return mac;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Cannot initialise " + ALGORITHM, e);
+                }
+            });
+        }
+
+        byte[] sign(byte[] data) {
+            return macs.get().doFinal(data);
+        }
+    }
+
+    /** A verified token's claims; issuedAtMicros is the unique issue stamp, expiresAt epoch millis. */
+    public record Claims(int userId, boolean admin, long issuedAtMicros, long expiresAt, long tokenId) {
+
+        public RequestPrincipal toPrincipal() {
+            return new RequestPrincipal(userId, admin);
+        }
+    }
+
+    /** A freshly issued token and when it expires (epoch millis). */
+    public record Issued(String token, long expiresAt) {}
+
+    private final Map<String, SigningKey> keys = new LinkedHashMap<>();
+    private final String activeKeyId;
+    private final long ttlMillis;
+    private final SecureRandom random = new SecureRandom();
+
+    // revoked token id -> its expiry
+    private final Map<Long, Long> revokedTokens = new ConcurrentHashMap<>();
+    // userId -> tokens stamped before this are rejected
+    private final Map<Integer, Long> revokedUsers = new ConcurrentHashMap<>();
+    // Last stamp handed out; stamps follow the clock in microseconds but always increase
+    private final AtomicLong lastStamp = new AtomicLong();
+
+    public SessionTokens(@Value("${auth.token.keys:}") String keySpec,
+                         @Value("${auth.token.active-key:}") String activeKey,
+                         @Value("${auth.token.ttl:12h}") Duration ttl) {
+        for (String entry : keySpec.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalStateException("auth.token.keys entries must be id:base64-secret");
+            }
+            String id = entry.substring(0, colon).trim();
+            byte[] secret = Base64.getDecoder().decode(entry.substring(colon + 1).trim());
+            if (secret.length < MIN_KEY_BYTES) {
+                throw new IllegalStateException("auth.token key " + id + " must be at least " + MIN_KEY_BYTES + " bytes");
+            }
+            keys.put(id, new SigningKey(secret));
+        }
+        if (keys.isEmpty()) {
+            byte[] secret = new byte[MIN_KEY_BYTES];
+            random.nextBytes(secret);
+            keys.put("local", new SigningKey(secret));
+            logger.warn("No auth.token.keys configured; using a random key, so sessions end on restart");
+        }
+        this.activeKeyId = activeKey == null || activeKey.isBlank() ? keys.keySet().iterator().next() : activeKey.trim();
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("auth.token.active-key " + activeKeyId + " is not in auth.token.keys");
+        }
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    public Issued issue(int userId, boolean admin) {
+        long stamp = nextStamp();
+        long expiresAt = stamp / 1000 + ttlMillis;
+        byte[] payload = ByteBuffer.allocate(PAYLOAD_BYTES)
+            .putInt(userId)
+            .put((byte) (admin ? 1 : 0))
+            .putLong(stamp)
+            .putLong(expiresAt)
+            .putLong(random.nextLong())
+            .array();
+        String signed = activeKeyId + "." + ENCODER.encodeToString(payload);
+        byte[] signature = keys.get(activeKeyId).sign(signed.getBytes(StandardCharsets.US_ASCII));
+        return new Issued(signed + "." + ENCODER.encodeToString(signature), expiresAt);
+    }
+
+    // The token's claims, or null if it is malformed, forged, expired or revoked
+    public Claims verify(String token) {
+        return verify(token, System.currentTimeMillis());
+    }
+
+    Claims verify(String token, long now) {
+        if (token == null) {
+            return null;
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot <= firstDot) {
+            return null;
+        }
+        SigningKey key = keys.get(token.substring(0, firstDot));
+        if (key == null) {
+            return null;
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            payload = DECODER.decode(token.substring(firstDot + 1, lastDot));
+            signature = DECODER.decode(token.substring(lastDot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        byte[] expected = key.sign(token.substring(0, lastDot).getBytes(StandardCharsets.US_ASCII));
+        if (payload.length != PAYLOAD_BYTES || !MessageDigest.isEqual(expected, signature)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Claims claims = new Claims(buffer.getInt(), buffer.get() == 1, buffer.getLong(), buffer.getLong(), buffer.getLong());
+        if (claims.expiresAt() <= now || revokedTokens.containsKey(claims.tokenId())) {
+            return null;
+        }
+        Long revokedBefore = revokedUsers.get(claims.userId());
+        if (revokedBefore != null && claims.issuedAtMicros() < revokedBefore) {
+            return null;
+        }
+        return claims;
+    }
+
+    // Logout: rejects this token from now on
+    public void revoke(Claims claims) {
+        revokedTokens.put(claims.tokenId(), claims.expiresAt());
+    }
+
+    // Rejects every token issued to the user so far, e.g. after a password change or delete
+    public void revokeUser(Integer userId) {
+        if (userId != null) {
+            // above every stamp already issued and at or below every later one
+            revokedUsers.merge(userId, nextStamp(), Math::max);
+        }
+    }
+
+    private long nextStamp() {
+        long now = System.currentTimeMillis() * 1000;
+        return lastStamp.updateAndGet(last -> Math.max(now, last + 1));
+    }
+
+    // Entries only need to outlive the tokens they reject
+    @Scheduled(fixedDelayString = "${auth.token.denylist-purge-interval-ms:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(revokedBefore -> revokedBefore / 1000 + ttlMillis <= now);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeKey", activeKeyId);
+        stats.put("keys", keys.size());
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedUsers", revokedUsers.size());
+        return stats;
+    }
+}
@@ -0,0 +1,188 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable prefix trie flattened into primitive arrays. Nodes are numbered
+ * breadth-first so every node's children are contiguous and sorted by
+ * label; a lookup is one binary search per prefix character. Each node
+ * stores the ids of its heaviest completions, precomputed at build time,
+ * so a lookup never walks the subtree and allocates nothing until the
+ * result list is filled.
+ */
+public final class SuggestTrie {
+
+    public static final SuggestTrie EMPTY = build(Collections.emptyMap(), 1);
+
+    // Suggestions ordered by weight desc, so a lower id is a better suggestion
+    private final String[] suggestions;
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] childCount;
+    private final int[] topStart;
+    private final int[] top;
+
+    private SuggestTrie(String[] suggestions, char[] labels, int[] firstChild, int[] childCount, int[] topStart, int[] top) {
+        this.suggestions = suggestions;
+        this.labels = labels;
+        this.firstChild = firstChild;
+        this.childCount = childCount;
+        this.topStart = topStart;
+        this.top = top;
+    }
+
+    // Build-time node; thrown away once the arrays are filled
+    private static final class Node {
+        final TreeMap<Character, Node> children = new TreeMap<>();
+        int terminal = -1;
+        int[] top;
+    }
+
+    /**
+     * Builds a trie over the lowercase form of each suggestion, keeping at
+     * most topK completions per node. Entries with the same lowercase form
+     * keep the heavier one.
+     */
+    public static SuggestTrie build(Map<String, Long> weights, int topK) {
+        return build(weights, Collections.emptyMap(), topK);
+    }
+
+    /**
+     * Same, but the trie is walked by each key while lookups return its
+     * entry in displayNames (or the key itself when there is none).
+     */
+    public static SuggestTrie build(Map<String, Long> weights, Map<String, String> displayNames, int topK) {
+        List<Map.Entry<String, Long>> ranked = new ArrayList<>(weights.entrySet());
+        ranked.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+
+        Node root = new Node();
+        List<String> suggestions = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : ranked) {
+            Node node = root;
+            for (char c : entry.getKey().toLowerCase(Locale.ROOT).toCharArray()) {
+                node = node.children.computeIfAbsent(c, k -> new Node());
+            }
+            if (node.terminal < 0) {
+                node.terminal = suggestions.size();
+                suggestions.add(displayNames.getOrDefault(entry.getKey(), entry.getKey()));
+            }
+        }
+        int nodeCount = collectTop(root, topK);
+
+        char[] labels = new char[nodeCount];
+        int[] firstChild = new int[nodeCount];
+        int[] childCount = new int[nodeCount];
+        int[] topStart = new int[nodeCount + 1];
+        List<Integer> topIds = new ArrayList<>();
+
+        Deque<Node> queue = new ArrayDeque<>();
+        queue.add(root);
+        int next = 1;
+        int index = 0;
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            firstChild[index] = next;
+            childCount[index] = node.children.size();
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                labels[next++] = child.getKey();
+                queue.add(child.getValue());
+            }
+            topStart[index] = topIds.size();
+            for (int id : node.top) {
+                topIds.add(id);
+            }
+            index++;
+        }
+        topStart[nodeCount] = topIds.size();
+        int[] top = topIds.stream().mapToInt(Integer::intValue).toArray();
+        return new SuggestTrie(suggestions.toArray(new String[0]), labels, firstChild, childCount, topStart, top);
+    }
+
+    // Post-order: a node's best completions are the lowest ids among itself and its children's bests
+    private static int collectTop(Node node, int topK) {
+        int nodes = 1;
+        int[] merged = node.terminal >= 0 ? new int[] { node.terminal } : new int[0];
+        for (Node child : node.children.values()) {
+            nodes += collectTop(child, topK);
+            int[] combined = Arrays.copyOf(merged, merged.length + child.top.length);
+            System.arraycopy(child.top, 0, combined, merged.length, child.top.length);
+            Arrays.sort(combined);
+            merged = Arrays.copyOf(combined, Math.min(topK, combined.length));
+        }
+        node.top = merged;
+        return nodes;
+    }
+
+    // Node reached by the lowercased prefix, or -1; outer whitespace is ignored and inner runs read as one space
+    private int find(CharSequence prefix) {
+        int node = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = node != 0;
+                continue;
+            }
+            if (pendingSpace) {
+                node = child(node, ' ');
+                pendingSpace = false;
+                if (node < 0) {
+                    return -1;
+                }
+            }
+            node = child(node, Character.toLowerCase(c));
+            if (node < 0) {
+                return -1;
+            }
+        }
+        return node;
+    }
+
+    private int child(int node, char c) {
+        int lo = firstChild[node];
+        int hi = lo + childCount[node] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (labels[mid] < c) {
+                lo = mid + 1;
+            } else if (labels[mid] > c) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public List<String> suggest(CharSequence prefix, int limit) {
+        int node = find(prefix);
+        if (node < 0) {
+            return Collections.emptyList();
+        }
+        int from = topStart[node];
+        int to = Math.min(topStart[node + 1], from + limit);
+        List<String> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            result.add(suggestions[top[i]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return suggestions.length;
+    }
+
+    public int nodeCount() {
+        return labels.length;
+    }
+}
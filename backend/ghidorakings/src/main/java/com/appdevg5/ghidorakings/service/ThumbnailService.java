@@ -0,0 +1,199 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.appdevg5.ghidorakings.dto.ImageUrls;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Renders the fixed ImageUrls.THUMBNAIL_WIDTHS for stored images on a small,
+ * bounded worker pool so uploads never wait on image processing. Images
+ * whose header declares more than max-pixels are never decoded, and any
+ * image that cannot be rendered gets an "unrenderable" marker variant so
+ * it is not queued again.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    @Autowired
+    ImageStore imageStore;
+
+    @Value("${image.thumbnail.threads:2}")
+    int threads = 2;
+
+    @Value("${image.thumbnail.queue-capacity:500}")
+    int queueCapacity = 500;
+
+    // Decoded size limit (width x height) against decompression bombs
+    @Value("${image.thumbnail.max-pixels:40000000}")
+    long maxPixels = 40_000_000L;
+
+    // Marker variant for images that will never render; its content is the reason
+    static final String UNRENDERABLE = "unrenderable";
+
+    /** The image itself is the problem, so retrying cannot help. */
+    static class UnrenderableImageException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        UnrenderableImageException(String message) {
+            super(message);
+        }
+    }
+
+    ThreadPoolExecutor executor;
+
+    // Keys already queued or rendering, so repeated uploads of one image only render once
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "thumbnail-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    // Queues thumbnail rendering for a stored image; drops the request if the queue is full
+    public void schedule(String imageKey) {
+        if (!ImageStore.isValidKey(imageKey) || imageStore.variantExists(imageKey, UNRENDERABLE) || !pending.add(imageKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    renderMissing(imageKey);
+                } catch (Exception e) {
+                    logger.warn("Thumbnail rendering failed for image {}: {}", imageKey, e.getMessage());
+                } finally {
+                    pending.remove(imageKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(imageKey);
+            logger.warn("Thumbnail queue full, skipping image {}", imageKey);
+        }
+    }
+
+    public static String variantName(int width) {
+        return "w" + width;
+    }
+
+    void renderMissing(String imageKey) throws IOException {
+        BufferedImage source = null;
+        for (int width : ImageUrls.THUMBNAIL_WIDTHS) {
+            String variant = variantName(width);
+            if (imageStore.variantExists(imageKey, variant)) {
+                continue;
+            }
+            if (source == null) {
+                try {
+                    source = read(imageKey);
+                } catch (UnrenderableImageException e) {
+                    logger.warn("Image {} cannot be rendered, no thumbnails: {}", imageKey, e.getMessage());
+                    imageStore.storeVariant(imageKey, UNRENDERABLE, e.getMessage().getBytes(StandardCharsets.UTF_8));
+                    return;
+                }
+            }
+            imageStore.storeVariant(imageKey, variant, encode(scaleToWidth(source, width)));
+        }
+    }
+
+    // Checks the dimensions in the header before decoding any pixels
+    private BufferedImage read(String imageKey) throws IOException {
+        try (FileChannel channel = imageStore.open(imageKey);
+             ImageInputStream in = ImageIO.createImageInputStream(Channels.newInputStream(channel))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new UnrenderableImageException("not in a format ImageIO can decode");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    throw new UnrenderableImageException(width + "x" + height + " exceeds image.thumbnail.max-pixels");
+                }
+                return reader.read(0);
+            } catch (IIOException | RuntimeException e) {
+                throw new UnrenderableImageException("decoding failed: " + e.getMessage());
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Never upscales: images narrower than the target keep their size
+    private static BufferedImage scaleToWidth(BufferedImage source, int width) {
+        boolean alpha = source.getColorModel().hasAlpha();
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        int targetWidth = Math.min(width, source.getWidth());
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * (targetWidth / (double) source.getWidth())));
+
+        // Halve in steps for large reductions; a single bilinear pass aliases badly
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(targetWidth, currentWidth / 2);
+            currentHeight = Math.max(targetHeight, currentHeight / 2);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D g = next.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            g.dispose();
+            current = next;
+        } while (currentWidth > targetWidth || currentHeight > targetHeight);
+        return current;
+    }
+
+    // JPEG for opaque images, PNG when transparency must be kept
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String format = image.getColorModel().hasAlpha() ? "png" : "jpg";
+        if (!ImageIO.write(image, format, out)) {
+            throw new IOException("No ImageIO writer for " + format);
+        }
+        return out.toByteArray();
+    }
+}
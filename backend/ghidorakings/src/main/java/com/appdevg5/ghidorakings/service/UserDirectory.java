@@ -0,0 +1,96 @@
+package com.appdevg5.ghidorakings.service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.appdevg5.ghidorakings.entity.UserEntity;
+import com.appdevg5.ghidorakings.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Bounded userId to username cache for rendering author names. Misses for a
+ * whole list are loaded with one IN query, and UserService evicts a user on
+ * every rename or delete. Unknown ids are not cached.
+ */
+@Component
+public class UserDirectory {
+
+    private final Cache<Integer, String> usernames;
+
+    // Bumped on every evict, so a load that raced one can tell its rows may be stale
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    UserRepository userRepository;
+
+    public UserDirectory(@Value("${user.directory.max-size:10000}") long maxSize,
+                         @Value("${user.directory.ttl:30m}") Duration ttl) {
+        this.usernames = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+
+    public String username(Integer userId) {
+        return userId == null ? null : usernames(List.of(userId)).get(userId);
+    }
+
+    // Usernames for the distinct ids in userIds; at most one query, and none when all are cached
+    public Map<Integer, String> usernames(Iterable<Integer> userIds) {
+        Set<Integer> distinct = new LinkedHashSet<>();
+        for (Integer userId : userIds) {
+            if (userId != null) {
+                distinct.add(userId);
+            }
+        }
+        Set<Integer> loaded = new HashSet<>();
+        long before = version.get();
+        Map<Integer, String> found = usernames.getAll(distinct, missing -> {
+            Map<Integer, String> rows = new HashMap<>();
+            for (UserEntity user : userRepository.findAllById(List.copyOf(missing))) {
+                if (user.getUsername() != null) {
+                    rows.put(user.getUserId(), user.getUsername());
+                }
+            }
+            loaded.addAll(rows.keySet());
+            return rows;
+        });
+        // getAll puts after loading, so an evict that ran meanwhile could leave an old name cached
+        if (!loaded.isEmpty() && version.get() != before) {
+            usernames.invalidateAll(loaded);
+        }
+        return found;
+    }
+
+    public void evict(Integer userId) {
+        if (userId != null) {
+            usernames.invalidate(userId);
+            version.incrementAndGet();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = usernames.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", usernames.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -5,7 +5,6 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import com.appdevg5.ghidorakings.entity.UserEntity;
@@ -20,7 +19,13 @@ public class UserService {
     UserRepository userRepository;
 
     @Autowired
-    PasswordEncoder passwordEncoder;
+    PasswordHasher passwordHasher;
+
+    @Autowired
+    UserDirectory userDirectory;
+
+    @Autowired
+    SessionTokens sessionTokens;
 
     // CREATE
     public UserEntity createUser(UserEntity user) {
@@ -32,7 +37,7 @@ public class UserService {
         // Ensure a new user is inserted even if client includes a userId
         user.setUserId(null);
         // Hash the password before saving
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHasher.encode(user.getPassword()));
         return userRepository.save(user);
     }
 
@@ -56,12 +61,21 @@ public class UserService {
             user.setEmail(newUserDetails.getEmail());
             
             // Only hash and update password if a new one is provided
-            if (newUserDetails.getPassword() != null && !newUserDetails.getPassword().isEmpty()) {
-                user.setPassword(passwordEncoder.encode(newUserDetails.getPassword()));
+            boolean passwordChanged = newUserDetails.getPassword() != null && !newUserDetails.getPassword().isEmpty();
+            if (passwordChanged) {
+                user.setPassword(passwordHasher.encode(newUserDetails.getPassword()));
             }
             
-            return userRepository.save(user);
+            UserEntity saved = userRepository.save(user);
+            userDirectory.evict(userId);
+            if (passwordChanged) {
+                // sign out every existing session
+                sessionTokens.revokeUser(userId);
+            }
+            return saved;
 
+        } catch (PasswordHashingBusyException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error updating user with ID {}", userId, e);
             return null;
@@ -72,6 +86,8 @@ public class UserService {
     public String deleteUser(int userId) {
         try {
             userRepository.deleteById(userId);
+            userDirectory.evict(userId);
+            sessionTokens.revokeUser(userId);
             return "User with ID " + userId + " has been deleted successfully.";
         } catch (Exception e) {
             logger.error("Error deleting user with ID {}", userId, e);
@@ -85,7 +101,13 @@ public class UserService {
         UserEntity user = userRepository.findByEmail(email).orElse(null);
         
         // If user exists and password matches
-        if (user != null && passwordEncoder.matches(password, user.getPassword())) {
+        if (user != null && passwordHasher.matches(password, user.getPassword())) {
+            String storedHash = user.getPassword();
+            if (passwordHasher.needsRehash(storedHash)) {
+                // move to the configured cost without delaying this login
+                passwordHasher.rehashInBackground(password,
+                    newHash -> userRepository.replacePasswordHash(user.getUserId(), storedHash, newHash));
+            }
             return user;
         }
         
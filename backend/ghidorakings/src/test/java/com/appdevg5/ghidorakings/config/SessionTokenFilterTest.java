@@ -0,0 +1,70 @@
+package com.appdevg5.ghidorakings.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.appdevg5.ghidorakings.dto.RequestPrincipal;
+import com.appdevg5.ghidorakings.service.SessionTokens;
+
+class SessionTokenFilterTest {
+
+    private final SessionTokens tokens = new SessionTokens("", "", Duration.ofHours(1));
+    private final SessionTokenFilter filter = new SessionTokenFilter(tokens);
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String userIdHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (userIdHeader != null) {
+            request.addHeader(RequestPrincipalResolver.USER_ID_HEADER, userIdHeader);
+        }
+        return request;
+    }
+
+    @Test
+    void userIdHeaderIsOnlyAcceptedOnNonAdminReads() throws Exception {
+        assertThat(run(request("GET", "/recipe/getAllRecipes", "7")).getStatus()).isEqualTo(200);
+        assertThat(run(request("POST", "/rating/insertRating", "7")).getStatus()).isEqualTo(401);
+        assertThat(run(request("DELETE", "/comment/deleteComment/3", "7")).getStatus()).isEqualTo(401);
+        assertThat(run(request("GET", "/recipe/admin/pending", "1")).getStatus()).isEqualTo(401);
+        // anonymous writes are left to the controllers
+        assertThat(run(request("POST", "/user/login", null)).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void bearerTokenIsAcceptedEverywhereAndWinsOverTheHeader() throws Exception {
+        MockHttpServletRequest request = request("PUT", "/recipe/admin/approve/3", "7");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.issue(1, true).token());
+
+        assertThat(run(request).getStatus()).isEqualTo(200);
+        SessionTokens.Claims claims = (SessionTokens.Claims) request.getAttribute(SessionTokenFilter.CLAIMS_ATTRIBUTE);
+        assertThat(claims.toPrincipal().getUserId()).isEqualTo(1);
+
+        MockHttpServletRequest forged = request("GET", "/recipe/getAllRecipes", null);
+        forged.addHeader(HttpHeaders.AUTHORIZATION, "Bearer not-a-token");
+        assertThat(run(forged).getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void headerNeverGrantsAdmin() {
+        RequestPrincipalResolver resolver = new RequestPrincipalResolver();
+        resolver.allowUserIdHeader = true;
+        RequestPrincipal principal = resolver.resolve("1");
+        assertThat(principal.getUserId()).isEqualTo(1);
+        assertThat(principal.isAdmin()).isFalse();
+
+        resolver.allowUserIdHeader = false;
+        assertThat(resolver.resolve("1").isAuthenticated()).isFalse();
+    }
+}
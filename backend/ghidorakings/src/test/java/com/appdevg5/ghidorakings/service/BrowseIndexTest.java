@@ -0,0 +1,141 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import com.appdevg5.ghidorakings.dto.BrowseFilter;
+import com.appdevg5.ghidorakings.dto.BrowsePage;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+class BrowseIndexTest {
+
+    private BrowseIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BrowseIndex();
+        index.indexBatch(List.of(
+            recipe(1, "Dinner", "Easy", 10, 80.0),
+            recipe(2, "Dinner", "Hard", 90, 450.0),
+            recipe(3, "Dessert", "Easy", 30, 120.0),
+            recipe(4, "Dessert", "Medium", 45, 99.5),
+            recipe(5, "Breakfast", "Easy", null, null)));
+    }
+
+    @Test
+    void combinesFiltersAndCountsFacetsAgainstTheOtherFilters() {
+        BrowseFilter filter = new BrowseFilter();
+        filter.setCategory(List.of("Dinner", "Dessert"));
+        filter.setDifficulty(List.of("Easy"));
+
+        BrowsePage page = index.browse(filter, 0, 10);
+
+        assertThat(ids(page)).containsExactly(1, 3);
+        assertThat(page.getTotal()).isEqualTo(2);
+        // category counts ignore the category filter but respect difficulty
+        assertThat(page.getFacets().get(BrowseIndex.CATEGORY))
+            .containsEntry("Breakfast", 1).containsEntry("Dessert", 1).containsEntry("Dinner", 1);
+        assertThat(page.getFacets().get(BrowseIndex.DIFFICULTY))
+            .containsEntry("Easy", 2).containsEntry("Hard", 1).containsEntry("Medium", 1);
+        assertThat(page.getFacets().get(BrowseIndex.COOK_TIME))
+            .containsEntry("0-15", 1).containsEntry("16-30", 1).containsEntry("61+", 0);
+    }
+
+    @Test
+    void rangesUseSortedColumnsAndBucketsUseLabels() {
+        BrowseFilter filter = new BrowseFilter();
+        filter.setMinPrice(99.5);
+        filter.setMaxPrice(120.0);
+        assertThat(ids(index.browse(filter, 0, 10))).containsExactly(3, 4);
+
+        filter = new BrowseFilter();
+        filter.setPrice(List.of("0-99"));
+        filter.setMaxCookTime(30);
+        assertThat(ids(index.browse(filter, 0, 10))).containsExactly(1);
+
+        BrowseFilter unknown = new BrowseFilter();
+        unknown.setCookTime(List.of("forever"));
+        assertThatThrownBy(() -> index.browse(unknown, 0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void pagesByRecipeIdAndFollowsUpdates() {
+        BrowsePage first = index.browse(new BrowseFilter(), 0, 2);
+        assertThat(ids(first)).containsExactly(1, 2);
+        assertThat(first.getNextCursor()).isNotNull();
+        assertThat(ids(index.browse(new BrowseFilter(), 4, 2))).containsExactly(5);
+
+        index.indexBatch(List.of(recipe(2, "Dessert", "Hard", 90, 450.0)));
+        index.remove(5);
+        BrowsePage page = index.browse(new BrowseFilter(), 0, 10);
+        assertThat(ids(page)).containsExactly(1, 2, 3, 4);
+        assertThat(page.getFacets().get(BrowseIndex.CATEGORY)).containsOnlyKeys("Dessert", "Dinner");
+
+        BrowseFilter range = new BrowseFilter();
+        range.setMinCookTime(60);
+        assertThat(ids(index.browse(range, 0, 10))).containsExactly(2);
+    }
+
+    @Test
+    void bulkBuildSortsOnceAndAnswersRangesWhileBuilding() {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        List<List<Integer>> midBuild = new ArrayList<>();
+        // cook time runs backwards against recipe id, so every append lands out of order
+        when(recipeRepository.findSummariesByApproval(eq(true), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(1);
+            if (after == 1000) {
+                BrowseFilter quick = new BrowseFilter();
+                quick.setMaxCookTime(2002);
+                midBuild.add(ids(index.browse(quick, 0, 10)));
+            }
+            List<RecipeSummary> batch = new ArrayList<>();
+            for (int id = after + 1; id <= Math.min(after + 1000, 3000); id++) {
+                batch.add(recipe(id, "Dinner", "Easy", 3001 - id, (double) (id % 7)));
+            }
+            return batch;
+        });
+        index = new BrowseIndex();
+        index.recipeRepository = recipeRepository;
+        index.ingredientService = mock(IngredientService.class);
+
+        index.rebuild();
+
+        // the first batch is still unsorted when the second is fetched
+        assertThat(midBuild).containsExactly(List.of(999, 1000));
+        BrowseFilter quick = new BrowseFilter();
+        quick.setMinCookTime(5);
+        quick.setMaxCookTime(7);
+        assertThat(ids(index.browse(quick, 0, 10))).containsExactly(2994, 2995, 2996);
+        BrowseFilter cheap = new BrowseFilter();
+        cheap.setMaxPrice(0.0);
+        assertThat(index.browse(cheap, 0, 10).getTotal()).isEqualTo(428);
+
+        // incremental updates after the build keep the column sorted
+        index.indexBatch(List.of(recipe(1, "Dinner", "Easy", 6, 1.0)));
+        assertThat(ids(index.browse(quick, 0, 10))).containsExactly(1, 2994, 2995, 2996);
+    }
+
+    private static RecipeSummary recipe(int id, String category, String difficulty, Integer cookTime, Double price) {
+        RecipeSummary summary = new RecipeSummary(id, "Recipe " + id, category, difficulty, cookTime, price, 1, true, null, false);
+        summary.setIngredientNames(new ArrayList<>());
+        return summary;
+    }
+
+    private static List<Integer> ids(BrowsePage page) {
+        return page.getItems().stream().map(RecipeSummary::getRecipeId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import com.appdevg5.ghidorakings.dto.CollectionVersion;
+import com.appdevg5.ghidorakings.dto.CommentPage;
+import com.appdevg5.ghidorakings.entity.CommentEntity;
+import com.appdevg5.ghidorakings.entity.UserEntity;
+import com.appdevg5.ghidorakings.repository.CommentRepository;
+import com.appdevg5.ghidorakings.repository.UserRepository;
+
+class CommentServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private CommentRepository commentRepository;
+    private UserRepository userRepository;
+    private UserDirectory userDirectory;
+    private CommentService commentService;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository = mock(CommentRepository.class);
+        userRepository = mock(UserRepository.class);
+
+        userDirectory = new UserDirectory(100, Duration.ofMinutes(1));
+        userDirectory.userRepository = userRepository;
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user(7, "ana"), user(8, "ben")));
+
+        commentService = new CommentService();
+        commentService.commentRepository = commentRepository;
+        commentService.userDirectory = userDirectory;
+        commentService.userRepository = userRepository;
+    }
+
+    @Test
+    void pagesNewestFirstWithCursorFromLastComment() {
+        when(commentRepository.findNewestByRecipeId(eq(1), any(Limit.class)))
+            .thenReturn(new ArrayList<>(List.of(comment(9, 7), comment(8, 8), comment(5, 7))));
+        when(commentRepository.countByRecipeId(1)).thenReturn(3L);
+
+        CommentPage first = commentService.getCommentsByRecipe(1, null, 2);
+
+        assertThat(first.getItems()).extracting(CommentEntity::getCommentId).containsExactly(9, 8);
+        assertThat(first.getItems()).extracting(CommentEntity::getUsername).containsExactly("ana", "ben");
+        assertThat(first.getTotal()).isEqualTo(3);
+        verify(userRepository, times(1)).findAllById(anyIterable());
+        verify(userRepository, never()).findById(anyInt());
+
+        when(commentRepository.findNewestByRecipeIdBefore(eq(1), eq(NOON), eq(8), any(Limit.class)))
+            .thenReturn(new ArrayList<>(List.of(comment(5, 7))));
+        CommentPage second = commentService.getCommentsByRecipe(1, first.getNextCursor(), 2);
+
+        assertThat(second.getItems()).extracting(CommentEntity::getCommentId).containsExactly(5);
+        assertThat(second.getNextCursor()).isNull();
+        // both authors were cached by the first page
+        verify(userRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void renamedUserIsReloadedAfterEviction() {
+        assertThat(userDirectory.username(7)).isEqualTo("ana");
+
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(user(7, "ana2")));
+        assertThat(userDirectory.username(7)).isEqualTo("ana");
+        userDirectory.evict(7);
+        assertThat(userDirectory.username(7)).isEqualTo("ana2");
+        verify(userRepository, times(2)).findAllById(anyIterable());
+    }
+
+    @Test
+    void renameDuringALoadDoesNotLeaveTheOldNameCached() {
+        // the rename commits and evicts while the query that read the old name is still running
+        when(userRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            userDirectory.evict(7);
+            return List.of(user(7, "ana"));
+        });
+        assertThat(userDirectory.username(7)).isEqualTo("ana");
+
+        doReturn(List.of(user(7, "ana2"))).when(userRepository).findAllById(anyIterable());
+        assertThat(userDirectory.username(7)).isEqualTo("ana2");
+    }
+
+    @Test
+    void renameChangesTheCommentsETag() {
+        when(commentRepository.findVersion()).thenReturn(new CollectionVersion(3L, NOON));
+        when(userRepository.findVersion()).thenReturn(new CollectionVersion(2L, NOON));
+        String before = commentService.getCommentsETag();
+        assertThat(commentService.getCommentsETag()).isEqualTo(before);
+
+        // a rename saved by any instance moves the users' updated_at
+        doReturn(new CollectionVersion(2L, NOON.plusSeconds(1))).when(userRepository).findVersion();
+        assertThat(commentService.getCommentsETag()).isNotEqualTo(before);
+    }
+
+    @Test
+    void rejectsTamperedCursor() {
+        assertThatThrownBy(() -> commentService.getCommentsByRecipe(1, CursorCodec.encode("yesterday", 3), 2))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CommentEntity comment(int commentId, int userId) {
+        CommentEntity comment = new CommentEntity();
+        comment.setCommentId(commentId);
+        comment.setUserId(userId);
+        comment.setRecipeId(1);
+        comment.setDatetimeCreatedAt(NOON);
+        return comment;
+    }
+
+    private static UserEntity user(int userId, String username) {
+        UserEntity user = new UserEntity();
+        user.setUserId(userId);
+        user.setUsername(username);
+        return user;
+    }
+}
@@ -0,0 +1,192 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+class CommentStreamHubTest {
+
+    private static final Pattern EVENT_NAME = Pattern.compile("event:(\\S+)");
+
+    // Records the event names it was sent; optionally blocks every send until released
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        volatile CountDownLatch gate;
+        volatile CountDownLatch entered;
+        volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (entered != null) {
+                entered.countDown();
+            }
+            CountDownLatch current = gate;
+            if (current != null) {
+                // like a blocked socket write, ignores interrupts
+                while (true) {
+                    try {
+                        current.await(5, TimeUnit.SECONDS);
+                        break;
+                    } catch (InterruptedException e) {
+                        // keep waiting
+                    }
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            builder.build().forEach(part -> text.append(part.getData()));
+            Matcher name = EVENT_NAME.matcher(text);
+            events.add(name.find() ? name.group(1) : "comment");
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+
+    private CommentStreamHub hub;
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        hub = new CommentStreamHub() {
+            @Override
+            SseEmitter newEmitter() {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        hub.senderThreads = 1;
+        hub.queueCapacity = 4;
+        hub.historySize = 3;
+        hub.heartbeatMillis = 3_600_000;
+        hub.idleChannelMillis = 1000;
+        hub.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.stop();
+    }
+
+    @Test
+    void publishReachesOnlyThatRecipesSubscribers() throws InterruptedException {
+        RecordingEmitter first = (RecordingEmitter) hub.subscribe(1, null);
+        RecordingEmitter other = (RecordingEmitter) hub.subscribe(2, null);
+
+        hub.publish(1, "created", "{}");
+        hub.publish(1, "updated", "{}");
+
+        awaitEvents(first, 2);
+        assertThat(first.events).containsExactly("created", "updated");
+        assertThat(other.events).isEmpty();
+        assertThat(hub.stats()).containsEntry("subscribers", 2).containsEntry("recipes", 2);
+    }
+
+    @Test
+    void replaysFromLastEventIdAndResetsOnceEvicted() throws InterruptedException {
+        for (String name : new String[] {"a", "b", "c", "d"}) {
+            hub.publish(1, name, "{}");
+        }
+        long lastId = (Long) hub.stats().get("lastEventId");
+
+        // history keeps b, c and d
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe(1, lastId - 2);
+        awaitEvents(resumed, 2);
+        assertThat(resumed.events).containsExactly("c", "d");
+
+        RecordingEmitter tooOld = (RecordingEmitter) hub.subscribe(1, lastId - 4);
+        awaitEvents(tooOld, 1);
+        assertThat(tooOld.events).containsExactly(CommentStreamHub.RESET);
+
+        RecordingEmitter fresh = (RecordingEmitter) hub.subscribe(1, null);
+        hub.publish(1, "e", "{}");
+        awaitEvents(fresh, 1);
+        assertThat(fresh.events).containsExactly("e");
+    }
+
+    @Test
+    void slowSubscriberIsClosedAndIdleChannelsAreDropped() throws InterruptedException {
+        RecordingEmitter slow = (RecordingEmitter) hub.subscribe(1, null);
+        CountDownLatch release = new CountDownLatch(1);
+        slow.gate = release;
+
+        // one event is stuck in send, the next four fill the queue and one more overflows it
+        for (int i = 0; i < 6; i++) {
+            hub.publish(1, "created", "{}");
+        }
+        release.countDown();
+        // the drain completes the emitter once the stuck send returns
+        awaitCompleted(slow);
+        assertThat(slow.completed).isTrue();
+        assertThat(hub.stats()).containsEntry("subscribers", 0).containsEntry("droppedSlowConsumers", 1L);
+        long lastId = (Long) hub.stats().get("lastEventId");
+
+        RecordingEmitter listening = (RecordingEmitter) hub.subscribe(2, null);
+        hub.removeIdleChannels(System.currentTimeMillis() + 1000);
+        assertThat(hub.stats()).containsEntry("recipes", 1);
+
+        // recipe 1's history is gone, so a client that missed its last event is asked to reload
+        RecordingEmitter resumed = (RecordingEmitter) hub.subscribe(1, lastId - 1);
+        awaitEvents(resumed, 1);
+        assertThat(resumed.events).containsExactly(CommentStreamHub.RESET);
+        RecordingEmitter upToDate = (RecordingEmitter) hub.subscribe(1, lastId);
+        hub.publish(1, "deleted", "{}");
+        awaitEvents(upToDate, 1);
+        assertThat(upToDate.events).containsExactly("deleted");
+        assertThat(listening.completed).isFalse();
+    }
+
+    @Test
+    void stalledSendDoesNotHoldUpOtherRecipes() throws InterruptedException {
+        RecordingEmitter stuck = (RecordingEmitter) hub.subscribe(1, null);
+        RecordingEmitter other = (RecordingEmitter) hub.subscribe(2, null);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch entered = new CountDownLatch(1);
+        stuck.entered = entered;
+        stuck.gate = release;
+
+        // the only sender thread blocks in recipe 1's send
+        hub.publish(1, "created", "{}");
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        hub.closeStalledSenders(System.currentTimeMillis() + hub.sendTimeoutMillis);
+
+        hub.publish(2, "created", "{}");
+        awaitEvents(other, 1);
+        assertThat(other.events).containsExactly("created");
+        assertThat(release.getCount()).isEqualTo(1);
+        assertThat(hub.stats()).containsEntry("subscribers", 1).containsEntry("stalledSenders", 1L);
+
+        release.countDown();
+        awaitCompleted(stuck);
+        assertThat(stuck.completed).isTrue();
+        assertThat(other.completed).isFalse();
+    }
+
+    private static void awaitCompleted(RecordingEmitter emitter) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!emitter.completed && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static void awaitEvents(RecordingEmitter emitter, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (emitter.events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.appdevg5.ghidorakings.repository.FavoriteRepository.RecipeCount;
+
+class FavoriteCountersTest {
+
+    private FavoriteRepository favoriteRepository;
+    private JdbcTemplate jdbcTemplate;
+    private FavoriteCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository = mock(FavoriteRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+
+        counters = new FavoriteCounters();
+        counters.favoriteRepository = favoriteRepository;
+        counters.jdbcTemplate = jdbcTemplate;
+        counters.transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void flushWritesPendingDeltasOnceInOneBatch() {
+        counters.add(1, 1);
+        counters.add(1, 1);
+        counters.add(2, 1);
+        counters.add(2, -1);
+        counters.add(3, -1);
+
+        assertThat(counters.flush()).isEqualTo(2);
+
+        assertThat(flushedDeltas()).containsExactlyInAnyOrder("1+2", "3+-1");
+        assertThat(counters.getFavoriteCount(1)).isEqualTo(2);
+        assertThat(counters.getFavoriteCount(2)).isZero();
+        // nothing left to write
+        assertThat(counters.flush()).isZero();
+    }
+
+    @Test
+    void failedFlushPutsTheDeltasBackForTheNextOne() {
+        counters.add(1, 1);
+        doThrow(new DataAccessResourceFailureException("down"))
+            .doReturn(new int[] { 1 })
+            .when(jdbcTemplate).batchUpdate(startsWith("INSERT INTO recipe_counters"), anyList());
+
+        assertThat(counters.flush()).isZero();
+        counters.add(1, 1);
+        assertThat(counters.flush()).isEqualTo(1);
+
+        // the retried delta is merged with the one added in between
+        assertThat(flushedDeltas()).last().isEqualTo("1+2");
+        assertThat(counters.stats()).containsEntry("flushes", 1L).containsEntry("rowsFlushed", 1L);
+    }
+
+    @Test
+    void rebuildLoadsTotalsAndRepairsOnlyDriftedRows() {
+        List<RecipeCount> favorites = List.of(count(1, 3), count(2, 5), count(3, 1));
+        doReturn(favorites).when(favoriteRepository).countByRecipe();
+        // 1 is current, 2 lost a delta, 3 is missing and 4 has no favorites left
+        storedCounters(Map.of(1, 3L, 2, 4L, 4, 2L));
+        counters.add(9, 1);
+
+        counters.rebuild();
+
+        assertThat(counters.getFavoriteCount(1)).isEqualTo(3);
+        assertThat(counters.getFavoriteCount(2)).isEqualTo(5);
+        assertThat(counters.getFavoriteCount(9)).isZero();
+        assertThat(flushedDeltas()).containsExactlyInAnyOrder("2+5", "3+1");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> deletes = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("DELETE FROM recipe_counters"), deletes.capture());
+        assertThat(deletes.getValue()).extracting(row -> row[0]).containsExactly(4);
+    }
+
+    @Test
+    void rebuildWritesNothingWhenTheTableIsCurrent() {
+        List<RecipeCount> favorites = List.of(count(1, 3));
+        doReturn(favorites).when(favoriteRepository).countByRecipe();
+        storedCounters(Map.of(1, 3L));
+
+        counters.rebuild();
+
+        assertThat(counters.getFavoriteCount(1)).isEqualTo(3);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    // Every row written to recipe_counters so far, as "recipeId+count"
+    private List<String> flushedDeltas() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith("INSERT INTO recipe_counters"), batches.capture());
+        return batches.getAllValues().stream().flatMap(List::stream).map(row -> row[0] + "+" + row[1]).toList();
+    }
+
+    private void storedCounters(Map<Integer, Long> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<Integer, Long> row : rows.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt("recipe_id")).thenReturn(row.getKey());
+                when(rs.getLong("favorite_count")).thenReturn(row.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(eq("SELECT recipe_id, favorite_count FROM recipe_counters"), any(RowCallbackHandler.class));
+    }
+
+    private static RecipeCount count(int recipeId, long favorites) {
+        return new RecipeCount() {
+            @Override
+            public Integer getRecipeId() {
+                return recipeId;
+            }
+
+            @Override
+            public Long getFavorites() {
+                return favorites;
+            }
+        };
+    }
+}
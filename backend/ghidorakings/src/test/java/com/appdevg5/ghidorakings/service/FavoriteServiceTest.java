@@ -0,0 +1,184 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.appdevg5.ghidorakings.dto.CursorPage;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.FavoriteEntity;
+import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+class FavoriteServiceTest {
+
+    private FavoriteRepository favoriteRepository;
+    private RecipeRepository recipeRepository;
+    private FavoriteService service;
+
+    @BeforeEach
+    void setUp() {
+        favoriteRepository = mock(FavoriteRepository.class);
+        recipeRepository = mock(RecipeRepository.class);
+        when(recipeRepository.existsById(any())).thenReturn(true);
+
+        FavoriteBitmaps bitmaps = new FavoriteBitmaps(100);
+        bitmaps.favoriteRepository = favoriteRepository;
+
+        service = new FavoriteService();
+        service.favoriteRepository = favoriteRepository;
+        service.recipeRepository = recipeRepository;
+        service.favoriteBitmaps = bitmaps;
+        service.favoriteCounters = new FavoriteCounters();
+        service.eventPublisher = mock(ApplicationEventPublisher.class);
+        service.ingredientService = mock(IngredientService.class);
+    }
+
+    private static RecipeSummary summary(int recipeId) {
+        return new RecipeSummary(recipeId, "Recipe " + recipeId, null, null, null, null, 1, true, null, false);
+    }
+
+    @Test
+    void marksCopiesAndKeepsBitmapInStepWithWrites() {
+        when(favoriteRepository.findRecipeIdsByUserId(7)).thenReturn(List.of(2));
+        // the count the startup rebuild would have loaded for that favorite
+        service.favoriteCounters.add(2, 1);
+        when(favoriteRepository.findByUserIdAndRecipeId(7, 3)).thenReturn(Optional.empty());
+        when(favoriteRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        List<RecipeSummary> shared = List.of(summary(1), summary(2), summary(3));
+
+        assertThat(service.markFavorites(7, shared)).extracting(RecipeSummary::getFavorited).containsExactly(false, true, false);
+        assertThat(shared).extracting(RecipeSummary::getFavorited).containsOnlyNulls();
+
+        service.setFavorite(7, 3, true);
+        when(favoriteRepository.deleteByUserIdAndRecipeId(7, 2)).thenReturn(1);
+        service.setFavorite(7, 2, false);
+
+        assertThat(service.markFavorites(7, shared)).extracting(RecipeSummary::getFavorited).containsExactly(false, false, true);
+        // the bitmap was loaded once and then updated in place of reloading
+        verify(favoriteRepository, times(1)).findRecipeIdsByUserId(7);
+        // anonymous requests get counts but no flag
+        assertThat(service.markFavorites(null, shared)).extracting(RecipeSummary::getFavorited).containsOnlyNulls();
+        assertThat(service.markFavorites(null, shared)).extracting(RecipeSummary::getFavoriteCount).containsExactly(0L, 0L, 1L);
+    }
+
+    @Test
+    void favoritingTwiceKeepsOneRow() {
+        FavoriteEntity existing = new FavoriteEntity();
+        existing.setUserId(7);
+        existing.setRecipeId(3);
+        when(favoriteRepository.findByUserIdAndRecipeId(7, 3)).thenReturn(Optional.of(existing));
+
+        assertThat(service.setFavorite(7, 3, true)).isTrue();
+        verify(favoriteRepository, never()).save(any());
+    }
+
+    @Test
+    void favoritePagesFollowTheCursorDownTheFavoriteIds() {
+        // favorites 50, 40 and 30 point at recipes 5, 4 and 3
+        when(recipeRepository.findFavoriteSummaries(eq(7), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int before = invocation.getArgument(1);
+            int limit = invocation.<Limit>getArgument(2).max();
+            List<Object[]> rows = new ArrayList<>();
+            for (int favoriteId = 50; favoriteId >= 30 && rows.size() < limit; favoriteId -= 10) {
+                if (favoriteId < before) {
+                    rows.add(new Object[] { summary(favoriteId / 10), favoriteId });
+                }
+            }
+            return rows;
+        });
+
+        CursorPage<RecipeSummary> first = service.getFavoriteRecipesPage(7, null, 2);
+        assertThat(first.getItems()).extracting(RecipeSummary::getRecipeId).containsExactly(5, 4);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        CursorPage<RecipeSummary> second = service.getFavoriteRecipesPage(7, first.getNextCursor(), 2);
+        assertThat(second.getItems()).extracting(RecipeSummary::getRecipeId).containsExactly(3);
+        assertThat(second.getNextCursor()).isNull();
+        verify(recipeRepository).findFavoriteSummaries(7, Integer.MAX_VALUE, Limit.of(3));
+        verify(recipeRepository).findFavoriteSummaries(7, 40, Limit.of(3));
+    }
+
+    @Test
+    void favoritePageSizeDefaultsAndIsCapped() {
+        service.maxPageSize = 10;
+        when(recipeRepository.findFavoriteSummaries(any(), anyInt(), any(Limit.class))).thenReturn(List.of());
+
+        CursorPage<RecipeSummary> empty = service.getFavoriteRecipesPage(7, null, null);
+        service.getFavoriteRecipesPage(7, null, 500);
+
+        assertThat(empty.getItems()).isEmpty();
+        assertThat(empty.getNextCursor()).isNull();
+        verify(recipeRepository, times(2)).findFavoriteSummaries(7, Integer.MAX_VALUE, Limit.of(11));
+        assertThatThrownBy(() -> service.getFavoriteRecipesPage(7, null, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getFavoriteRecipesPage(7, "garbage", 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void movingAFavoriteOntoATakenPairIsAConflict() {
+        FavoriteEntity moving = favorite(10, 7, 3);
+        when(favoriteRepository.findById(10)).thenReturn(Optional.of(moving));
+        when(favoriteRepository.findByUserIdAndRecipeId(7, 4)).thenReturn(Optional.of(favorite(11, 7, 4)));
+        FavoriteEntity details = new FavoriteEntity();
+        details.setRecipeId(4);
+
+        assertThatThrownBy(() -> service.updateFavorite(10, details)).isInstanceOf(DuplicateFavoriteException.class);
+        verify(favoriteRepository, never()).save(any());
+
+        // losing the race to another request is the same conflict
+        when(favoriteRepository.findById(10)).thenReturn(Optional.of(favorite(10, 7, 3)));
+        when(favoriteRepository.findByUserIdAndRecipeId(7, 5)).thenReturn(Optional.empty());
+        when(favoriteRepository.save(any())).thenThrow(new DataIntegrityViolationException("uk_favorite_user_recipe"));
+        details.setRecipeId(5);
+        assertThatThrownBy(() -> service.updateFavorite(10, details)).isInstanceOf(DuplicateFavoriteException.class);
+        assertThat(service.favoriteCounters.getFavoriteCount(5)).isZero();
+    }
+
+    private static FavoriteEntity favorite(int favoriteId, int userId, int recipeId) {
+        FavoriteEntity favorite = new FavoriteEntity();
+        favorite.setFavoriteId(favoriteId);
+        favorite.setUserId(userId);
+        favorite.setRecipeId(recipeId);
+        return favorite;
+    }
+
+    @Test
+    void uniqueConstraintMigrationRunsOnlyUntilTheConstraintExists() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        service.jdbcTemplate = jdbcTemplate;
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(0, 1);
+        // another instance added it between our check and the ALTER
+        doThrow(new BadSqlGrammarException("alter", "ALTER TABLE favorite",
+            new SQLException("Duplicate key name 'uk_favorite_user_recipe'", "42000", 1061)))
+            .when(jdbcTemplate).execute(startsWith("ALTER TABLE favorite"));
+
+        service.enforceUniqueFavorites();
+        service.enforceUniqueFavorites();
+
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE FROM favorite"));
+        verify(jdbcTemplate, times(1)).execute(startsWith("ALTER TABLE favorite"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.appdevg5.ghidorakings.repository.IngredientRepository;
+import com.appdevg5.ghidorakings.repository.IngredientRepository.NameUsage;
+
+class IngredientSuggesterTest {
+
+    @Test
+    void suggestsCompletionsByWeightIgnoringCase() {
+        SuggestTrie trie = SuggestTrie.build(Map.of("Garlic", 40L, "Ginger", 25L, "Green onion", 30L, "Gata", 5L, "Salt", 90L), 3);
+
+        assertThat(trie.suggest("g", 10)).containsExactly("Garlic", "Green onion", "Ginger");
+        assertThat(trie.suggest("  GA", 10)).containsExactly("Garlic", "Gata");
+        assertThat(trie.suggest(" green\t  ON ", 10)).containsExactly("Green onion");
+        assertThat(trie.suggest("", 2)).containsExactly("Salt", "Garlic");
+        assertThat(trie.suggest("garlic", 10)).containsExactly("Garlic");
+        assertThat(trie.suggest("garlicky", 10)).isEmpty();
+        assertThat(SuggestTrie.EMPTY.suggest("a", 10)).isEmpty();
+    }
+
+    @Test
+    void mergesSpellingsOfTheSameNormalizedIngredient() {
+        IngredientSuggester.Weights weights = IngredientSuggester.collectWeights(List.of(
+            usage("Tomatoes", 3), usage("tomato", 5), usage("2 Tomatoes, diced", 1), usage("Soy  sauce", 2), usage("1 cup", 9)));
+
+        assertThat(weights.totals()).containsOnly(Map.entry("tomato", 9L), Map.entry("soy sauce", 2L));
+        assertThat(weights.displayNames()).containsOnly(Map.entry("tomato", "tomato"), Map.entry("soy sauce", "Soy sauce"));
+    }
+
+    @Test
+    void looksUpByNormalizedNameButShowsThePopularSpelling() {
+        IngredientSuggester suggester = new IngredientSuggester();
+        suggester.ingredientRepository = mock(IngredientRepository.class);
+        when(suggester.ingredientRepository.countByName()).thenReturn(List.of(
+            usage("2 cloves Garlic, minced", 6), usage("bawang", 3), usage("Green Onions", 4), usage("Gata", 1)));
+        suggester.rebuild();
+
+        // the popular spelling starts with a quantity, yet "gar" still finds it
+        assertThat(suggester.suggest("gar", 10)).containsExactly("2 cloves Garlic, minced");
+        assertThat(suggester.suggest("Bawang", 10)).containsExactly("2 cloves Garlic, minced");
+        assertThat(suggester.suggest("green onions", 10)).containsExactly("Green Onions");
+        // "g" is a unit to the normalizer, so it is looked up as typed
+        assertThat(suggester.suggest("g", 10)).containsExactly("2 cloves Garlic, minced", "Green Onions");
+        assertThat(suggester.suggest("coconut", 10)).containsExactly("Gata");
+        assertThat(suggester.suggest("Green   Onion", 10)).containsExactly("Green Onions");
+    }
+
+    @Test
+    void lookupsStaySubMillisecondOnALargeDictionary() {
+        Map<String, Long> weights = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            weights.put("ingredient " + Integer.toString(i, 36) + " variant", (long) (i % 997));
+        }
+        SuggestTrie trie = SuggestTrie.build(weights, IngredientSuggester.MAX_SUGGESTIONS);
+
+        String[] prefixes = {"ingredient 1", "ingredient a", "ingredient zz", "ingr", "ingredient 9x"};
+        for (int i = 0; i < 10_000; i++) {
+            trie.suggest(prefixes[i % prefixes.length], 10);
+        }
+        long start = System.nanoTime();
+        int lookups = 10_000;
+        for (int i = 0; i < lookups; i++) {
+            assertThat(trie.suggest(prefixes[i % prefixes.length], 10)).isNotEmpty();
+        }
+        long averageNanos = (System.nanoTime() - start) / lookups;
+        assertThat(averageNanos).isLessThan(1_000_000);
+    }
+
+    private static NameUsage usage(String name, long uses) {
+        return new NameUsage() {
+            public String getName() {
+                return name;
+            }
+
+            public Long getUses() {
+                return uses;
+            }
+        };
+    }
+}
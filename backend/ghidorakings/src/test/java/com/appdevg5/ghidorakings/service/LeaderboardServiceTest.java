@@ -0,0 +1,161 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.appdevg5.ghidorakings.dto.RankedRecipe;
+import com.appdevg5.ghidorakings.dto.RatingStats;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.repository.CommentRepository;
+import com.appdevg5.ghidorakings.repository.FavoriteRepository;
+import com.appdevg5.ghidorakings.repository.RatingRepository;
+import com.appdevg5.ghidorakings.repository.RecipeActivity;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+class LeaderboardServiceTest {
+
+    private RatingStatsService ratingStatsService;
+    private LeaderboardService service;
+
+    @BeforeEach
+    void setUp() {
+        ratingStatsService = mock(RatingStatsService.class);
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        // every requested recipe is approved except 4
+        when(recipeRepository.findApprovedSummariesByIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<RecipeSummary> found = new ArrayList<>();
+            for (Integer recipeId : invocation.<Collection<Integer>>getArgument(0)) {
+                if (recipeId != 4) {
+                    found.add(new RecipeSummary(recipeId, "Recipe " + recipeId, null, null, null, null, 1, true, null, false));
+                }
+            }
+            return found;
+        });
+        IngredientService ingredientService = mock(IngredientService.class);
+
+        service = new LeaderboardService();
+        service.ratingStatsService = ratingStatsService;
+        service.recipeRepository = recipeRepository;
+        service.ingredientService = ingredientService;
+        when(ratingStatsService.getAllStats()).thenReturn(List.of());
+    }
+
+    private static RatingStats stats(int recipeId, long... histogram) {
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+        }
+        return new RatingStats(recipeId, count, sum, histogram);
+    }
+
+    private static List<Integer> ids(List<RankedRecipe> board) {
+        return board.stream().map(entry -> entry.getRecipe().getRecipeId()).toList();
+    }
+
+    @Test
+    void topPrefersManyGoodVotesOverOnePerfectOne() {
+        when(ratingStatsService.getAllStats()).thenReturn(List.of(
+            stats(1, 0, 0, 0, 0, 1),
+            stats(2, 0, 0, 0, 40, 60),
+            stats(3, 0, 10, 20, 0, 0)));
+        service.refresh();
+
+        assertThat(ids(service.getTop(null))).containsExactly(2, 1, 3);
+        assertThat(ids(service.getTop(1))).containsExactly(2);
+    }
+
+    @Test
+    void trendingWeighsRecentActivityAndSkipsUnapprovedRecipes() {
+        long now = System.currentTimeMillis();
+        long twoDaysAgo = now - 48L * 3600 * 1000;
+        service.record(1, 10, RecipeActivityEvent.Kind.RATING, twoDaysAgo);
+        service.record(1, 11, RecipeActivityEvent.Kind.RATING, twoDaysAgo);
+        service.record(2, 10, RecipeActivityEvent.Kind.FAVORITE, now);
+        service.record(3, 10, RecipeActivityEvent.Kind.COMMENT, now);
+        service.record(4, 10, RecipeActivityEvent.Kind.RATING, now);
+        service.refresh();
+
+        // recipe 1: two ratings at a quarter weight each = 1.5; recipe 2: one fresh favorite = 2
+        assertThat(ids(service.getTrending(null))).containsExactly(2, 1, 3);
+        assertThat(service.getTrending(null).get(0).getScore()).isCloseTo(2.0, offset(0.01));
+    }
+
+    @Test
+    void countsEachUsersRatingAndFavoriteOncePerRecipe() {
+        long now = System.currentTimeMillis();
+        // favorite toggled three times and a second rating by the same user
+        for (int i = 0; i < 3; i++) {
+            service.onRecipeActivity(new RecipeActivityEvent(1, 10, RecipeActivityEvent.Kind.FAVORITE));
+        }
+        service.onRecipeActivity(new RecipeActivityEvent(2, 10, RecipeActivityEvent.Kind.RATING));
+        service.record(2, 10, RecipeActivityEvent.Kind.RATING, now);
+        // comments are never collapsed
+        service.record(3, 10, RecipeActivityEvent.Kind.COMMENT, now);
+        service.record(3, 10, RecipeActivityEvent.Kind.COMMENT, now);
+        service.refresh();
+
+        assertThat(service.getTrending(null)).extracting(entry -> entry.getRecipe().getRecipeId() + "=" + Math.round(entry.getScore()))
+            .containsExactly("2=3", "1=2", "3=2");
+    }
+
+    @Test
+    void seedingAppliesTheSameRule() {
+        LocalDateTime recently = LocalDateTime.now().minusMinutes(5);
+        RatingRepository ratingRepository = mock(RatingRepository.class);
+        when(ratingRepository.findActivitySince(any())).thenReturn(List.of(activity(1, 10, recently), activity(1, 10, recently)));
+        FavoriteRepository favoriteRepository = mock(FavoriteRepository.class);
+        when(favoriteRepository.findActivitySince(any())).thenReturn(List.of(activity(2, 10, recently), activity(2, 11, recently)));
+        CommentRepository commentRepository = mock(CommentRepository.class);
+        when(commentRepository.findActivitySince(any())).thenReturn(List.of());
+        service.ratingRepository = ratingRepository;
+        service.favoriteRepository = favoriteRepository;
+        service.commentRepository = commentRepository;
+
+        service.seedTrending();
+        // the same rating arriving live after the seed is not counted again
+        service.onRecipeActivity(new RecipeActivityEvent(1, 10, RecipeActivityEvent.Kind.RATING));
+        service.refresh();
+
+        assertThat(service.getTrending(null)).extracting(entry -> entry.getRecipe().getRecipeId() + "=" + Math.round(entry.getScore()))
+            .containsExactly("2=4", "1=3");
+    }
+
+    private static RecipeActivity activity(Integer recipeId, Integer userId, LocalDateTime at) {
+        return new RecipeActivity() {
+            @Override
+            public Integer getRecipeId() {
+                return recipeId;
+            }
+
+            @Override
+            public Integer getUserId() {
+                return userId;
+            }
+
+            @Override
+            public LocalDateTime getAt() {
+                return at;
+            }
+        };
+    }
+
+    @Test
+    void rejectsNonPositiveLimit() {
+        assertThatThrownBy(() -> service.getTrending(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
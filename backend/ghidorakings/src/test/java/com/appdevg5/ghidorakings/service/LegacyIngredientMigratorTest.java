@@ -0,0 +1,126 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import tools.jackson.databind.ObjectMapper;
+
+class LegacyIngredientMigratorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private ApplicationEventPublisher eventPublisher;
+    private LegacyIngredientMigrator migrator;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+
+        migrator = new LegacyIngredientMigrator();
+        migrator.jdbcTemplate = jdbcTemplate;
+        migrator.transactionTemplate = new TransactionTemplate(transactionManager);
+        migrator.objectMapper = new ObjectMapper();
+        migrator.ingredientTermService = mock(IngredientTermService.class);
+        migrator.eventPublisher = eventPublisher;
+    }
+
+    @Test
+    void parsesJsonStringsObjectsAndLegacyCommaLists() {
+        assertThat(migrator.parse("[\"Rice\", \" Garlic \", \"\", 5]"))
+            .containsExactly(new String[] {"Rice", ""}, new String[] {"Garlic", ""}, new String[] {"5", ""});
+        assertThat(migrator.parse("[{\"name\":\"Pork\",\"quantity\":\"1 kg\"},{\"name\":\"Salt\",\"quantity\":null},{\"quantity\":\"2\"}]"))
+            .containsExactly(new String[] {"Pork", "1 kg"}, new String[] {"Salt", ""});
+        assertThat(migrator.parse("[Rice, \"Soy sauce\" ,, Vinegar]"))
+            .containsExactly(new String[] {"Rice", ""}, new String[] {"Soy sauce", ""}, new String[] {"Vinegar", ""});
+        assertThat(migrator.parse("[]")).isEmpty();
+        assertThat(migrator.parse("")).isEmpty();
+        assertThat(migrator.parse("  ")).isEmpty();
+        assertThat(migrator.parse("[\"" + "x".repeat(300) + "\"]").get(0)[0]).hasSize(255);
+    }
+
+    @Test
+    void migratesOneRunAndCountsAfterCommit() {
+        rows(new Object[] {1, "[\"Rice\",\"Egg\"]"}, new Object[] {2, "Salt"}, new Object[] {3, "[\"Stale\"]"},
+            new Object[] {4, "[\"Saved meanwhile\"]"});
+        // 4 was saved with ingredient rows after the batch was read, so it is no longer locked
+        locked(1, 2, 3);
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT recipe_id FROM ingredient"), eq(Integer.class), any(Object[].class)))
+            .thenReturn(List.of(3));
+
+        assertThat(migrator.migrate()).isEqualTo(3);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> inserts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO ingredient"), inserts.capture());
+        assertThat(inserts.getValue()).extracting(row -> row[0] + "@" + row[2]).containsExactly("Rice@1", "Egg@1", "Salt@2");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> clears = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE recipe SET ingredients = NULL"), clears.capture());
+        assertThat(clears.getValue()).extracting(row -> row[1]).containsExactly(1, 2, 3);
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).extracting(event -> ((RecipeChangedEvent) event).getRecipeId()).containsExactly(1, 2, 3);
+        assertThat(migrator.stats())
+            .containsEntry("state", "done")
+            .containsEntry("recipesMigrated", 2)
+            .containsEntry("recipesCleared", 1)
+            .containsEntry("ingredientsWritten", 3)
+            .containsEntry("lastRecipeId", 4);
+    }
+
+    @Test
+    void rolledBackBatchIsNotCounted() {
+        rows(new Object[] {1, "[\"Rice\"]"});
+        locked(1);
+        when(jdbcTemplate.queryForList(startsWith("SELECT DISTINCT recipe_id FROM ingredient"), eq(Integer.class), any(Object[].class)))
+            .thenReturn(List.of());
+        doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(any());
+
+        assertThatThrownBy(() -> migrator.migrate()).isInstanceOf(TransactionSystemException.class);
+
+        assertThat(migrator.stats())
+            .containsEntry("recipesMigrated", 0)
+            .containsEntry("ingredientsWritten", 0);
+    }
+
+    // Recipes that still have the legacy column when the batch locks them
+    private void locked(Integer... recipeIds) {
+        List<Integer> ids = List.of(recipeIds);
+        when(jdbcTemplate.queryForList(startsWith("SELECT recipe_id FROM recipe"), eq(Integer.class), any(Object[].class)))
+            .thenReturn(ids);
+    }
+
+    // First query returns the given rows, the next one nothing
+    private void rows(Object[]... rows) {
+        List<Object[]> batch = new ArrayList<>(List.of(rows));
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Object[]>>any(), anyInt(), anyInt()))
+            .thenReturn(batch, List.of());
+    }
+}
@@ -0,0 +1,103 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.appdevg5.ghidorakings.dto.PantryMatch;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.IngredientTermEntity;
+import com.appdevg5.ghidorakings.repository.IngredientTermRepository;
+
+class PantryIndexTest {
+
+    private PantryIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // every name misses the repository, so the first resolve of each term inserts it
+        IngredientTermRepository termRepository = mock(IngredientTermRepository.class);
+        AtomicInteger nextTermId = new AtomicInteger(100);
+        when(termRepository.findByName(anyString())).thenReturn(Optional.empty());
+        when(termRepository.save(any(IngredientTermEntity.class))).thenAnswer(invocation -> {
+            IngredientTermEntity term = invocation.getArgument(0);
+            ReflectionTestUtils.setField(term, "termId", nextTermId.getAndIncrement());
+            return term;
+        });
+        IngredientTermService termService = new IngredientTermService();
+        termService.ingredientTermRepository = termRepository;
+
+        index = new PantryIndex();
+        index.ingredientTermService = termService;
+        index.indexBatch(List.of(
+            recipe(1, "Garlic Rice", "Rice", "2 cloves Garlic, minced", "Oil"),
+            recipe(2, "Adobo", "Chicken", "Garlic", "Soy sauce", "Vinegar", "Salt"),
+            recipe(3, "Boiled Eggs", "Eggs", "Water"),
+            recipe(4, "Leche Flan", "Eggs", "Milk", "Sugar", "Vanilla"),
+            recipe(5, "Ginisang Talong", "Talong", "Sibuyas", "Kamatis")));
+    }
+
+    @Test
+    void ranksFullyCookableFirstThenByMissingCount() {
+        List<PantryMatch> matches = index.match(List.of("rice", "garlic", "oil", "egg", "chicken"), 2, 0, 10);
+
+        assertThat(ids(matches)).containsExactly(1, 3, 2);
+        assertThat(matches.get(0).getMissingIngredients()).isEmpty();
+        assertThat(matches.get(2).getMissingIngredients()).containsExactly("soy sauce", "vinegar");
+        assertThat(matches.get(2).getMatchedCount()).isEqualTo(3);
+        assertThat(matches.get(2).getTotalCount()).isEqualTo(5);
+    }
+
+    @Test
+    void staplesAloneDoNotMakeACandidate() {
+        assertThat(index.match(List.of("salt", "water"), 5, 0, 10)).isEmpty();
+        assertThat(index.match(List.of("unknown thing"), 5, 0, 10)).isEmpty();
+    }
+
+    @Test
+    void removingAndReindexingUpdatesMatches() {
+        index.remove(3);
+        assertThat(ids(index.match(List.of("eggs"), 0, 0, 10))).isEmpty();
+
+        index.indexBatch(List.of(recipe(4, "Leche Flan", "Eggs")));
+        assertThat(ids(index.match(List.of("eggs"), 0, 0, 10))).containsExactly(4);
+    }
+
+    @Test
+    void aliasesShareOneTerm() {
+        List<PantryMatch> matches = index.match(List.of("eggplant", "onions", "tomato"), 0, 0, 10);
+
+        assertThat(ids(matches)).containsExactly(5);
+        assertThat(index.match(List.of("aubergine"), 2, 0, 10).get(0).getMissingIngredients())
+            .containsExactly("onion", "tomato");
+    }
+
+    @Test
+    void normalizerStripsQuantitiesUnitsAndPreparation() {
+        assertThat(IngredientNormalizer.normalize("2 cups Tomatoes (diced)")).isEqualTo("tomato");
+        assertThat(IngredientNormalizer.normalize("Garlic, minced")).isEqualTo("garlic");
+        assertThat(IngredientNormalizer.normalize("1/2 tsp")).isNull();
+    }
+
+    private static RecipeSummary recipe(int id, String title, String... ingredients) {
+        RecipeSummary summary = new RecipeSummary(id, title, null, null, null, null, 1, true, null, false);
+        summary.setIngredientNames(new ArrayList<>(List.of(ingredients)));
+        return summary;
+    }
+
+    private static List<Integer> ids(List<PantryMatch> matches) {
+        return matches.stream().map(match -> match.getRecipe().getRecipeId()).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,98 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        hasher.stop();
+    }
+
+    private static PasswordHasher hasher(PasswordEncoder encoder, int threads, int queueCapacity) {
+        PasswordHasher hasher = new PasswordHasher();
+        hasher.passwordEncoder = encoder;
+        hasher.threads = threads;
+        hasher.queueCapacity = queueCapacity;
+        hasher.maxWait = Duration.ofSeconds(5);
+        hasher.strength = 4;
+        hasher.start();
+        return hasher;
+    }
+
+    @Test
+    void hashesOnThePoolAndFlagsOtherCosts() {
+        hasher = hasher(new BCryptPasswordEncoder(4), 1, 4);
+
+        String hash = hasher.encode("secret");
+        assertThat(hasher.matches("secret", hash)).isTrue();
+        assertThat(hasher.matches("wrong", hash)).isFalse();
+        assertThat(hasher.needsRehash(hash)).isFalse();
+        assertThat(hasher.needsRehash(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+        assertThat(hasher.stats()).containsEntry("completed", 3L).containsEntry("rejected", 0L);
+    }
+
+    @Test
+    void failedBackgroundRehashIsCountedInsteadOfLost() throws Exception {
+        hasher = hasher(new BCryptPasswordEncoder(4), 1, 4);
+        CountDownLatch attempted = new CountDownLatch(1);
+
+        hasher.rehashInBackground("secret", hash -> {
+            attempted.countDown();
+            throw new IllegalStateException("user row locked");
+        });
+
+        assertThat(attempted.await(5, TimeUnit.SECONDS)).isTrue();
+        while (hasher.stats().get("completed").equals(0L)) {
+            Thread.sleep(5);
+        }
+        assertThat(hasher.stats()).containsEntry("rehashFailed", 1L).containsEntry("rehashed", 0L);
+    }
+
+    @Test
+    void failsFastOnceTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.encode(any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        hasher = hasher(blocking, 1, 1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            // one running, one queued
+            callers.submit(() -> hasher.encode("a"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            callers.submit(() -> hasher.encode("b"));
+            while (hasher.stats().get("queueDepth").equals(0)) {
+                Thread.sleep(5);
+            }
+
+            assertThatThrownBy(() -> hasher.encode("c"))
+                .isInstanceOf(PasswordHashingBusyException.class);
+            assertThat(hasher.stats()).containsEntry("rejected", 1L);
+        } finally {
+            release.countDown();
+            callers.shutdown();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.appdevg5.ghidorakings.dto.RatingStats;
+import com.appdevg5.ghidorakings.entity.RecipeRatingStatsEntity;
+import com.appdevg5.ghidorakings.repository.RatingRepository;
+import com.appdevg5.ghidorakings.repository.RatingRepository.ScoreCount;
+import com.appdevg5.ghidorakings.repository.RecipeRatingStatsRepository;
+
+class RatingStatsServiceTest {
+
+    private RatingRepository ratingRepository;
+    private RecipeRatingStatsRepository statsRepository;
+    private JdbcTemplate jdbcTemplate;
+    private RatingStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        ratingRepository = mock(RatingRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        statsRepository = mock(RecipeRatingStatsRepository.class);
+        when(statsRepository.findAll()).thenReturn(List.of());
+
+        service = new RatingStatsService();
+        service.ratingRepository = ratingRepository;
+        service.recipeRatingStatsRepository = statsRepository;
+        service.jdbcTemplate = jdbcTemplate;
+        service.transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void deltasMoveCountSumAndHistogram() {
+        service.applyDelta(1, null, 5);
+        service.applyDelta(1, null, 3);
+        service.applyDelta(1, 5, 4);
+        service.applyDelta(1, 3, null);
+
+        RatingStats stats = service.getStats(1);
+        assertThat(stats.getCount()).isEqualTo(1);
+        assertThat(stats.getSum()).isEqualTo(4);
+        assertThat(stats.getHistogram()).containsExactly(0, 0, 0, 1, 0);
+        assertThat(stats.getAverage()).isEqualTo(4.0);
+        verify(jdbcTemplate, times(4)).update(startsWith("INSERT INTO recipe_rating_stats"), any(Object[].class));
+    }
+
+    @Test
+    void unchangedOrLegacyScoresWriteNothing() {
+        service.applyDelta(1, 4, 4);
+        service.applyDelta(1, null, 0);
+
+        assertThat(service.getStats(1).getCount()).isZero();
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void reconcileReplacesDriftedStatsWithRawCounts() {
+        service.applyDelta(1, null, 5);
+        service.applyDelta(2, null, 2);
+        // a 1-star rating and recipe 2's only rating changed without going through applyDelta
+        when(ratingRepository.countByRecipeAndScore()).thenReturn(List.of(row(1, 5, 2), row(1, 1, 1)));
+        List<RecipeRatingStatsEntity> rows = List.of(stored(stats(1, 0, 0, 0, 0, 1)), stored(stats(2, 0, 1, 0, 0, 0)));
+        when(statsRepository.findAll()).thenReturn(rows);
+        lockedRow(1, stats(1, 0, 0, 0, 0, 1));
+        recount(1, 1, 0, 0, 0, 2);
+        lockedRow(2, stats(2, 0, 1, 0, 0, 0));
+        recount(2, 0, 0, 0, 0, 0);
+
+        assertThat(service.reconcile()).isEqualTo(2);
+
+        assertThat(service.getStats(1).getHistogram()).containsExactly(1, 0, 0, 0, 2);
+        assertThat(service.getStats(1).getSum()).isEqualTo(11);
+        assertThat(service.getStats(2).getCount()).isZero();
+        assertThat(service.getAllStats()).extracting(RatingStats::getRecipeId).containsExactly(1);
+        verify(jdbcTemplate).update(startsWith("UPDATE recipe_rating_stats"), any(Object[].class));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM recipe_rating_stats"), any(Object[].class));
+    }
+
+    @Test
+    void ratingsCommittedDuringReconcileAreKept() {
+        service.applyDelta(1, null, 5);
+        when(ratingRepository.countByRecipeAndScore()).thenReturn(List.of(row(1, 5, 1), row(1, 1, 1)));
+        List<RecipeRatingStatsEntity> rows = List.of(stored(stats(1, 0, 0, 0, 0, 1)));
+        when(statsRepository.findAll()).thenAnswer(invocation -> {
+            // after the bulk read: a 4-star rating lands on recipe 1 and recipe 3 gets its first rating
+            service.applyDelta(1, null, 4);
+            service.applyDelta(3, null, 5);
+            return rows;
+        });
+        // under the row lock both the row and the recount include the 4-star rating
+        lockedRow(1, stats(1, 0, 0, 0, 1, 1));
+        recount(1, 1, 0, 0, 1, 1);
+
+        assertThat(service.reconcile()).isEqualTo(1);
+
+        assertThat(service.getStats(1).getHistogram()).containsExactly(1, 0, 0, 1, 1);
+        assertThat(service.getStats(3).getCount()).isEqualTo(1);
+    }
+
+    private static RatingStats stats(int recipeId, long... histogram) {
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+        }
+        return new RatingStats(recipeId, count, sum, histogram);
+    }
+
+    private static RecipeRatingStatsEntity stored(RatingStats stats) {
+        RecipeRatingStatsEntity row = mock(RecipeRatingStatsEntity.class);
+        when(row.getRecipeId()).thenReturn(stats.getRecipeId());
+        when(row.getRatingCount()).thenReturn(stats.getCount());
+        when(row.getScoreSum()).thenReturn(stats.getSum());
+        when(row.getHistogram()).thenReturn(stats.getHistogram());
+        return row;
+    }
+
+    // The recipe_rating_stats row read with FOR UPDATE
+    private void lockedRow(int recipeId, RatingStats stats) {
+        when(jdbcTemplate.query(startsWith("SELECT rating_count"), ArgumentMatchers.<RowMapper<RatingStats>>any(), eq(recipeId)))
+            .thenReturn(List.of(stats));
+    }
+
+    // The per-score recount of one recipe's ratings
+    private void recount(int recipeId, long... histogram) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < histogram.length; i++) {
+                if (histogram[i] > 0) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getInt("score")).thenReturn(i + 1);
+                    when(rs.getLong("ratings")).thenReturn(histogram[i]);
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT score"), any(RowCallbackHandler.class), eq(recipeId));
+    }
+
+    private static ScoreCount row(int recipeId, int score, long ratings) {
+        return new ScoreCount() {
+            public Integer getRecipeId() {
+                return recipeId;
+            }
+
+            public Integer getScore() {
+                return score;
+            }
+
+            public Long getRatings() {
+                return ratings;
+            }
+        };
+    }
+}
@@ -0,0 +1,309 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.IngredientEntity;
+import com.appdevg5.ghidorakings.entity.RecipeEntity;
+import com.appdevg5.ghidorakings.repository.IngredientRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+/**
+ * Drives RecipeService and IngredientService against in-memory repositories
+ * and checks that every mutation is visible to the very next cached read.
+ */
+class RecipeCacheTest {
+
+    private final Map<Integer, RecipeEntity> recipeTable = new TreeMap<>();
+    private final Map<Integer, IngredientEntity> ingredientTable = new TreeMap<>();
+    private final AtomicInteger recipeIds = new AtomicInteger();
+    private final AtomicInteger ingredientIds = new AtomicInteger();
+
+    private RecipeCache recipeCache;
+    private RecipeService recipeService;
+    private IngredientService ingredientService;
+
+    @BeforeEach
+    void setUp() {
+        recipeCache = new RecipeCache(100, Duration.ofMinutes(10));
+        ApplicationEventPublisher publisher = event -> recipeCache.onRecipeChanged((RecipeChangedEvent) event);
+
+        RecipeRepository recipeRepository = recipeRepository();
+
+        ingredientService = new IngredientService();
+        ReflectionTestUtils.setField(ingredientService, "ingredientRepository", ingredientRepository());
+        ReflectionTestUtils.setField(ingredientService, "recipeRepository", recipeRepository);
+        ReflectionTestUtils.setField(ingredientService, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(ingredientService, "ingredientTermService", mock(IngredientTermService.class));
+
+        recipeService = new RecipeService();
+        recipeService.recipeRepository = recipeRepository;
+        recipeService.ingredientService = ingredientService;
+        recipeService.recipeImageService = mock(RecipeImageService.class);
+        recipeService.recipeCache = recipeCache;
+        recipeService.eventPublisher = publisher;
+    }
+
+    @Test
+    void noStaleReadsAfterEachMutation() {
+        RecipeEntity created = recipeService.createRecipe(recipe("Adobo", "Garlic"));
+        int id = created.getRecipeId();
+
+        // create: not approved yet, so absent from the approved list
+        assertThat(titles()).isEmpty();
+        assertThat(recipeService.getRecipeById(id).isApproved()).isFalse();
+
+        recipeService.approveRecipe(id);
+        assertThat(titles()).containsExactly("Adobo");
+        assertThat(recipeService.getRecipeById(id).isApproved()).isTrue();
+
+        RecipeEntity rename = new RecipeEntity();
+        rename.setTitle("Chicken Adobo");
+        recipeService.updateRecipe(id, rename);
+        assertThat(titles()).containsExactly("Chicken Adobo");
+        assertThat(recipeService.getRecipeById(id).getTitle()).isEqualTo("Chicken Adobo");
+
+        IngredientEntity extra = new IngredientEntity();
+        extra.setName("Soy sauce");
+        extra.setRecipeId(id);
+        IngredientEntity savedExtra = ingredientService.createIngredient(extra);
+        assertThat(ingredientNames(id)).containsExactly("Garlic", "Soy sauce");
+        assertThat(recipeService.getApprovedRecipes().get(0).getIngredientNames()).containsExactly("Garlic", "Soy sauce");
+
+        IngredientEntity renamed = new IngredientEntity();
+        renamed.setName("Vinegar");
+        renamed.setRecipeId(id);
+        ingredientService.updateIngredient(savedExtra.getIngredientId(), renamed);
+        assertThat(ingredientNames(id)).containsExactly("Garlic", "Vinegar");
+
+        ingredientService.deleteIngredient(savedExtra.getIngredientId());
+        assertThat(ingredientNames(id)).containsExactly("Garlic");
+
+        ingredientService.replaceIngredientsForRecipe(id, List.of(ingredient("Pepper")));
+        assertThat(ingredientNames(id)).containsExactly("Pepper");
+        assertThat(recipeService.getApprovedRecipes().get(0).getIngredientNames()).containsExactly("Pepper");
+
+        recipeService.deleteRecipe(id);
+        assertThat(titles()).isEmpty();
+        assertThat(recipeService.getRecipeById(id)).isNull();
+    }
+
+    @Test
+    void repeatedReadsAreServedFromCache() {
+        RecipeEntity created = recipeService.createRecipe(recipe("Sinigang", "Tamarind"));
+        recipeService.approveRecipe(created.getRecipeId());
+
+        recipeService.getApprovedRecipes();
+        recipeService.getApprovedRecipes();
+        recipeService.getRecipeById(created.getRecipeId());
+        recipeService.getRecipeById(created.getRecipeId());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> approved = (Map<String, Object>) recipeCache.stats().get("approvedList");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> byId = (Map<String, Object>) recipeCache.stats().get("recipesById");
+        assertThat(approved.get("hits")).isEqualTo(1L);
+        assertThat(approved.get("misses")).isEqualTo(1L);
+        assertThat(byId.get("hits")).isEqualTo(1L);
+    }
+
+    @Test
+    void cachedRecipeIsCopiedForEveryCaller() {
+        RecipeEntity legacy = new RecipeEntity();
+        legacy.setRecipeId(42);
+        legacy.setTitle("Pancit");
+        legacy.setIngredientsJson("[\"Noodles\", \"Cabbage\"]");
+
+        RecipeEntity first = recipeCache.getRecipe(42, id -> legacy);
+        first.setTitle("Changed");
+        first.getIngredients().get(0).setName("Changed");
+        first.getIngredients().clear();
+
+        RecipeEntity second = recipeCache.getRecipe(42, id -> null);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getTitle()).isEqualTo("Pancit");
+        assertThat(second.getIngredients()).extracting(IngredientEntity::getName).containsExactly("Noodles", "Cabbage");
+    }
+
+    @Test
+    void evictDuringALoadDiscardsTheListBeingLoaded() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<RecipeSummary> stale = List.of(new RecipeSummary(1, "Stale", null, null, null, null, 1, true, null, false));
+        List<RecipeSummary> fresh = List.of(new RecipeSummary(1, "Fresh", null, null, null, null, 1, true, null, false));
+
+        ExecutorService threads = Executors.newFixedThreadPool(2);
+        try {
+            // a read that started before the mutation committed
+            Future<?> read = threads.submit(() -> recipeCache.getApprovedRecipes(() -> {
+                loading.countDown();
+                await(release);
+                return stale;
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+            AtomicReference<Thread> evictor = new AtomicReference<>();
+            Future<?> evict = threads.submit(() -> {
+                evictor.set(Thread.currentThread());
+                recipeCache.evict(1);
+            });
+            // let the evict either finish or block on the load before the load completes
+            while (!evict.isDone() && (evictor.get() == null || evictor.get().getState() == Thread.State.RUNNABLE)) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+            read.get(5, TimeUnit.SECONDS);
+            evict.get(5, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertThat(recipeCache.getApprovedRecipes(() -> fresh)).isSameAs(fresh);
+    }
+
+    @Test
+    void approvedListIsCappedAndLargeCatalogsAreStreamedInstead() {
+        recipeService.listMaxResults = 2;
+        recipeService.approveRecipe(recipeService.createRecipe(recipe("Adobo", "Garlic")).getRecipeId());
+        assertThat(recipeService.getAllApprovedRecipesIfCached()).hasSize(1);
+
+        recipeService.approveRecipe(recipeService.createRecipe(recipe("Sinigang", "Tamarind")).getRecipeId());
+        recipeService.approveRecipe(recipeService.createRecipe(recipe("Kare-Kare", "Peanut")).getRecipeId());
+        assertThat(titles()).containsExactly("Adobo", "Sinigang");
+        assertThat(recipeService.getAllApprovedRecipesIfCached()).isNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> titles() {
+        return recipeService.getApprovedRecipes().stream().map(RecipeSummary::getTitle).collect(Collectors.toList());
+    }
+
+    private List<String> ingredientNames(int recipeId) {
+        return recipeService.getRecipeById(recipeId).getIngredients().stream()
+            .map(IngredientEntity::getName).collect(Collectors.toList());
+    }
+
+    private static RecipeEntity recipe(String title, String ingredientName) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setTitle(title);
+        recipe.setUserId(1);
+        recipe.setIngredients(List.of(ingredient(ingredientName)));
+        return recipe;
+    }
+
+    private static IngredientEntity ingredient(String name) {
+        IngredientEntity ingredient = new IngredientEntity();
+        ingredient.setName(name);
+        return ingredient;
+    }
+
+    // Copies on the way in and out so cached objects can never alias table rows
+    private static RecipeEntity copy(RecipeEntity source) {
+        RecipeEntity copy = new RecipeEntity();
+        copy.setRecipeId(source.getRecipeId());
+        copy.setTitle(source.getTitle());
+        copy.setUserId(source.getUserId());
+        copy.setApproved(source.isApproved());
+        return copy;
+    }
+
+    private RecipeRepository recipeRepository() {
+        RecipeRepository repository = mock(RecipeRepository.class);
+        when(repository.save(any(RecipeEntity.class))).thenAnswer(invocation -> {
+            RecipeEntity recipe = invocation.getArgument(0);
+            if (recipe.getRecipeId() == null) {
+                recipe.setRecipeId(recipeIds.incrementAndGet());
+            }
+            recipeTable.put(recipe.getRecipeId(), copy(recipe));
+            return recipe;
+        });
+        when(repository.findById(anyInt())).thenAnswer(invocation ->
+            Optional.ofNullable(recipeTable.get(invocation.<Integer>getArgument(0))).map(RecipeCacheTest::copy));
+        doAnswer(invocation -> recipeTable.remove(invocation.<Integer>getArgument(0)))
+            .when(repository).deleteById(anyInt());
+        when(repository.findSummariesByApproval(anyBoolean(), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            boolean approved = invocation.getArgument(0);
+            Limit limit = invocation.getArgument(2);
+            List<RecipeSummary> rows = new ArrayList<>();
+            for (RecipeEntity recipe : recipeTable.values()) {
+                if (limit.isLimited() && rows.size() == limit.max()) {
+                    break;
+                }
+                if (recipe.isApproved() == approved) {
+                    rows.add(new RecipeSummary(recipe.getRecipeId(), recipe.getTitle(), null, null, null, null,
+                        recipe.getUserId(), recipe.isApproved(), null, false));
+                }
+            }
+            return rows;
+        });
+        return repository;
+    }
+
+    private IngredientRepository ingredientRepository() {
+        IngredientRepository repository = mock(IngredientRepository.class);
+        when(repository.save(any(IngredientEntity.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<IngredientEntity> saved = new ArrayList<>();
+            for (IngredientEntity ingredient : invocation.<Iterable<IngredientEntity>>getArgument(0)) {
+                saved.add(store(ingredient));
+            }
+            return saved;
+        });
+        when(repository.findById(anyInt())).thenAnswer(invocation ->
+            Optional.ofNullable(ingredientTable.get(invocation.<Integer>getArgument(0))));
+        doAnswer(invocation -> ingredientTable.remove(invocation.<Integer>getArgument(0)))
+            .when(repository).deleteById(anyInt());
+        doAnswer(invocation -> ingredientTable.values().removeIf(i -> i.getRecipeId().equals(invocation.getArgument(0))))
+            .when(repository).deleteByRecipeId(anyInt());
+        when(repository.findByRecipeId(anyInt())).thenAnswer(invocation -> ingredientTable.values().stream()
+            .filter(i -> i.getRecipeId().equals(invocation.getArgument(0))).collect(Collectors.toList()));
+        when(repository.findByRecipeIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            return ingredientTable.values().stream().filter(i -> ids.contains(i.getRecipeId())).collect(Collectors.toList());
+        });
+        return repository;
+    }
+
+    private IngredientEntity store(IngredientEntity ingredient) {
+        if (ingredient.getIngredientId() == null) {
+            ingredient.setIngredientId(ingredientIds.incrementAndGet());
+        }
+        ingredientTable.put(ingredient.getIngredientId(), ingredient);
+        return ingredient;
+    }
+}
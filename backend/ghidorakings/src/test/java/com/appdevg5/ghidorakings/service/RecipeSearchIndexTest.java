@@ -0,0 +1,190 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.IngredientEntity;
+import com.appdevg5.ghidorakings.repository.IngredientRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository.RecipeText;
+
+class RecipeSearchIndexTest {
+
+    // recipeId -> {title, description, steps, comma separated ingredients, approved}
+    private final Map<Integer, String[]> table = new TreeMap<>();
+    private RecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        RecipeRepository recipeRepository = mock(RecipeRepository.class);
+        IngredientRepository ingredientRepository = mock(IngredientRepository.class);
+
+        when(recipeRepository.findSummariesByApproval(eq(true), anyInt(), any(Limit.class))).thenAnswer(invocation -> {
+            int after = invocation.getArgument(1);
+            int max = invocation.<Limit>getArgument(2).max();
+            return table.keySet().stream().filter(id -> id > after && approved(id)).limit(max)
+                .map(this::summary).collect(Collectors.toList());
+        });
+        when(recipeRepository.findSummaryById(anyInt())).thenAnswer(invocation ->
+            table.containsKey(invocation.<Integer>getArgument(0)) ? summary(invocation.getArgument(0)) : null);
+        when(recipeRepository.findTextByRecipeIdIn(anyCollection())).thenAnswer(invocation ->
+            invocation.<Collection<Integer>>getArgument(0).stream().map(this::text).collect(Collectors.toList()));
+        when(ingredientRepository.findByRecipeIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<IngredientEntity> rows = new ArrayList<>();
+            for (Integer id : invocation.<Collection<Integer>>getArgument(0)) {
+                for (String name : table.get(id)[3].split(",")) {
+                    IngredientEntity ingredient = new IngredientEntity();
+                    ingredient.setRecipeId(id);
+                    ingredient.setName(name);
+                    rows.add(ingredient);
+                }
+            }
+            return rows;
+        });
+
+        IngredientService ingredientService = new IngredientService();
+        ReflectionTestUtils.setField(ingredientService, "ingredientRepository", ingredientRepository);
+
+        index = new RecipeSearchIndex();
+        index.recipeRepository = recipeRepository;
+        index.ingredientService = ingredientService;
+        // refresh on the calling thread
+        index.refresher = Runnable::run;
+    }
+
+    @Test
+    void ranksTitleMatchesFirstAndStemsBothSides() {
+        table.put(1, new String[] {"Garlic Fried Rice", "Breakfast staple", "Fry the garlic", "Rice,Garlic,Oil", "true"});
+        table.put(2, new String[] {"Tomato Soup", "Made with fried garlic bits", "Simmer tomatoes", "Tomato,Garlic", "true"});
+        table.put(3, new String[] {"Leche Flan", "Dessert", "Steam", "Eggs,Milk,Sugar", "true"});
+        table.put(4, new String[] {"Fried Chicken", "Pending review", "Fry", "Chicken", "false"});
+        index.rebuild();
+
+        assertThat(ids(index.search("frying garlic", 0, 10))).containsExactly(1, 2);
+        assertThat(ids(index.search("tomato", 0, 10))).containsExactly(2);
+        assertThat(ids(index.search("egg", 0, 10))).containsExactly(3);
+        assertThat(index.search("the and", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void refreshFollowsApprovalEditsAndDeletes() {
+        table.put(1, new String[] {"Adobo", "Classic", "Braise", "Pork,Vinegar", "true"});
+        table.put(2, new String[] {"Sinigang", "Sour soup", "Boil", "Pork,Tamarind", "false"});
+        index.rebuild();
+        assertThat(ids(index.search("pork", 0, 10))).containsExactly(1);
+
+        table.get(2)[4] = "true";
+        index.onRecipeChanged(new RecipeChangedEvent(2));
+        assertThat(ids(index.search("pork", 0, 10))).containsExactlyInAnyOrder(1, 2);
+
+        table.get(1)[3] = "Chicken,Vinegar";
+        index.onRecipeChanged(new RecipeChangedEvent(1));
+        assertThat(ids(index.search("pork", 0, 10))).containsExactly(2);
+        assertThat(ids(index.search("chicken", 0, 10))).containsExactly(1);
+
+        table.remove(2);
+        index.onRecipeChanged(new RecipeChangedEvent(2));
+        assertThat(index.search("pork", 0, 10)).isEmpty();
+        assertThat(index.stats().get("recipes")).isEqualTo(1);
+    }
+
+    @Test
+    void pagesThroughTiedScoresInRecipeIdOrder() {
+        for (int id = 1; id <= 5; id++) {
+            table.put(id, new String[] {"Rice " + id, "", "", "Water", "true"});
+        }
+        index.rebuild();
+
+        assertThat(ids(index.search("rice", 0, 2))).containsExactly(1, 2);
+        assertThat(ids(index.search("rice", 2, 2))).containsExactly(3, 4);
+        assertThat(ids(index.search("rice", 4, 2))).containsExactly(5);
+    }
+
+    @Test
+    void pagesStayConsistentAtOneHundredThousandRecipes() {
+        String[] words = {"chicken", "pork", "beef", "garlic", "onion", "rice", "noodle", "soup", "fried", "grilled",
+            "adobo", "sinigang", "tomato", "vinegar", "soy", "sugar", "egg", "milk", "pepper", "salt"};
+        for (int id = 1; id <= 100_000; id++) {
+            String title = words[id % 20] + " " + words[(id / 20) % 20] + " " + id;
+            String description = words[(id * 7) % 20] + " " + words[(id * 11) % 20] + " dish number " + id;
+            String steps = "cook the " + words[(id * 3) % 20] + " with " + words[(id * 13) % 20];
+            String ingredients = words[(id * 17) % 20] + "," + words[(id * 19) % 20];
+            table.put(id, new String[] {title, description, steps, ingredients, "true"});
+        }
+        index.rebuild();
+        assertThat(index.stats().get("recipes")).isEqualTo(100_000);
+
+        // the top-k heap must agree with a single larger page
+        for (String query : new String[] {"garlic fried rice", "chicken adobo", "pork sinigang soup", "egg"}) {
+            List<Integer> firstForty = ids(index.search(query, 0, 40));
+            assertThat(firstForty).hasSize(40).doesNotHaveDuplicates();
+            List<Integer> paged = new ArrayList<>(ids(index.search(query, 0, 20)));
+            paged.addAll(ids(index.search(query, 20, 20)));
+            assertThat(paged).isEqualTo(firstForty);
+        }
+
+        // the target is under 10 ms per query (measured p50 0.9 ms, p99 4 ms); the median is held to it
+        // and p99 gets five times that, so a busy CI machine does not fail the build
+        String[] queries = {"garlic fried rice", "chicken adobo", "pork sinigang soup", "egg", "beef tomato noodle"};
+        for (int warmup = 0; warmup < 200; warmup++) {
+            index.search(queries[warmup % queries.length], 0, 20);
+        }
+        long[] nanos = new long[500];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            assertThat(index.search(queries[i % queries.length], 0, 20)).hasSize(20);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        assertThat(nanos[nanos.length / 2]).isLessThan(10_000_000L);
+        assertThat(nanos[nanos.length * 99 / 100]).isLessThan(50_000_000L);
+    }
+
+    private boolean approved(Integer id) {
+        return Boolean.parseBoolean(table.get(id)[4]);
+    }
+
+    private RecipeSummary summary(Integer id) {
+        return new RecipeSummary(id, table.get(id)[0], null, null, null, null, 1, approved(id), null, false);
+    }
+
+    private RecipeText text(Integer id) {
+        String[] row = table.get(id);
+        return new RecipeText() {
+            public Integer getRecipeId() {
+                return id;
+            }
+
+            public String getDescription() {
+                return row[1];
+            }
+
+            public String getSteps() {
+                return row[2];
+            }
+        };
+    }
+
+    private static List<Integer> ids(List<RecipeSummary> hits) {
+        return hits.stream().map(RecipeSummary::getRecipeId).collect(Collectors.toList());
+    }
+}
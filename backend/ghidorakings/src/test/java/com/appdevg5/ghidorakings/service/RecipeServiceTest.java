@@ -0,0 +1,124 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.appdevg5.ghidorakings.dto.CursorPage;
+import com.appdevg5.ghidorakings.dto.RecipeSummary;
+import com.appdevg5.ghidorakings.entity.IngredientEntity;
+import com.appdevg5.ghidorakings.repository.IngredientRepository;
+import com.appdevg5.ghidorakings.repository.RecipeRepository;
+
+class RecipeServiceTest {
+
+    private RecipeRepository recipeRepository;
+    private IngredientRepository ingredientRepository;
+    private RecipeService recipeService;
+
+    @BeforeEach
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        ingredientRepository = mock(IngredientRepository.class);
+
+        IngredientService ingredientService = new IngredientService();
+        ReflectionTestUtils.setField(ingredientService, "ingredientRepository", ingredientRepository);
+        ReflectionTestUtils.setField(ingredientService, "ingredientTermService", mock(IngredientTermService.class));
+
+        recipeService = new RecipeService();
+        recipeService.recipeRepository = recipeRepository;
+        recipeService.ingredientService = ingredientService;
+        recipeService.recipeCache = new RecipeCache(100, Duration.ofMinutes(1));
+
+        // Every recipe gets two ingredients back from the batched query
+        when(ingredientRepository.findByRecipeIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            List<IngredientEntity> rows = new ArrayList<>();
+            for (Integer id : ids) {
+                rows.add(ingredient(id, "salt"));
+                rows.add(ingredient(id, "pepper"));
+            }
+            return rows;
+        });
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1000})
+    void approvedSummariesUseOneIngredientQueryRegardlessOfSize(int recipeCount) {
+        when(recipeRepository.findSummariesByApproval(eq(true), anyInt(), any(Limit.class)))
+            .thenReturn(recipes(recipeCount));
+
+        List<RecipeSummary> result = recipeService.getApprovedRecipes();
+
+        assertThat(result).hasSize(recipeCount);
+        assertThat(result).allSatisfy(recipe -> assertThat(recipe.getIngredientNames()).containsExactly("salt", "pepper"));
+        verify(ingredientRepository, times(1)).findByRecipeIdIn(anyCollection());
+        verify(ingredientRepository, never()).findByRecipeId(anyInt());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 1000})
+    void userSummariesUseOneIngredientQueryRegardlessOfSize(int recipeCount) {
+        when(recipeRepository.findSummariesByUserId(eq(7), anyInt(), any(Limit.class)))
+            .thenReturn(recipes(recipeCount));
+
+        List<RecipeSummary> result = recipeService.getRecipesByUserId(7);
+
+        assertThat(result).hasSize(recipeCount);
+        verify(ingredientRepository, times(1)).findByRecipeIdIn(anyCollection());
+        verify(ingredientRepository, never()).findByRecipeId(anyInt());
+    }
+
+    @Test
+    void pageCursorResumesAfterLastRecipeId() {
+        // size + 1 rows returned means another page exists
+        when(recipeRepository.findSummariesByApproval(eq(true), eq(0), eq(Limit.of(4))))
+            .thenReturn(recipes(4));
+        when(recipeRepository.findSummariesByApproval(eq(true), eq(3), eq(Limit.of(4))))
+            .thenReturn(recipes(4).subList(3, 4));
+
+        CursorPage<RecipeSummary> first = recipeService.getApprovedRecipesPage(null, 3);
+        assertThat(first.getItems()).extracting(RecipeSummary::getRecipeId).containsExactly(1, 2, 3);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        CursorPage<RecipeSummary> second = recipeService.getApprovedRecipesPage(first.getNextCursor(), 3);
+        assertThat(second.getItems()).extracting(RecipeSummary::getRecipeId).containsExactly(4);
+        assertThat(second.getNextCursor()).isNull();
+        verify(recipeRepository, never()).findByIsApproved(anyBoolean());
+    }
+
+    private static List<RecipeSummary> recipes(int count) {
+        List<RecipeSummary> recipes = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            recipes.add(new RecipeSummary(i, "Recipe " + i, "Dinner", "Easy", 30, 100.0, 7, true, null, false));
+        }
+        return recipes;
+    }
+
+    private static IngredientEntity ingredient(Integer recipeId, String name) {
+        IngredientEntity ingredient = new IngredientEntity();
+        ingredient.setRecipeId(recipeId);
+        ingredient.setName(name);
+        return ingredient;
+    }
+}
@@ -0,0 +1,75 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SessionTokensTest {
+
+    private static final String OLD_KEY = "k1:" + Base64.getEncoder().encodeToString(new byte[32]);
+    private static final String NEW_KEY = "k2:" + Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+    @Test
+    void verifiesOwnTokensAndRejectsTamperedOrExpiredOnes() {
+        SessionTokens tokens = new SessionTokens(OLD_KEY, "k1", Duration.ofHours(1));
+        SessionTokens.Issued issued = tokens.issue(7, true);
+
+        SessionTokens.Claims claims = tokens.verify(issued.token());
+        assertThat(claims).isNotNull();
+        assertThat(claims.userId()).isEqualTo(7);
+        assertThat(claims.admin()).isTrue();
+        assertThat(claims.expiresAt()).isEqualTo(issued.expiresAt());
+
+        // flip one character of the payload
+        String token = issued.token();
+        int i = token.indexOf('.') + 3;
+        String tampered = token.substring(0, i) + (token.charAt(i) == 'A' ? 'B' : 'A') + token.substring(i + 1);
+        assertThat(tokens.verify(tampered)).isNull();
+        assertThat(tokens.verify("garbage")).isNull();
+        assertThat(tokens.verify(issued.token(), issued.expiresAt())).isNull();
+    }
+
+    @Test
+    void oldKeyStillVerifiesAfterRotation() {
+        String oldToken = new SessionTokens(OLD_KEY, "k1", Duration.ofHours(1)).issue(7, false).token();
+
+        SessionTokens rotated = new SessionTokens(OLD_KEY + "," + NEW_KEY, "k2", Duration.ofHours(1));
+        assertThat(rotated.issue(7, false).token()).startsWith("k2.");
+        assertThat(rotated.verify(oldToken)).isNotNull();
+
+        SessionTokens retired = new SessionTokens(NEW_KEY, "k2", Duration.ofHours(1));
+        assertThat(retired.verify(oldToken)).isNull();
+    }
+
+    @Test
+    void revokedTokensAndUsersAreRejected() {
+        SessionTokens tokens = new SessionTokens(OLD_KEY, "k1", Duration.ofHours(1));
+        String first = tokens.issue(7, false).token();
+        String second = tokens.issue(7, false).token();
+
+        tokens.revoke(tokens.verify(first));
+        assertThat(tokens.verify(first)).isNull();
+        assertThat(tokens.verify(second)).isNotNull();
+
+        tokens.revokeUser(7);
+        assertThat(tokens.verify(second)).isNull();
+        // issued right after, usually within the same millisecond
+        assertThat(tokens.verify(tokens.issue(7, false).token())).isNotNull();
+    }
+
+    @Test
+    void revokingAUserSplitsTokensIssuedInTheSameMillisecond() {
+        SessionTokens tokens = new SessionTokens(OLD_KEY, "k1", Duration.ofHours(1));
+        for (int i = 0; i < 1000; i++) {
+            String before = tokens.issue(7, false).token();
+            tokens.revokeUser(7);
+            String after = tokens.issue(7, false).token();
+
+            assertThat(tokens.verify(before)).isNull();
+            assertThat(tokens.verify(after)).isNotNull();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.appdevg5.ghidorakings.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path root;
+
+    private LocalImageStore store;
+    private ThumbnailService service;
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalImageStore(root.toString());
+        service = new ThumbnailService();
+        service.imageStore = store;
+        service.maxPixels = 500 * 500;
+        service.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY), "png", out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void rendersImagesWithinTheLimit() throws IOException {
+        String key = store.store(png(400, 200));
+
+        service.renderMissing(key);
+
+        assertThat(store.variantExists(key, ThumbnailService.variantName(160))).isTrue();
+        assertThat(store.variantExists(key, ThumbnailService.UNRENDERABLE)).isFalse();
+    }
+
+    @Test
+    void marksOversizedAndUndecodableImagesInsteadOfRetrying() throws IOException {
+        String oversized = store.store(png(1000, 1000));
+        String garbage = store.store("not an image".getBytes(StandardCharsets.UTF_8));
+
+        service.renderMissing(oversized);
+        service.renderMissing(garbage);
+
+        assertThat(store.variantExists(oversized, ThumbnailService.variantName(160))).isFalse();
+        assertThat(store.variantExists(oversized, ThumbnailService.UNRENDERABLE)).isTrue();
+        assertThat(store.variantExists(garbage, ThumbnailService.UNRENDERABLE)).isTrue();
+        // marked images are not queued again
+        service.schedule(oversized);
+        assertThat(service.executor.getTaskCount()).isZero();
+    }
+}
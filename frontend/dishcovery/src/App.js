@@ -222,6 +222,7 @@ function App() {
           
           // Update session with correct status
           const updatedUser = {
+            ...user,
             id: actualUser.userId,
             nickname: actualUser.username,
             email: actualUser.email,
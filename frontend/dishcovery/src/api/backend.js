@@ -2,21 +2,42 @@ const API_BASE = "http://localhost:8080";
 
 export { API_BASE };
 
-// Helper to get current user ID from session
-function getCurrentUserId() {
+// Session token issued by /user/login, or null when signed out or expired
+function getSessionToken() {
   try {
     const userStr = sessionStorage.getItem("dishcovery:user");
     if (userStr) {
       const user = JSON.parse(userStr);
-      return user.id || user.userId;
+      if (user.token && (!user.tokenExpiresAt || user.tokenExpiresAt > Date.now())) {
+        return user.token;
+      }
     }
   } catch (error) {
-    console.error("Error getting user ID:", error);
+    console.error("Error reading session token:", error);
   }
   return null;
 }
 
-async function handleResponse(res) {
+function buildHeaders(includeAuth) {
+  const headers = {
+    "Content-Type": "application/json",
+  };
+
+  if (includeAuth) {
+    const token = getSessionToken();
+    if (token) {
+      headers["Authorization"] = `Bearer ${token}`;
+    }
+  }
+  return headers;
+}
+
+async function handleResponse(res, sentToken = false) {
+  if (res.status === 401 && sentToken) {
+    // token expired or revoked (logout elsewhere, password change); sign in again
+    sessionStorage.removeItem("dishcovery:user");
+    window.location.href = "/login";
+  }
   if (!res.ok) {
     const text = await res.text().catch(() => "");
     throw new Error(text || `Request failed with status ${res.status}`);
@@ -32,79 +53,45 @@ async function handleResponse(res) {
   return res.text();
 }
 
-export async function apiGet(path, includeUserId = false) {
-  const headers = {
-    "Content-Type": "application/json",
-  };
-  
-  if (includeUserId) {
-    const userId = getCurrentUserId();
-    if (userId) {
-      headers["X-User-Id"] = userId.toString();
-    }
-  }
-  
+export async function apiGet(path, includeAuth = false) {
+  const headers = buildHeaders(includeAuth);
   const res = await fetch(`${API_BASE}${path}`, { headers });
-  return handleResponse(res);
+  return handleResponse(res, "Authorization" in headers);
 }
 
-export async function apiPost(path, body, includeUserId = false) {
-  const headers = {
-    "Content-Type": "application/json",
-  };
-  
-  if (includeUserId) {
-    const userId = getCurrentUserId();
-    if (userId) {
-      headers["X-User-Id"] = userId.toString();
-    }
-  }
-  
+export async function apiPost(path, body, includeAuth = false) {
+  const headers = buildHeaders(includeAuth);
   const res = await fetch(`${API_BASE}${path}`, {
     method: "POST",
     headers,
     body: JSON.stringify(body),
   });
-  return handleResponse(res);
+  return handleResponse(res, "Authorization" in headers);
 }
 
-export async function apiPut(path, body, includeUserId = false) {
-  const headers = {
-    "Content-Type": "application/json",
-  };
-  
-  if (includeUserId) {
-    const userId = getCurrentUserId();
-    if (userId) {
-      headers["X-User-Id"] = userId.toString();
-    }
-  }
-  
+export async function apiPut(path, body, includeAuth = false) {
+  const headers = buildHeaders(includeAuth);
   const res = await fetch(`${API_BASE}${path}`, {
     method: "PUT",
     headers,
     body: JSON.stringify(body),
   });
-  return handleResponse(res);
+  return handleResponse(res, "Authorization" in headers);
 }
 
-export async function apiDelete(path, includeUserId = false) {
-  const headers = {
-    "Content-Type": "application/json",
-  };
-  
-  if (includeUserId) {
-    const userId = getCurrentUserId();
-    if (userId) {
-      headers["X-User-Id"] = userId.toString();
-    }
-  }
-  
+export async function apiDelete(path, includeAuth = false) {
+  const headers = buildHeaders(includeAuth);
   const res = await fetch(`${API_BASE}${path}`, {
     method: "DELETE",
     headers,
   });
-  return handleResponse(res);
+  return handleResponse(res, "Authorization" in headers);
+}
+
+// Revokes the current session token on the server; the caller clears the local session
+export async function logout() {
+  if (!getSessionToken()) return null;
+  return apiPost("/user/logout", null, true).catch(() => null);
 }
 
 // ===== COMMENT API =====
@@ -113,15 +100,15 @@ export async function getComments() {
 }
 
 export async function addComment(body) {
-  return apiPost("/comment/insertComment", body, true); // Include user ID for authentication
+  return apiPost("/comment/insertComment", body, true); // Sends the session token
 }
 
 export async function updateComment(commentId, body) {
-  return apiPut(`/comment/updateComment?commentId=${commentId}`, body, true); // Include user ID for ownership check
+  return apiPut(`/comment/updateComment?commentId=${commentId}`, body, true); // Sends the session token for the ownership check
 }
 
 export async function deleteComment(commentId) {
-  return apiDelete(`/comment/deleteComment/${commentId}`, true); // Include user ID for ownership check
+  return apiDelete(`/comment/deleteComment/${commentId}`, true); // Sends the session token for the ownership check
 }
 
 // ===== RATING API =====
@@ -130,15 +117,15 @@ export async function getRatings() {
 }
 
 export async function addRating(body) {
-  return apiPost("/rating/insertRating", body, true); // Include user ID for authentication
+  return apiPost("/rating/insertRating", body, true); // Sends the session token
 }
 
 export async function updateRating(ratingId, body) {
-  return apiPut(`/rating/updateRating?ratingId=${ratingId}`, body, true); // Include user ID for ownership check
+  return apiPut(`/rating/updateRating?ratingId=${ratingId}`, body, true); // Sends the session token for the ownership check
 }
 
 export async function deleteRating(ratingId) {
-  return apiDelete(`/rating/deleteRating/${ratingId}`, true); // Include user ID for ownership check
+  return apiDelete(`/rating/deleteRating/${ratingId}`, true); // Sends the session token for the ownership check
 }
 
 // ===== INGREDIENT API =====
@@ -163,20 +150,42 @@ export async function deleteIngredient(id) {
 }
 
 // ===== RECIPE API =====
+// List endpoints return summaries (imageUrl, ingredientNames); description and steps come from getRecipeDetail
 export async function getRecipes() {
   return apiGet("/recipe/getAllRecipes");
 }
 
+export async function getRecipeDetail(recipeId) {
+  return apiGet(`/recipe/getRecipeById/${recipeId}`, true); // Owners and admins can also see pending recipes
+}
+
+// Turns a backend image path such as "/image/<key>" into a URL the browser can load
+export function imageSrc(url) {
+  if (!url) return "";
+  return url.startsWith("/") ? `${API_BASE}${url}` : url;
+}
+
+// Fills a list card's description, instructions and ingredient quantities from the detail endpoint
+export async function withRecipeDetail(dish) {
+  const detail = await getRecipeDetail(dish.backendId || dish.id);
+  return {
+    ...dish,
+    description: detail.description || "",
+    instructions: detail.steps || "",
+    ingredients: detail.ingredients || dish.ingredients,
+  };
+}
+
 export async function addRecipe(body) {
-  return apiPost("/recipe/insertRecipe", body, true); // Include user ID for authentication
+  return apiPost("/recipe/insertRecipe", body, true); // Sends the session token
 }
 
 export async function updateRecipe(recipeId, body) {
-  return apiPut(`/recipe/updateRecipe/${recipeId}`, body, true); // Include user ID for ownership check
+  return apiPut(`/recipe/updateRecipe/${recipeId}`, body, true); // Sends the session token for the ownership check
 }
 
 export async function deleteRecipe(recipeId) {
-  return apiDelete(`/recipe/deleteRecipe/${recipeId}`, true); // Include user ID for ownership check
+  return apiDelete(`/recipe/deleteRecipe/${recipeId}`, true); // Sends the session token for the ownership check
 }
 
 // ===== FAVORITE API =====
@@ -185,13 +194,13 @@ export async function getFavorites() {
 }
 
 export async function getUserFavorites(userId) {
-  return apiGet(`/favorite/getUserFavorites/${userId}`, true); // Include user ID for authentication
+  return apiGet(`/favorite/getUserFavorites/${userId}`, true); // Sends the session token
 }
 
 export async function addFavorite(body) {
-  return apiPost("/favorite/insertFavorite", body, true); // Include user ID for authentication
+  return apiPost("/favorite/insertFavorite", body, true); // Sends the session token
 }
 
 export async function deleteFavorite(favoriteId) {
-  return apiDelete(`/favorite/deleteFavorite/${favoriteId}`, true); // Include user ID for ownership check
+  return apiDelete(`/favorite/deleteFavorite/${favoriteId}`, true); // Sends the session token for the ownership check
 }
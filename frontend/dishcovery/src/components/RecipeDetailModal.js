@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from "react";
-import { getComments, addComment, getRatings, addRating } from "../api/backend";
+import { getComments, addComment, getRatings, addRating, getRecipeDetail } from "../api/backend";
 
 export default function RecipeDetailModal({ dish, onClose, isFav, toggleFav }) {
   // Get user from session storage
@@ -12,6 +12,16 @@ export default function RecipeDetailModal({ dish, onClose, isFav, toggleFav }) {
   const [hoverRating, setHoverRating] = useState(0);
   const [averageRating, setAverageRating] = useState(0);
   const [hasRated, setHasRated] = useState(false);
+  const [detail, setDetail] = useState(null);
+
+  // Recipe lists only carry summaries, so steps and ingredient quantities are loaded here
+  useEffect(() => {
+    setDetail(null);
+    if (!dish?.backendId) return;
+    getRecipeDetail(dish.backendId)
+      .then(setDetail)
+      .catch((err) => console.error("Failed to load recipe details:", err));
+  }, [dish]);
 
   // Load comments and ratings from backend
   useEffect(() => {
@@ -181,7 +191,7 @@ export default function RecipeDetailModal({ dish, onClose, isFav, toggleFav }) {
             )}
 
             <h3>How to Cook</h3>
-            <p style={{ whiteSpace: "pre-wrap" }}>{dish.instructions || "No instructions provided."}</p>
+            <p style={{ whiteSpace: "pre-wrap" }}>{detail?.steps || dish.instructions || "No instructions provided."}</p>
 
             <div style={{ marginTop: "25px" }}>
               <h3 style={{ marginBottom: "10px" }}>Comments</h3>
@@ -227,7 +237,7 @@ export default function RecipeDetailModal({ dish, onClose, isFav, toggleFav }) {
             <div className="ingredients">
               <h4>Ingredients</h4>
               <ul style={{ marginTop: 8 }}>
-                {(dish.ingredients || []).map((ing, idx) => (
+                {(detail?.ingredients || dish.ingredients || []).map((ing, idx) => (
                   <li key={idx}>
                     {typeof ing === "string" ? ing : ing.name} {ing?.quantity ? `— ${ing.quantity}` : ""}
                   </li>
@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from "react";
 import { useNavigate } from "react-router-dom";
 import NavBar from "../components/NavBar";
-import { apiGet, apiPut, apiDelete } from "../api/backend";
+import { apiGet, apiPut, apiDelete, getRecipeDetail, imageSrc } from "../api/backend";
 import "./AdminPage.css";
 
 function AdminPage() {
@@ -96,7 +96,7 @@ function AdminPage() {
     if (!window.confirm("Are you sure you want to delete this recipe?")) return;
     
     try {
-      await apiDelete(`/recipe/deleteRecipe/${recipeId}`);
+      await apiDelete(`/recipe/deleteRecipe/${recipeId}`, true);
       showSuccess("Recipe deleted successfully!");
       await loadAllData();
     } catch (err) {
@@ -109,7 +109,7 @@ function AdminPage() {
     if (!window.confirm("Delete this user and all their data?")) return;
     
     try {
-      await apiDelete(`/user/delete/${userId}`);
+      await apiDelete(`/user/delete/${userId}`, true);
       showSuccess("User deleted successfully!");
       await loadAllData();
     } catch (err) {
@@ -122,7 +122,7 @@ function AdminPage() {
     if (!window.confirm("Delete this comment?")) return;
     
     try {
-      await apiDelete(`/comment/deleteComment/${commentId}`);
+      await apiDelete(`/comment/deleteComment/${commentId}`, true);
       showSuccess("Comment deleted successfully!");
       await loadAllData();
     } catch (err) {
@@ -183,7 +183,7 @@ function AdminPage() {
     if (!window.confirm(`Delete ${selectedRecipes.length} recipes permanently?`)) return;
 
     try {
-      await Promise.all(selectedRecipes.map(id => apiDelete(`/recipe/deleteRecipe/${id}`)));
+      await Promise.all(selectedRecipes.map(id => apiDelete(`/recipe/deleteRecipe/${id}`, true)));
       showSuccess(`${selectedRecipes.length} recipes deleted!`);
       clearSelection();
       await loadAllData();
@@ -526,18 +526,7 @@ function AdminPage() {
 
   // Recipe Card Component
   const RecipeCard = ({ recipe, isPending }) => {
-    let ingredients = [];
-    try {
-      if (recipe.ingredients) {
-        const parsed = JSON.parse(recipe.ingredients);
-        ingredients = parsed.filter(ing => {
-          const name = typeof ing === 'string' ? ing : ing.name;
-          return name && name.trim() && name.trim() !== '-';
-        });
-      }
-    } catch (e) {
-      ingredients = [];
-    }
+    const ingredients = (recipe.ingredientNames || []).filter(name => name && name.trim() && name.trim() !== '-');
 
     const isSelected = selectedRecipes.includes(recipe.recipeId);
 
@@ -552,8 +541,8 @@ function AdminPage() {
             />
           </div>
         )}
-        {recipe.image && (
-          <img src={recipe.image} alt={recipe.title} className="recipe-image" />
+        {recipe.imageUrl && (
+          <img src={imageSrc(recipe.imageUrl)} alt={recipe.title} className="recipe-image" />
         )}
         <div className="recipe-header">
           <h3>{recipe.title}</h3>
@@ -570,20 +559,26 @@ function AdminPage() {
         
         <div className="recipe-info">
           <p><strong>By:</strong> User #{recipe.userId}</p>
-          {recipe.description && <p><strong>Description:</strong> {recipe.description.substring(0, 100)}...</p>}
         </div>
 
         <div className="recipe-actions">
-          <button className="btn-view" onClick={() => {
+          <button className="btn-view" onClick={async () => {
+            // The list only carries summaries; description and steps come from the detail endpoint
+            let detail = {};
+            try {
+              detail = await getRecipeDetail(recipe.recipeId);
+            } catch (err) {
+              console.error("Failed to load recipe details:", err);
+            }
             const mappedRecipe = {
               id: recipe.recipeId,
               backendId: recipe.recipeId,
               name: recipe.title,
-              image: recipe.image,
-              description: recipe.description,
+              image: imageSrc(recipe.imageUrl),
+              description: detail.description || "",
               cuisine: recipe.category || "",
-              ingredients: ingredients.map(ing => typeof ing === 'string' ? ing : ing.name),
-              instructions: recipe.steps,
+              ingredients,
+              instructions: detail.steps || "",
               cookTimeMinutes: recipe.cookTimeMinutes || null,
               difficulty: recipe.difficulty || null,
               rating: 0,
@@ -215,7 +215,8 @@ function CreateRecipePage() {
     const payload = {
       title: recipe.name,
       description: recipe.description,
-      image: recipe.imageFile || "",
+      // Only a newly picked file is sent; null keeps the stored image when editing
+      image: recipe.imageFile && recipe.imageFile.startsWith("data:") ? recipe.imageFile : null,
       steps: recipe.instructions,
       userId: userId,
       ingredients: recipe.ingredients,
@@ -238,13 +239,13 @@ function CreateRecipePage() {
     try {
       if (editingRecipe && editingRecipe.backendId) {
         // update existing recipe on backend
-        await apiPut(`/recipe/updateRecipe/${editingRecipe.backendId}`, payload, true); // Include user ID for authentication
+        await apiPut(`/recipe/updateRecipe/${editingRecipe.backendId}`, payload, true); // Sends the session token
         setIsLoading(false);
         navigate("/myrecipes");
         return;
       }
 
-      const data = await apiPost("/recipe/insertRecipe", payload, true); // Include user ID for authentication
+      const data = await apiPost("/recipe/insertRecipe", payload, true); // Sends the session token
       
       // Verify we got a valid response
       if (!data || typeof data !== 'object') {
@@ -8,7 +8,7 @@ import FilterBar from "../components/FilterBar";
 import PriceFilter from "../components/PriceFilter";
 import RecipeGrid from "../components/RecipeGrid";
 import RecipeDetailModal from "../components/RecipeDetailModal";
-import { apiGet } from "../api/backend";
+import { apiGet, imageSrc } from "../api/backend";
 import { getUserFavorites, addFavorite, deleteFavorite } from "../api/backend";
 
 export default function HomePage() {
@@ -58,11 +58,9 @@ export default function HomePage() {
           id: r.recipeId,
           backendId: r.recipeId,
           name: r.title,
-          image: r.image,
+          image: imageSrc(r.imageUrl),
           cuisine: r.category || r.cuisine || "Other",
-          ingredients: (typeof r.ingredients === "string" && r.ingredients) ? JSON.parse(r.ingredients) : (r.ingredients || []),
-          description: r.description || "",
-          instructions: r.steps || "",
+          ingredients: r.ingredientNames || [],
           cookTimeMinutes: r.cookTimeMinutes || null,
           difficulty: r.difficulty || null,
           estimatedPrice: r.estimatedPrice || null,
@@ -56,6 +56,9 @@ function LoginPage() {
         nickname: user.username,
         email: user.email,
         isAdmin: user.admin || false,
+        // sent as "Authorization: Bearer" by the api helpers
+        token: user.token,
+        tokenExpiresAt: user.tokenExpiresAt,
       };
 
       // Store user in sessionStorage (not localStorage)
@@ -3,7 +3,7 @@ import NavBar from "../components/NavBar";
 import RecipeDetailModal from "../components/RecipeDetailModal";
 import "./MyRecipesPage.css";
 import { useNavigate } from "react-router-dom";
-import { deleteRecipe, apiGet } from "../api/backend";
+import { deleteRecipe, apiGet, imageSrc, withRecipeDetail } from "../api/backend";
 
 export default function MyRecipesPage() {
   const [recipes, setRecipes] = useState([]);
@@ -32,10 +32,8 @@ export default function MyRecipesPage() {
           id: r.recipeId,
           backendId: r.recipeId,
           name: r.title,
-          description: r.description,
-          image: r.image,
-          ingredients: (typeof r.ingredients === "string" && r.ingredients) ? JSON.parse(r.ingredients) : (r.ingredients || []),
-          instructions: r.steps,
+          image: imageSrc(r.imageUrl),
+          ingredients: r.ingredientNames || [],
           category: r.category || "",
           difficulty: r.difficulty || null,
           cookTimeMinutes: r.cookTimeMinutes || null,
@@ -72,6 +70,16 @@ export default function MyRecipesPage() {
     setIsModalOpen(true);
   };
 
+  // The list only carries summaries, so load the full recipe before editing it
+  const editRecipe = async (recipe) => {
+    try {
+      navigate("/create-recipe", { state: { recipe: await withRecipeDetail(recipe) } });
+    } catch (err) {
+      console.error("Failed to load recipe:", err);
+      alert("Could not load the recipe. Please try again.");
+    }
+  };
+
   const closeModal = () => {
     setSelectedRecipe(null);
     setIsModalOpen(false);
@@ -146,7 +154,6 @@ export default function MyRecipesPage() {
                     typeof ing === 'string' ? ing : (ing.quantity ? `${ing.name} - ${ing.quantity}` : ing.name)
                   ).join(", ")}
                 </p>
-                <p className="small-label"><b>Instructions: </b>{recipe.instructions}</p>
 
                 {/* Buttons inline */}
                 <div style={{ display: "flex", gap: "10px", marginTop: "10px" }}>
@@ -168,7 +175,7 @@ export default function MyRecipesPage() {
 
                   <button
                     className="btn-edit"
-                    onClick={() => navigate("/create-recipe", { state: { recipe } })}
+                    onClick={() => editRecipe(recipe)}
                     style={{
                       background: "#36489e",
                       color: "#fff",
@@ -1,6 +1,7 @@
 import React, { useState } from "react";
 import { useNavigate } from "react-router-dom";
 import NavBar from "../components/NavBar";
+import { logout } from "../api/backend";
 import "./ProfilePage.css";
 
 function ProfilePage() {
@@ -14,7 +15,8 @@ function ProfilePage() {
   const [newPassword, setNewPassword] = useState("");
   const [confirmPassword, setConfirmPassword] = useState("");
 
-  const handleLogout = () => {
+  const handleLogout = async () => {
+    await logout();
     sessionStorage.removeItem("dishcovery:user");
     navigate("/login");
   };
@@ -3,7 +3,7 @@ import { useLocation, useNavigate } from "react-router-dom";
 import NavBar from "../components/NavBar";
 import RecipeGrid from "../components/RecipeGrid";
 import RecipeDetailModal from "../components/RecipeDetailModal";
-import { getRecipes, getUserFavorites, addFavorite, deleteFavorite } from "../api/backend";
+import { getRecipes, getUserFavorites, addFavorite, deleteFavorite, imageSrc } from "../api/backend";
 
 function RecipesPage() {
   const location = useLocation();
@@ -16,16 +16,14 @@ function RecipesPage() {
   useEffect(() => {
     getRecipes()
       .then((data) => {
-        // map backend RecipeEntity to frontend shape
+        // map backend RecipeSummary to frontend shape
         const mapped = (data || []).map((r) => ({
           id: r.recipeId,
           backendId: r.recipeId,
           name: r.title,
-          image: r.image,
-          description: r.description,
+          image: imageSrc(r.imageUrl),
           cuisine: r.category || "",
-          ingredients: (typeof r.ingredients === "string" && r.ingredients) ? JSON.parse(r.ingredients) : (r.ingredients || []),
-          instructions: r.steps,
+          ingredients: r.ingredientNames || [],
           cookTimeMinutes: r.cookTimeMinutes || null,
           difficulty: r.difficulty || null,
           rating: 0,